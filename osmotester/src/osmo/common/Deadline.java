@@ -0,0 +1,74 @@
+package osmo.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time after which something should stop, such as generation or an optimization phase.
+ * Based on the monotonic {@link System#nanoTime()}, so changes in the system clock do not affect it.
+ * Checking a deadline is just a clock read, so there are no timer threads to create or shut down, and a single
+ * instance can be shared by any number of threads.
+ *
+ * @author Teemu Kanstren
+ */
+public class Deadline {
+  /** A deadline that never passes. */
+  private static final Deadline NEVER = new Deadline(0, -1);
+  /** When the deadline was started, in nanoseconds as given by {@link System#nanoTime()}. */
+  private final long start;
+  /** How many nanoseconds from start until the deadline is passed. Negative for never. */
+  private final long duration;
+
+  private Deadline(long start, long duration) {
+    this.start = start;
+    this.duration = duration;
+  }
+
+  /**
+   * @param time The time from now until the deadline.
+   * @param unit Unit for the time.
+   * @return The new deadline.
+   */
+  public static Deadline after(long time, TimeUnit unit) {
+    return new Deadline(System.nanoTime(), unit.toNanos(time));
+  }
+
+  /** @return A deadline that never passes. */
+  public static Deadline never() {
+    return NEVER;
+  }
+
+  /** @return A deadline with the same duration as this one, starting from now. */
+  public Deadline restart() {
+    if (duration < 0) return this;
+    return new Deadline(System.nanoTime(), duration);
+  }
+
+  /** @return True if the deadline time has been reached. */
+  public boolean isPassed() {
+    return duration >= 0 && System.nanoTime() - start >= duration;
+  }
+
+  /**
+   * @param unit The unit for the result.
+   * @return Time elapsed since the deadline was started.
+   */
+  public long elapsed(TimeUnit unit) {
+    return unit.convert(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param unit The unit for the result.
+   * @return Time remaining until the deadline, 0 if passed, {@link Long#MAX_VALUE} if never.
+   */
+  public long remaining(TimeUnit unit) {
+    if (duration < 0) return Long.MAX_VALUE;
+    long remaining = duration - (System.nanoTime() - start);
+    return remaining <= 0 ? 0 : unit.convert(remaining, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    if (duration < 0) return "Deadline{never}";
+    return "Deadline{remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms}";
+  }
+}
@@ -0,0 +1,49 @@
+package osmo.common;
+
+import java.util.Random;
+
+/**
+ * The default engine for {@link Randomizer}, based on {@link Random}.
+ * Produces the same values for a given seed as all earlier versions of the randomizer, so existing seeds
+ * keep generating the same tests. {@link Random} synchronizes every call, so {@link SplittableRandomEngine} is
+ * faster where reproducing old results is not needed.
+ *
+ * @author Teemu Kanstren
+ */
+public class JavaRandomEngine implements RandomEngine {
+  /** Used for random number generation. */
+  private final Random random;
+
+  public JavaRandomEngine(long seed) {
+    random = new Random(seed);
+    //if we do not grab the initial set, it will always produce almost the same numbers for new instances first values..
+    for (int i = 0 ; i < 3 ; i++) {
+      random.nextDouble();
+    }
+  }
+
+  @Override
+  public int nextInt() {
+    return random.nextInt();
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+  @Override
+  public long nextLong() {
+    return random.nextLong();
+  }
+
+  @Override
+  public float nextFloat() {
+    return random.nextFloat();
+  }
+
+  @Override
+  public double nextDouble() {
+    return random.nextDouble();
+  }
+}
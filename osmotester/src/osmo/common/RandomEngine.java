@@ -0,0 +1,27 @@
+package osmo.common;
+
+/**
+ * Source of random numbers for a {@link Randomizer}.
+ * Implementations do not need to be thread-safe, as each randomizer is used by one generator at a time.
+ *
+ * @author Teemu Kanstren
+ */
+public interface RandomEngine {
+  /** @return A random value over the full int range. */
+  public int nextInt();
+
+  /**
+   * @param bound Upper bound for the value, exclusive. Must be positive.
+   * @return A random value between 0 (inclusive) and bound (exclusive).
+   */
+  public int nextInt(int bound);
+
+  /** @return A random value over the full long range. */
+  public long nextLong();
+
+  /** @return A random value between 0 (inclusive) and 1 (exclusive). */
+  public float nextFloat();
+
+  /** @return A random value between 0 (inclusive) and 1 (exclusive). */
+  public double nextDouble();
+}
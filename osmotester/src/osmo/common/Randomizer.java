@@ -1,19 +1,28 @@
 package osmo.common;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.function.LongFunction;
 
 /**
  * This class is similar to the static methods provided in {@link TestUtils} but allows use os specific random seed.
+ * The actual numbers come from a {@link RandomEngine}. By default this is {@link JavaRandomEngine}, which produces
+ * the same values for a given seed as all earlier versions. A faster engine such as {@link SplittableRandomEngine}
+ * can be given in the constructor, but it produces different values for the same seed.
+ * For test generation, the engine is set with {@link osmo.tester.OSMOConfiguration#setRandomEngine(LongFunction)}.
+ * <p>
+ * Thread-safety depends on the engine. {@link JavaRandomEngine} is synchronized, so a randomizer using it can be shared.
+ * {@link SplittableRandomEngine} is not, so each generator or thread should have its own, seeded for example from
+ * {@link #childSeed(int)} of a shared parent.
  *
  * @author Teemu Kanstren
  */
 public class Randomizer {
+  /** Creates the random number engine for a given seed. */
+  private final LongFunction<RandomEngine> engine;
   /** Used for random number generation. */
-  private Random random = new Random();
+  private RandomEngine random;
   /** The seed for this instance. Defaults to system time. */
   private long seed = System.currentTimeMillis();
 
@@ -23,6 +32,17 @@ public class Randomizer {
    * @param seed The randomization seed to use.
    */
   public Randomizer(long seed) {
+    this(seed, JavaRandomEngine::new);
+  }
+
+  /**
+   * Use this to define a specific randomization seed and the engine to produce the values from that seed.
+   *
+   * @param seed The randomization seed to use.
+   * @param engine Creates the random number engine from a seed.
+   */
+  public Randomizer(long seed, LongFunction<RandomEngine> engine) {
+    this.engine = engine;
     setSeed(seed);
   }
 
@@ -31,6 +51,7 @@ public class Randomizer {
    * This means different runs will not be deterministic but each produce different choices/values.
    */
   public Randomizer() {
+    this.engine = JavaRandomEngine::new;
     setSeed(seed);
   }
 
@@ -38,6 +59,30 @@ public class Randomizer {
     return seed;
   }
 
+  /**
+   * Derives a seed for a child generator, such as one for each thread or task created from this one.
+   * The result depends only on the seed of this randomizer and the given index, not on the values generated so far.
+   * So the children get the same seeds even if they are created in a different order.
+   *
+   * @param index Identifies the child.
+   * @return The seed for the child.
+   */
+  public long childSeed(int index) {
+    //splitmix64 finalizer, to spread nearby seeds and indices to unrelated values
+    long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * @param index Identifies the child.
+   * @return A new randomizer with the seed from {@link #childSeed(int)} and the same engine as this one.
+   */
+  public Randomizer child(int index) {
+    return new Randomizer(childSeed(index), engine);
+  }
+
   /**
    * Initialize with the given seed value.
    * To avoid producing similar first values for different seeds, the initial set of few values is taken and discarded here.
@@ -46,11 +91,7 @@ public class Randomizer {
    */
   public void setSeed(long seed) {
     this.seed = seed;
-    random = new Random(seed);
-    //if we do not grab the initial set, it will always produce almost the same numbers for new instances first values..
-    for (int i = 0 ; i < 3 ; i++) {
-      random.nextDouble();
-    }
+    random = engine.apply(seed);
   }
 
   /**
@@ -185,17 +226,71 @@ public class Randomizer {
    * @return Random index into the list according to the lists.
    */
   public int rawWeightedRandomFrom(List<Integer> weights) {
-    List<Integer> totals = new ArrayList<>();
     int total = 0;
-    for (Integer weight : weights) {
+    for (int i = 0 ; i < weights.size() ; i++) {
+      int weight = weights.get(i);
       if (weight <= 0) {
         throw new IllegalArgumentException("Weight must be > 0. Was "+weight+".");
       }
       total += weight;
-      totals.add(total);
     }
-//    System.out.println("weights:"+totals+" total:"+total);
-    return sumWeightedRandomFrom(totals);
+    int target = nextInt(1, total);
+    int sum = 0;
+    for (int i = 0 ; i < weights.size() ; i++) {
+      sum += weights.get(i);
+      if (sum >= target) return i;
+    }
+    //cannot get here as the last sum is the total
+    return weights.size() - 1;
+  }
+
+  /**
+   * Same as {@link #rawWeightedRandomFrom(List)}, for weights in an array.
+   * Gives the same result for the same seed and weights.
+   *
+   * @param weights The weights, index in array is the index returned.
+   * @return Random index into the array according to the weights.
+   */
+  public int weightedRandomFrom(int[] weights) {
+    int total = 0;
+    for (int weight : weights) {
+      if (weight <= 0) {
+        throw new IllegalArgumentException("Weight must be > 0. Was "+weight+".");
+      }
+      total += weight;
+    }
+    int target = nextInt(1, total);
+    int sum = 0;
+    for (int i = 0 ; i < weights.length ; i++) {
+      sum += weights[i];
+      if (sum >= target) return i;
+    }
+    return weights.length - 1;
+  }
+
+  /**
+   * Same as {@link #weightedRandomFrom(int[])} but for non-integer weights.
+   * Avoids having to scale the weights to integers first.
+   *
+   * @param weights The weights, index in array is the index returned.
+   * @return Random index into the array according to the weights.
+   */
+  public int weightedRandomFrom(double[] weights) {
+    double total = 0;
+    for (double weight : weights) {
+      if (!(weight > 0)) {
+        throw new IllegalArgumentException("Weight must be > 0. Was "+weight+".");
+      }
+      total += weight;
+    }
+    double target = nextDouble() * total;
+    double sum = 0;
+    for (int i = 0 ; i < weights.length ; i++) {
+      sum += weights[i];
+      if (sum > target) return i;
+    }
+    //rounding errors may leave the sum just short of the target
+    return weights.length - 1;
   }
 
   /**
@@ -210,15 +305,15 @@ public class Randomizer {
   public int sumWeightedRandomFrom(List<Integer> summedTotals) {
     int total = summedTotals.get(summedTotals.size()-1);
     int target = nextInt(1, total);
-//    System.out.println("target:"+target);
-    int choice = Collections.binarySearch(summedTotals, target);
-    if (choice < 0) {
-      //Java binary search returns negative index values if there is no direct match, with additional -1 added on top
-      //that is, if the result would be 4 but it is not a direct match, we get -5. trick below corrects it.
-      choice = choice * -1; //make it positive again
-      choice = choice -1; //remove the -1 (which after previous line is +1)
+    //first index where the sum reaches the target
+    int low = 0;
+    int high = summedTotals.size() - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (summedTotals.get(mid) < target) low = mid + 1;
+      else high = mid;
     }
-    return choice;
+    return low;
   }
 
   /**
@@ -242,9 +337,21 @@ public class Randomizer {
    * @return A randomly picked item from the given list.
    */
   public <T> T oneOf(Collection<T> array) {
-    List<T> list = new ArrayList<>(array);
     int index = nextInt(0, array.size() - 1);
-    return list.get(index);
+    if (array instanceof List) return ((List<T>) array).get(index);
+    Iterator<T> i = array.iterator();
+    for (int n = 0 ; n < index ; n++) {
+      i.next();
+    }
+    return i.next();
+  }
+
+  /**
+   * @param list The list of items where to pick one from.
+   * @return A randomly picked item from the given list.
+   */
+  public <T> T oneOf(List<T> list) {
+    return list.get(nextInt(0, list.size() - 1));
   }
 
   /**
@@ -0,0 +1,45 @@
+package osmo.common;
+
+import java.util.SplittableRandom;
+
+/**
+ * A {@link Randomizer} engine based on {@link SplittableRandom}.
+ * It has no synchronization and better statistical quality than {@link JavaRandomEngine}, but produces
+ * different values for the same seed. So tests generated with a given seed change when switching to this.
+ * Not thread-safe, each thread should use its own randomizer.
+ *
+ * @author Teemu Kanstren
+ */
+public class SplittableRandomEngine implements RandomEngine {
+  /** Used for random number generation. */
+  private final SplittableRandom random;
+
+  public SplittableRandomEngine(long seed) {
+    random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public int nextInt() {
+    return random.nextInt();
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+  @Override
+  public long nextLong() {
+    return random.nextLong();
+  }
+
+  @Override
+  public float nextFloat() {
+    return (random.nextInt() >>> 8) * 0x1.0p-24f;
+  }
+
+  @Override
+  public double nextDouble() {
+    return random.nextDouble();
+  }
+}
@@ -56,8 +56,9 @@ public class TestUtils {
   /**
    * Used for random number generation, practically also shared in OSMOTester in many places.
    * {@see OSMOTester} and the setRandom method in it.
+   * Shared by all threads, so it uses the synchronized {@link JavaRandomEngine}.
    */
-  private static Randomizer random = new Randomizer();
+  private static Randomizer random = new Randomizer(System.currentTimeMillis(), JavaRandomEngine::new);
   public static String ln = System.getProperty("line.separator");
 
   /**
@@ -6,18 +6,24 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Supplier;
 import java.util.logging.FileHandler;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 
 /**
  * The main entry point for writing logs. Create one in each class, just like many of the regular logging frameworks.
  * It is intended to encapsulate logging functionality with less complexity in configuration than general frameworks.
+ * For debug messages on frequently executed paths, use the {@link Supplier} or "{}" parameter variants, or check
+ * {@link #isDebugEnabled()}, so the message is only built if it is going to be printed.
  *
  * @author Teemu Kanstren
  */
 public class Logger {
   /** We delegate to the JDK logging interface. */
   private java.util.logging.Logger logger;
+  /** True if the handlers of this logger print debug messages. Handler levels are set when the logger is created. */
+  private boolean debug = false;
   /** File logging level. Defaults to nothing being printed.*/
   public static Level fileLevel = null;
   /** Console logging level. Defaults to errors being printed. */
@@ -90,11 +96,18 @@ public class Logger {
     console.setFormatter(new LogFormatter());
     console.setLevel(consoleLevel);
     logger.addHandler(console);
+    debug = isDebug(console);
     if (file != null) {
       logger.addHandler(file);
+      debug |= isDebug(file);
     }
   }
 
+  private static boolean isDebug(Handler handler) {
+    Level level = handler.getLevel();
+    return level != null && level.intValue() <= Level.FINE.intValue();
+  }
+
   public static void initFromFile() {
     String configurationFile = "osmo-tester.properties";
     try {
@@ -139,12 +152,80 @@ public class Logger {
    * @param msg The message to be printed.
    */
   public void d(String msg) {
-    if (isOff()) {
+    if (!isDebugEnabled()) {
       return;
     }
     logger.fine(msg);
   }
 
+  /**
+   * Prints d level messages, creating the message only if d level is enabled.
+   *
+   * @param msg Provides the message to be printed.
+   */
+  public void d(Supplier<String> msg) {
+    if (!isDebugEnabled()) {
+      return;
+    }
+    logger.fine(msg.get());
+  }
+
+  /**
+   * Prints d level messages, creating the message only if d level is enabled.
+   * The "{}" in the message is replaced with the string value of the argument.
+   *
+   * @param msg The message to be printed.
+   * @param arg The argument for the message.
+   */
+  public void d(String msg, Object arg) {
+    if (!isDebugEnabled()) {
+      return;
+    }
+    logger.fine(format(msg, arg, null));
+  }
+
+  /**
+   * Prints d level messages, creating the message only if d level is enabled.
+   * The "{}" in the message are replaced with the string values of the arguments, in order.
+   *
+   * @param msg The message to be printed.
+   * @param arg1 The first argument for the message.
+   * @param arg2 The second argument for the message.
+   */
+  public void d(String msg, Object arg1, Object arg2) {
+    if (!isDebugEnabled()) {
+      return;
+    }
+    logger.fine(format(msg, arg1, arg2));
+  }
+
+  private static String format(String msg, Object arg1, Object arg2) {
+    StringBuilder sb = new StringBuilder(msg.length() + 32);
+    int start = 0;
+    int index = msg.indexOf("{}");
+    if (index < 0) return msg;
+    sb.append(msg, start, index).append(arg1);
+    start = index + 2;
+    index = msg.indexOf("{}", start);
+    if (index >= 0) {
+      sb.append(msg, start, index).append(arg2);
+      start = index + 2;
+    }
+    sb.append(msg, start, msg.length());
+    return sb.toString();
+  }
+
+  /**
+   * Checks if debug messages are printed by this logger.
+   * The check is cheap, so it can be used to avoid building debug messages on frequently executed paths.
+   *
+   * @return True if debug messages are printed.
+   */
+  public boolean isDebugEnabled() {
+    if (useJul) return logger.isLoggable(Level.FINE);
+    return debug;
+  }
+
   private boolean isOff() {
     if (useJul) return false;
     if (consoleLevel == Level.OFF && fileLevel == Level.OFF) {
@@ -157,7 +238,7 @@ public class Logger {
   }
 
   public void d(String msg, Throwable e) {
-    if (isOff()) {
+    if (!isDebugEnabled()) {
       return;
     }
     logger.log(Level.FINE, msg, e);
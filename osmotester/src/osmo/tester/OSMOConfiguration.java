@@ -1,5 +1,7 @@
 package osmo.tester;
 
+import osmo.common.JavaRandomEngine;
+import osmo.common.RandomEngine;
 import osmo.tester.coverage.ScoreCalculator;
 import osmo.tester.generator.SingleInstanceModelFactory;
 import osmo.tester.generator.algorithm.FSMTraversalAlgorithm;
@@ -11,7 +13,10 @@ import osmo.tester.generator.endcondition.logical.And;
 import osmo.tester.generator.filter.StepFilter;
 import osmo.tester.generator.listener.GenerationListener;
 import osmo.tester.generator.listener.GenerationListenerList;
+import osmo.tester.generator.testsuite.TestSink;
 import osmo.tester.model.FSM;
+import osmo.tester.model.InvokerFactory;
+import osmo.tester.model.MethodHandleInvoker;
 import osmo.tester.model.ModelFactory;
 import osmo.tester.model.TestModels;
 import osmo.tester.model.data.SearchableInput;
@@ -22,6 +27,7 @@ import osmo.tester.scripter.internal.TestScripts;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.LongFunction;
 
 /**
  * Defines configuration for test generation.
@@ -69,10 +75,16 @@ public class OSMOConfiguration implements ModelFactory {
   private boolean printExplorationErrors;
   /** Should we keep generated tests or throw them away after done? Useful for long sessions. */
   private boolean keepTests = true;
+  /** If defined, finished tests are passed here. */
+  private TestSink testSink = null;
   /** If defined, only these specific tests are "generated" and executed and nothing else. */
   private List<TestScript> scripts = null;
   /** If true, tracks possible step-pairs. Can take lot of resources on big models. */
   private boolean trackOptions = false;
+  /** Creates the backend for invoking model methods (guards, steps, ...). Reflection or method handles. */
+  private InvokerFactory invokerFactory = MethodHandleInvoker.FACTORY;
+  /** Creates the random number engines for the algorithms and end conditions of the generator. */
+  private LongFunction<RandomEngine> randomEngine = JavaRandomEngine::new;
 
   public OSMOConfiguration() {
   }
@@ -96,8 +108,11 @@ public class OSMOConfiguration implements ModelFactory {
     this.exploring = cloneMe.exploring;
     this.scenario = cloneMe.scenario;
     this.keepTests = cloneMe.keepTests;
+    this.testSink = cloneMe.testSink;
     this.scripts = cloneMe.scripts;
     this.trackOptions = cloneMe.trackOptions;
+    this.invokerFactory = cloneMe.invokerFactory;
+    this.randomEngine = cloneMe.randomEngine;
   }
 
   public boolean isKeepTests() {
@@ -108,6 +123,21 @@ public class OSMOConfiguration implements ModelFactory {
     this.keepTests = keepTests;
   }
 
+  public TestSink getTestSink() {
+    return testSink;
+  }
+
+  /**
+   * Sets a sink to pass all finished tests to. For long running generation, use with {@link #setKeepTests(boolean)}
+   * set to false, to stream the tests out while keeping only the aggregate coverage in memory.
+   * Shared by all generators using this configuration, so needs to be thread-safe if used for parallel generation.
+   *
+   * @param testSink The sink to use, null for none.
+   */
+  public void setTestSink(TestSink testSink) {
+    this.testSink = testSink;
+  }
+
   //scenario set and get need to be synchronized as the reducer shares the config across many and all use scenario
   public synchronized void setScenario(Scenario scenario) {
     this.scenario = scenario;
@@ -252,7 +282,7 @@ public class OSMOConfiguration implements ModelFactory {
       algorithm = new RandomAlgorithm();
     }
     FSMTraversalAlgorithm clone = algorithm.cloneMe();
-    clone.init(seed, fsm);
+    clone.init(seed, fsm, this);
     return clone;
   }
 
@@ -360,6 +390,35 @@ public class OSMOConfiguration implements ModelFactory {
     this.trackOptions = trackOptions;
   }
 
+  public InvokerFactory getInvokerFactory() {
+    return invokerFactory;
+  }
+
+  /**
+   * Defines how the model methods are invoked. Defaults to {@link MethodHandleInvoker#FACTORY}.
+   * Use {@link osmo.tester.model.ReflectionInvoker#FACTORY} for plain reflection.
+   *
+   * @param invokerFactory The factory to create the invocation backend.
+   */
+  public void setInvokerFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
+  }
+
+  public LongFunction<RandomEngine> getRandomEngine() {
+    return randomEngine;
+  }
+
+  /**
+   * Defines the random number engine for the traversal algorithm and end conditions of each generator.
+   * Defaults to {@link JavaRandomEngine}, which gives the same tests for the same seed as earlier versions.
+   * {@link osmo.common.SplittableRandomEngine} is faster but gives different tests for the same seed.
+   *
+   * @param randomEngine Creates the engine from a seed.
+   */
+  public void setRandomEngine(LongFunction<RandomEngine> randomEngine) {
+    this.randomEngine = randomEngine;
+  }
+
   public OSMOConfiguration cloneMe() {
     return null;
   }
@@ -35,6 +35,19 @@ import java.lang.annotation.Target;
  * And, of course, that is not all but you can also "negate" the expression. For example, associating a guard
  * to an identifier such as "!login" will associate it to all steps but the one named "login". This example
  * could be used to ensure that no other action is done until a valid login is performed.
+ * <p>
+ * A guard can also declare the {@link Variable} fields it reads, using the names of the variables.
+ * If it does so, the guard is assumed to depend only on those values and is re-evaluated only when one of them
+ * has changed since the last evaluation. Otherwise the previous result is used. This is only valid for variables
+ * whose values are immutable (primitives, strings, enums) or provided through {@link osmo.tester.model.VariableValue}.
+ * If nothing is declared, the guard is always evaluated.
+ * <p>
+ * Example:
+ *
+ * {@literal @}Variable private int balance = 0;
+ * {@literal @}Guard(value="withdraw", reads="balance") public boolean allowWithdraw() {
+ * return balance {@literal >} 0;
+ * }
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -42,4 +55,6 @@ public @interface Guard {
   public static final String DEFAULT = "osmo.tester.annotations.DEFAULT_VALUE";
   /** @return Set of steps (or groups) this guard should match (be attached to). */
   String[] value() default DEFAULT;
+  /** @return Names of the {@link Variable} fields this guard reads. Empty means unknown, always evaluate. */
+  String[] reads() default {};
 }
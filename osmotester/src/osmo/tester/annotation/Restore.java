@@ -0,0 +1,23 @@
+package osmo.tester.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Methods annotated will be called to restore a model object state captured with a {@link Snapshot} method.
+ * Only relevant when OSMO Explorer (a specific online algorithm) is used.
+ * Called on a fresh model object instance after {@link BeforeTest} methods, with the object returned by the
+ * {@link Snapshot} method of the same model object class.
+ * The given state object is shared, so it must not be modified and its mutable parts must be copied.
+ * 
+ * Annotated Method must have one parameter, the state object.
+ * Every model object with a {@link Restore} method must also have a {@link Snapshot} method.
+ *
+ * @author Teemu Kanstren
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Restore {
+}
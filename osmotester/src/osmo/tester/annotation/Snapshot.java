@@ -0,0 +1,26 @@
+package osmo.tester.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Methods annotated will be called to capture the state of the model object in the middle of a test.
+ * Only relevant when OSMO Explorer (a specific online algorithm) is used.
+ * The explorer can then start exploring new paths from the captured state, instead of re-executing all the steps
+ * from the start of the test to get there.
+ * The returned object is passed to the {@link Restore} method of a fresh instance of the same model object class.
+ * It must be a copy, not modified afterwards, as it can be restored any number of times and from several threads.
+ * The model object state must be fully captured, including any state in its {@link osmo.common.Randomizer},
+ * {@link osmo.tester.model.data.SearchableInput} and other such fields.
+ * 
+ * Annotated Method must have no parameters and must return the state object.
+ * Every model object with a {@link Snapshot} method must also have a {@link Restore} method.
+ *
+ * @author Teemu Kanstren
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Snapshot {
+}
@@ -0,0 +1,160 @@
+package osmo.tester.coverage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns the names used in coverage tracking (step names, variable names, values, ...) into integer identifiers.
+ * Each name is stored only once per JVM and the coverage objects only need to store the integer identifiers.
+ * The dictionaries are shared across all threads (optimizers, explorer, ...) and identifiers never change once given.
+ * The identifier 0 is reserved for null.
+ * <p>
+ * The step, variable, and requirement names are limited by the model. The values are not, since each different
+ * value observed for a variable or a user coverage value gets its own identifier. In long running generation with many
+ * different values, such as unique identifiers or timestamps in the model state, {@link #VALUES} keeps growing.
+ * Use {@link #size()} to follow its growth and {@link #clearValues()} to reset it between generation runs.
+ * The other dictionaries cannot be cleared, as some of their identifiers are held in constants.
+ *
+ * @author Teemu Kanstren
+ */
+public class CoverageIds {
+  /** Test step names. */
+  public static final CoverageIds STEPS = new CoverageIds();
+  /** Names of variables and user coverage values. */
+  public static final CoverageIds VARIABLES = new CoverageIds();
+  /** Observed values of variables and user coverage values. Grows with each different value, see {@link #clearValues()}. */
+  public static final CoverageIds VALUES = new CoverageIds();
+  /** Requirement names. */
+  public static final CoverageIds REQUIREMENTS = new CoverageIds();
+  /** Key = name, value = identifier for the name. */
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  /** Index = identifier, value = the name. */
+  private volatile String[] names = new String[16];
+  /** Number of identifiers given so far, including the one for null. */
+  private int count = 1;
+  /** Incremented each time the identifiers are cleared, so cached identifiers can be dropped. */
+  private volatile int generation = 0;
+  /** Number of generation runs in progress. The values cannot be cleared while any are running. */
+  private static final AtomicInteger running = new AtomicInteger(0);
+
+  /**
+   * Gives the identifier for the given name, creating a new one if not seen before.
+   *
+   * @param name The name to get identifier for.
+   * @return The identifier.
+   */
+  public int idFor(String name) {
+    if (name == null) return 0;
+    Integer id = ids.get(name);
+    if (id != null) return id;
+    return create(name);
+  }
+
+  private synchronized int create(String name) {
+    Integer id = ids.get(name);
+    if (id != null) return id;
+    String[] names = this.names;
+    if (count == names.length) {
+      String[] bigger = new String[count * 2];
+      System.arraycopy(names, 0, bigger, 0, count);
+      names = bigger;
+    }
+    names[count] = name;
+    //first publish the array with the name, then the id, so anyone who sees the id also sees the name
+    this.names = names;
+    ids.put(name, count);
+    return count++;
+  }
+
+  /** @return Number of names with an identifier, not including null. */
+  public int size() {
+    return ids.size();
+  }
+
+  /** @return Number of times the identifiers have been cleared. */
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Marks a generation run as started. Until the matching {@link #generationEnded()}, {@link #clearValues()} fails.
+   */
+  public static synchronized void generationStarted() {
+    running.incrementAndGet();
+  }
+
+  /**
+   * Marks a generation run started with {@link #generationStarted()} as ended.
+   */
+  public static synchronized void generationEnded() {
+    running.decrementAndGet();
+  }
+
+  /**
+   * Removes all values and their identifiers from {@link #VALUES}, to release the memory taken by them.
+   * After this, all value identifiers given before are invalid and the values get new identifiers when next seen.
+   * So this should only be called between generation runs, when no coverage objects ({@link TestCoverage})
+   * from earlier runs are used anymore.
+   *
+   * @throws IllegalStateException If a generation run is in progress.
+   */
+  public static synchronized void clearValues() {
+    if (running.get() > 0) {
+      throw new IllegalStateException("Cannot clear coverage values while generation is running (" + running.get() + " runs).");
+    }
+    VALUES.clear();
+  }
+
+  private synchronized void clear() {
+    ids.clear();
+    names = new String[16];
+    count = 1;
+    generation++;
+  }
+
+  /**
+   * @param id The identifier of the name.
+   * @return The name for the given identifier.
+   */
+  public String nameFor(int id) {
+    return names[id];
+  }
+
+  /**
+   * Gives a key for a pair of identifiers, such as a pair of consecutive steps.
+   *
+   * @param first The first element of the pair.
+   * @param second The second element of the pair.
+   * @return The key combining both.
+   */
+  public static long pair(int first, int second) {
+    return ((long) first << 32) | second;
+  }
+
+  /**
+   * @param pair A key created with {@link #pair(int, int)}.
+   * @return The first element of the pair.
+   */
+  public static int first(long pair) {
+    return (int) (pair >>> 32);
+  }
+
+  /**
+   * @param pair A key created with {@link #pair(int, int)}.
+   * @return The second element of the pair.
+   */
+  public static int second(long pair) {
+    return (int) pair;
+  }
+
+  /**
+   * Creates the string representation of a pair, using the format "first-&gt;second".
+   *
+   * @param pair The pair key.
+   * @return The string presentation of the pair.
+   */
+  public String pairName(long pair) {
+    return nameFor(first(pair)) + "->" + nameFor(second(pair));
+  }
+}
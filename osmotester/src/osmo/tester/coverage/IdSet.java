@@ -0,0 +1,174 @@
+package osmo.tester.coverage;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative primitive identifiers (see {@link CoverageIds}), keeping the insertion order.
+ * Elements are stored in an array in the order they are added, with an open addressing hash table indexing
+ * into that array. Used instead of sets of strings to keep the memory use of coverage data low.
+ *
+ * @author Teemu Kanstren
+ */
+public class IdSet {
+  /** The elements in insertion order. */
+  private long[] elements;
+  /** Number of elements in the set. */
+  private int size = 0;
+  /** Hash table, value is the index of element in elements array plus one, zero means empty slot. */
+  private int[] table;
+
+  public IdSet() {
+    elements = new long[4];
+    table = new int[8];
+  }
+
+  /**
+   * Creates a copy of the given set.
+   *
+   * @param copy The set to copy.
+   */
+  public IdSet(IdSet copy) {
+    elements = Arrays.copyOf(copy.elements, Math.max(copy.size, 4));
+    size = copy.size;
+    table = copy.table.clone();
+  }
+
+  private int slot(long element) {
+    long hash = element * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & (table.length - 1);
+  }
+
+  /**
+   * Gives the index of the given element in insertion order.
+   *
+   * @param element The element to look for.
+   * @return The index, or -1 if not found.
+   */
+  public int indexOf(long element) {
+    int mask = table.length - 1;
+    for (int i = slot(element) ; ; i = (i + 1) & mask) {
+      int index = table[i];
+      if (index == 0) return -1;
+      if (elements[index - 1] == element) return index - 1;
+    }
+  }
+
+  public boolean contains(long element) {
+    return indexOf(element) >= 0;
+  }
+
+  /**
+   * Adds the given element if it is not already in the set.
+   *
+   * @param element The element to add.
+   * @return True if the element was added, false if it was already present.
+   */
+  public boolean add(long element) {
+    if (contains(element)) return false;
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size * 2);
+    }
+    elements[size++] = element;
+    if (size * 2 > table.length) {
+      rehash(table.length * 2);
+    } else {
+      insert(size - 1);
+    }
+    return true;
+  }
+
+  private void insert(int index) {
+    int mask = table.length - 1;
+    int i = slot(elements[index]);
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = index + 1;
+  }
+
+  private void rehash(int capacity) {
+    table = new int[capacity];
+    for (int i = 0 ; i < size ; i++) {
+      insert(i);
+    }
+  }
+
+  /**
+   * Adds all elements in the given set that are not already in this set, in their order.
+   *
+   * @param from The elements to add.
+   */
+  public void addAll(IdSet from) {
+    for (int i = 0 ; i < from.size ; i++) {
+      add(from.elements[i]);
+    }
+  }
+
+  /**
+   * Removes all elements that are in the given set, keeping the order of the remaining ones.
+   *
+   * @param remove The elements to remove.
+   */
+  public void removeAll(IdSet remove) {
+    if (remove.size == 0 || size == 0) return;
+    int kept = 0;
+    for (int i = 0 ; i < size ; i++) {
+      long element = elements[i];
+      if (!remove.contains(element)) {
+        elements[kept++] = element;
+      }
+    }
+    if (kept == size) return;
+    size = kept;
+    rehash(table.length);
+  }
+
+  /**
+   * Counts how many of the elements in this set are not in the given set.
+   *
+   * @param other The set to compare to.
+   * @return Number of elements in this set that are not in the other.
+   */
+  public int countMissingFrom(IdSet other) {
+    int count = 0;
+    for (int i = 0 ; i < size ; i++) {
+      if (!other.contains(elements[i])) count++;
+    }
+    return count;
+  }
+
+  /**
+   * @param index Index of the element in insertion order.
+   * @return The element at the given index.
+   */
+  public long get(int index) {
+    return elements[index];
+  }
+
+  /**
+   * @param other The set to compare to.
+   * @return True if both sets have the same elements, in whatever order.
+   */
+  public boolean sameElements(IdSet other) {
+    return size == other.size && countMissingFrom(other) == 0;
+  }
+
+  /** @return A hash of the elements that does not depend on their order. */
+  public long elementHash() {
+    long hash = 0;
+    for (int i = 0 ; i < size ; i++) {
+      long h = elements[i] * 0x9E3779B97F4A7C15L;
+      hash += h ^ (h >>> 29);
+    }
+    return hash;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(elements, size));
+  }
+}
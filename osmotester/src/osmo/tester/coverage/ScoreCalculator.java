@@ -3,7 +3,6 @@ package osmo.tester.coverage;
 import osmo.common.log.Logger;
 import osmo.tester.generator.testsuite.TestCase;
 
-import java.util.Collection;
 import java.util.Map;
 
 /** 
@@ -20,6 +19,10 @@ public class ScoreCalculator {
     this.config = config;
   }
 
+  public ScoreConfiguration getConfig() {
+    return config;
+  }
+
   /**
    * Calculates the coverage score for the data represented in this coverage object with the given score configuration.
    *
@@ -27,17 +30,16 @@ public class ScoreCalculator {
    */
   public int calculateScore(TestCoverage tc) {
     int score = tc.getTotalSteps() * config.getLengthWeight();
-    score += tc.getSingles().size() * config.getStepWeight();
-    score += tc.getStepPairs().size() * config.getStepPairWeight();
-    score += tc.getVariables().size() * config.getVariableCountWeight();
+    score += tc.getSingleCount() * config.getStepWeight();
+    score += tc.getStepPairCount() * config.getStepPairWeight();
+    score += tc.getVariableCount() * config.getVariableCountWeight();
     score += tc.getStateCount() * config.getStateWeight();
     score += tc.getStatePairCount() * config.getStatePairWeight();
-    Map<String,Collection<String>> values = tc.getVariableValues();
-    for (String name : values.keySet()) {
-      Collection<String> varValues = values.get(name);
-      score += varValues.size() * config.getVariableWeight(name);
+    Map<String, Integer> values = tc.getValueCounts();
+    for (Map.Entry<String, Integer> entry : values.entrySet()) {
+      score += entry.getValue() * config.getVariableWeight(entry.getKey());
     }
-    score += tc.getRequirements().size() * config.getRequirementWeight();
+    score += tc.getRequirementCount() * config.getRequirementWeight();
     log.d("calculated score:" + score);
     return score;
   }
@@ -52,27 +54,20 @@ public class ScoreCalculator {
    * @return How much score would be added.
    */
   public int addedScoreFor(TestCoverage tc1, TestCase test) {
-//    return addedScoreFor(tc, test, test.getAllStepNames().size());
-//  }
-//
-//  /**
-//   * Calculates how much the coverage score would raise if the given test case was added to this set.
-//   * Does not add anything to this set, so after this the set is the same as before.
-//   * Calculates to the number of steps, ignoring any remaining steps beyond given number.
-//   *
-//   * @param tc1 The coverage so far.
-//   * @param test The test to check added coverage for.
-//   * @param steps The number of steps to take from the (beginning of) given test.
-//   * @return The new coverage score.
-//   */
-//  public int addedScoreFor(TestCoverage tc1, TestCase test, int steps) {
-    TestCoverage tc2 = test.getCoverage();
-    TestCoverage tc3 = tc2.cloneMe();
-    tc3.addCoverage(tc1);
-//    tc2.addTestCoverage(test, steps);
-    int oldScore = calculateScore(tc1);
-    int newScore = calculateScore(tc3);
-    int added = newScore - oldScore;
+    return addedScoreFor(tc1, test.getCoverage());
+  }
+
+  /**
+   * How much score would adding the given coverage add to the given test coverage set?
+   * Only the elements of the added coverage are probed against the existing set, so the cost depends on the size
+   * of the added coverage and not on the size of the existing set. Neither is modified.
+   *
+   * @param tc1 The coverage so far.
+   * @param tc2 The coverage to add to the coverage so far.
+   * @return How much score would be added.
+   */
+  public int addedScoreFor(TestCoverage tc1, TestCoverage tc2) {
+    int added = tc2.addedScoreOver(tc1, config);
     log.d("added score:" + added);
     return added;
   }
@@ -179,6 +179,22 @@ public class ScoreConfiguration {
             '}';
   }
 
+  /**
+   * Checks if any coverage element has a negative weight. Length is not counted, as the score it adds for a test
+   * does not depend on the other tests. With negative weights, the score a test adds to a suite can grow as the suite
+   * grows, since the suite may already have paid for the negative elements of the test.
+   *
+   * @return True if any weight, other than the length weight, is negative.
+   */
+  public boolean hasNegativeWeights() {
+    if (variableCountWeight < 0 || defaultValueWeight < 0 || stepPairWeight < 0 || stepWeight < 0) return true;
+    if (requirementWeight < 0 || stateWeight < 0 || statePairWeight < 0) return true;
+    for (int weight : valueWeights.values()) {
+      if (weight < 0) return true;
+    }
+    return false;
+  }
+
   public int getStateWeight() {
     return stateWeight;
   }
@@ -5,6 +5,7 @@ import osmo.tester.generator.testsuite.TestCase;
 import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -13,31 +14,48 @@ import java.util.Map;
 /**
  * Represents test coverage for a set of test cases.
  * Used to calculate coverage scores for test suite optimization.
+ * All names and values are interned into integer identifiers through {@link CoverageIds}, so each coverage object
+ * only stores primitive sets. The string based getters create new collections of the names when called,
+ * the count based getters should be preferred where only the numbers are needed.
  *
  * @author Teemu Kanstren
  */
 public class TestCoverage {
   private static final Logger log = new Logger(TestCoverage.class);
-  /** Number of times each step has been covered. */
-  private Map<String, Integer> stepCount = new LinkedHashMap<>();
+  /** Used for steps. */
+  private static final CoverageIds STEPS = CoverageIds.STEPS;
+  /** Used for variables and coverage value names. */
+  private static final CoverageIds VARIABLES = CoverageIds.VARIABLES;
+  /** Used for variable and coverage values. */
+  private static final CoverageIds VALUES = CoverageIds.VALUES;
+  /** Used for requirements. */
+  private static final CoverageIds REQUIREMENTS = CoverageIds.REQUIREMENTS;
+  /** Identifier for the start step, used as first element for the first step pair. */
+  private static final int START_STEP = STEPS.idFor(FSM.START_STEP_NAME);
+  /** Name for the state before any user coverage value is observed, for coverage value pairs. */
+  private static final String START_STATE = "osmo.tester.START_STATE";
+  /** The steps that have a count, in the order they were first covered. */
+  private IdSet countedSteps = new IdSet();
+  /** Number of times each step has been covered. Index = step identifier. */
+  private int[] stepCount = new int[0];
   /** The set of step pairs covered. */
-  private Collection<String> stepPairs = new LinkedHashSet<>();
+  private IdSet stepPairs = new IdSet();
   /** The unique set of steps covered. */
-  private Collection<String> singles = new LinkedHashSet<>();
+  private IdSet singles = new IdSet();
   /** The set of covered requirements. */
-  private Collection<String> reqs = new LinkedHashSet<>();
+  private IdSet reqs = new IdSet();
   /** The set of covered variables. */
-  private Collection<String> variables = new LinkedHashSet<>();
+  private IdSet variables = new IdSet();
   /** Set of values covered for different model data variables. */
-  private Map<String, Collection<String>> variableValues = new LinkedHashMap<>();
+  private ValueSets variableValues = new ValueSets();
   /** Set of covered coverage values (user coverage values). */
-  private Map<String, Collection<String>> coverageValues = new LinkedHashMap<>();
+  private ValueSets coverageValues = new ValueSets();
   /** Set of covered transitions between coverage values, or pairs of observed user coverage values. */
-  private Map<String, Collection<String>> coverageValuePairs = new LinkedHashMap<>();
+  private ValueSets coverageValuePairs = new ValueSets();
   /** Previously taken step, used for pair coverage. */
-  private String previousStep = FSM.START_STEP_NAME;
-  /** Previous values for user defined coverage values. Used for pair coverage. */
-  private Map<String, String> previousCoverageValues = new LinkedHashMap<>();
+  private int previousStep = START_STEP;
+  /** Previous values for user defined coverage values. Used for pair coverage. Index = name, value = id + 1. */
+  private int[] previousCoverageValues = new int[0];
   /** Total number of steps taken in all tests. */
   private int totalSteps = 0;
 
@@ -52,26 +70,30 @@ public class TestCoverage {
   }
 
   public synchronized void addVariableValue(String name, String value) {
-    checkAndAdd(name, value, variableValues);
-    variables.add(name);
+    addVariableValue(VARIABLES.idFor(name), VALUES.idFor(value));
+  }
+
+  /**
+   * @param nameId Identifier of the variable name in {@link CoverageIds#VARIABLES}.
+   * @param valueId Identifier of the value in {@link CoverageIds#VALUES}.
+   */
+  public synchronized void addVariableValue(int nameId, int valueId) {
+    variableValues.add(nameId, valueId);
+    variables.add(nameId);
   }
 
   public synchronized void addUserCoverage(String name, String value) {
-    checkAndAdd(name, value, coverageValues);
-    String previousState = previousCoverageValues.get(name);
-    if (previousState == null) previousState = "osmo.tester.START_STATE";
-    String pair = previousState + "->" + value;
-    previousCoverageValues.put(name, value);
-    checkAndAdd(name + "-pair", pair, coverageValuePairs);
-  }
-
-  private void checkAndAdd(String name, String value, Map<String, Collection<String>> to) {
-    Collection<String> values = to.get(name);
-    if (values == null) {
-      values = new LinkedHashSet<>();
-      to.put(name, values);
+    int nameId = VARIABLES.idFor(name);
+    int valueId = VALUES.idFor(value);
+    coverageValues.add(nameId, valueId);
+    if (nameId >= previousCoverageValues.length) {
+      previousCoverageValues = Arrays.copyOf(previousCoverageValues, nameId * 2 + 1);
     }
-    values.add(value);
+    int previousState = previousCoverageValues[nameId] - 1;
+    //looked up each time, as the value identifiers can be cleared
+    if (previousState < 0) previousState = VALUES.idFor(START_STATE);
+    previousCoverageValues[nameId] = valueId + 1;
+    coverageValuePairs.add(nameId, CoverageIds.pair(previousState, valueId));
   }
 
   /**
@@ -79,49 +101,105 @@ public class TestCoverage {
    *
    * @return The test steps with coverage number.
    */
-  public Map<String, Integer> getStepCoverage() {
-    return stepCount;
+  public synchronized Map<String, Integer> getStepCoverage() {
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    for (int i = 0 ; i < countedSteps.size() ; i++) {
+      int id = (int) countedSteps.get(i);
+      counts.put(STEPS.nameFor(id), stepCount[id]);
+    }
+    return counts;
+  }
+
+  /**
+   * @param name Name of the step.
+   * @return Number of times the given step has been covered.
+   */
+  public synchronized int getStepCount(String name) {
+    int id = STEPS.idFor(name);
+    if (id >= stepCount.length) return 0;
+    return stepCount[id];
   }
 
   /** @param name The name of step to add. */
   public synchronized void addStep(String name) {
-    increaseStepCount(name, 1);
-//    steps.add(name);
-    singles.add(name);
-    stepPairs.add(previousStep + "->" + name);
-    previousStep = name;
+    int id = STEPS.idFor(name);
+    increaseStepCount(id, 1);
+    singles.add(id);
+    stepPairs.add(CoverageIds.pair(previousStep, id));
+    previousStep = id;
     totalSteps++;
   }
 
-  private void increaseStepCount(String name, int by) {
-    Integer count = stepCount.get(name);
-    if (count == null) count = 0;
-    stepCount.put(name, count+by);
+  private void increaseStepCount(int id, int by) {
+    if (id >= stepCount.length) {
+      stepCount = Arrays.copyOf(stepCount, id * 2 + 1);
+    }
+    countedSteps.add(id);
+    stepCount[id] += by;
   }
 
   public int getTotalSteps() {
     return totalSteps;
   }
 
-  public Collection<String> getStepPairs() {
-    return stepPairs;
+  public synchronized Collection<String> getStepPairs() {
+    return ValueSets.toStrings(stepPairs, STEPS::pairName);
+  }
+
+  /** @return Number of unique step pairs covered. */
+  public synchronized int getStepPairCount() {
+    return stepPairs.size();
+  }
+
+  public synchronized Collection<String> getSingles() {
+    return ValueSets.toStrings(singles, id -> STEPS.nameFor((int) id));
   }
 
-  public Collection<String> getSingles() {
-    return singles;
+  /** @return Number of unique steps covered. */
+  public synchronized int getSingleCount() {
+    return singles.size();
   }
 
-  public Collection<String> getRequirements() {
-    return reqs;
+  public synchronized Collection<String> getRequirements() {
+    return ValueSets.toStrings(reqs, id -> REQUIREMENTS.nameFor((int) id));
   }
 
-  public Collection<String> getVariables() {
-    return variables;
+  /** @return Number of unique requirements covered. */
+  public synchronized int getRequirementCount() {
+    return reqs.size();
+  }
+
+  public synchronized Collection<String> getVariables() {
+    return ValueSets.toStrings(variables, id -> VARIABLES.nameFor((int) id));
+  }
+
+  /** @return Number of unique variables covered. */
+  public synchronized int getVariableCount() {
+    return variables.size();
   }
 
   /** @return Values for variables. */
-  public Map<String, Collection<String>> getVariableValues() {
-    return variableValues;
+  public synchronized Map<String, Collection<String>> getVariableValues() {
+    return variableValues.toMap("", id -> VALUES.nameFor((int) id));
+  }
+
+  /** @return Key = variable name, value = number of unique values covered for it. */
+  public synchronized Map<String, Integer> getValueCounts() {
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    for (int i = 0 ; i < variableValues.size() ; i++) {
+      counts.put(VARIABLES.nameFor(variableValues.keyAt(i)), variableValues.valuesAt(i).size());
+    }
+    return counts;
+  }
+
+  /**
+   * @param name Name of the variable.
+   * @return Number of unique values covered for the given variable.
+   */
+  public synchronized int getValueCount(String name) {
+    IdSet values = variableValues.get(VARIABLES.idFor(name));
+    if (values == null) return 0;
+    return values.size();
   }
 
   /**
@@ -129,16 +207,22 @@ public class TestCoverage {
    *
    * @return The number, what else?
    */
-  public int getValueCount() {
-    int count = 0;
-    for (Collection<String> strings : variableValues.values()) {
-      count += strings.size();
-    }
-    return count;
+  public synchronized int getValueCount() {
+    return variableValues.count();
   }
 
-  public Map<String, Collection<String>> getStates() {
-    return coverageValues;
+  public synchronized Map<String, Collection<String>> getStates() {
+    return coverageValues.toMap("", id -> VALUES.nameFor((int) id));
+  }
+
+  /**
+   * @param name Name of the coverage value.
+   * @return The values observed for the given coverage value, or null if none.
+   */
+  public synchronized Collection<String> getStates(String name) {
+    IdSet values = coverageValues.get(VARIABLES.idFor(name));
+    if (values == null) return null;
+    return ValueSets.toStrings(values, id -> VALUES.nameFor((int) id));
   }
 
   /**
@@ -147,16 +231,12 @@ public class TestCoverage {
    *
    * @return The count, as explained above.
    */
-  public int getStateCount() {
-    int count = 0;
-    for (Collection<String> strings : coverageValues.values()) {
-      count += strings.size();
-    }
-    return count;
+  public synchronized int getStateCount() {
+    return coverageValues.count();
   }
 
-  public Map<String, Collection<String>> getStatePairs() {
-    return coverageValuePairs;
+  public synchronized Map<String, Collection<String>> getStatePairs() {
+    return coverageValuePairs.toMap("-pair", VALUES::pairName);
   }
 
   /**
@@ -165,12 +245,8 @@ public class TestCoverage {
    *
    * @return The count, as explained above.
    */
-  public int getStatePairCount() {
-    int count = 0;
-    for (Collection<String> strings : coverageValuePairs.values()) {
-      count += strings.size();
-    }
-    return count;
+  public synchronized int getStatePairCount() {
+    return coverageValuePairs.count();
   }
 
   /**
@@ -181,10 +257,58 @@ public class TestCoverage {
    */
   public synchronized TestCoverage cloneMe() {
     TestCoverage clone = new TestCoverage();
-    addCoverage(this, clone);
+    clone.countedSteps = new IdSet(countedSteps);
+    clone.stepCount = stepCount.clone();
+    clone.stepPairs = new IdSet(stepPairs);
+    clone.singles = new IdSet(singles);
+    clone.reqs = new IdSet(reqs);
+    clone.variables = new IdSet(variables);
+    clone.variableValues = new ValueSets(variableValues);
+    clone.coverageValues = new ValueSets(coverageValues);
+    clone.coverageValuePairs = new ValueSets(coverageValuePairs);
+    clone.totalSteps = totalSteps;
+    //also where the pairs continue from, so a test can be continued from a clone of its coverage
+    clone.previousStep = previousStep;
+    clone.previousCoverageValues = previousCoverageValues.clone();
     return clone;
   }
 
+  /**
+   * Checks if this covers the same elements as the given coverage, and continues the pairs from the same position.
+   * That is, any further steps would add the same coverage to both. The number of times steps are covered is not
+   * compared.
+   *
+   * @param other The coverage to compare to.
+   * @return True if the same.
+   */
+  public synchronized boolean sameElementsAs(TestCoverage other) {
+    return totalSteps == other.totalSteps && previousStep == other.previousStep &&
+            Arrays.equals(trimmed(previousCoverageValues), trimmed(other.previousCoverageValues)) &&
+            singles.sameElements(other.singles) && stepPairs.sameElements(other.stepPairs) &&
+            reqs.sameElements(other.reqs) && variables.sameElements(other.variables) &&
+            variableValues.sameValues(other.variableValues) && coverageValues.sameValues(other.coverageValues) &&
+            coverageValuePairs.sameValues(other.coverageValuePairs);
+  }
+
+  /** @return The given array without the trailing zeroes (unused capacity). */
+  private static int[] trimmed(int[] values) {
+    int length = values.length;
+    while (length > 0 && values[length - 1] == 0) length--;
+    return length == values.length ? values : Arrays.copyOf(values, length);
+  }
+
+  /** @return A hash matching {@link #sameElementsAs(TestCoverage)}. */
+  public synchronized long elementHash() {
+    long hash = totalSteps * 31L + previousStep;
+    hash = hash * 31 + singles.elementHash();
+    hash = hash * 31 + stepPairs.elementHash();
+    hash = hash * 31 + reqs.elementHash();
+    hash = hash * 31 + variableValues.valueHash();
+    hash = hash * 31 + coverageValues.valueHash();
+    hash = hash * 31 + coverageValuePairs.valueHash();
+    return hash;
+  }
+
   public synchronized void addCoverage(TestCoverage from) {
     addCoverage(from, this);
   }
@@ -198,51 +322,29 @@ public class TestCoverage {
   private static void addCoverage(TestCoverage from, TestCoverage to) {
     to.stepPairs.addAll(from.stepPairs);
     to.totalSteps += from.totalSteps;
-    for (String name : from.stepCount.keySet()) {
-      to.increaseStepCount(name, from.stepCount.get(name));
+    for (int i = 0 ; i < from.countedSteps.size() ; i++) {
+      int id = (int) from.countedSteps.get(i);
+      to.increaseStepCount(id, from.stepCount[id]);
     }
-
-//    to.steps.addAll(from.steps);
     to.reqs.addAll(from.reqs);
     to.singles.addAll(from.singles);
     to.variables.addAll(from.variables);
-    for (String key : from.variableValues.keySet()) {
-      Collection<String> values = to.variableValues.get(key);
-      if (values == null) {
-        values = new LinkedHashSet<>();
-        to.variableValues.put(key, values);
-      }
-      values.addAll(from.variableValues.get(key));
-    }
-    for (String key : from.coverageValues.keySet()) {
-      Collection<String> values = to.coverageValues.get(key);
-      if (values == null) {
-        values = new LinkedHashSet<>();
-        to.coverageValues.put(key, values);
-      }
-      values.addAll(from.coverageValues.get(key));
-    }
-    for (String key : from.coverageValuePairs.keySet()) {
-      Collection<String> values = to.coverageValuePairs.get(key);
-      if (values == null) {
-        values = new LinkedHashSet<>();
-        to.coverageValuePairs.put(key, values);
-      }
-      values.addAll(from.coverageValuePairs.get(key));
-    }
+    to.variableValues.addAll(from.variableValues);
+    to.coverageValues.addAll(from.coverageValues);
+    to.coverageValuePairs.addAll(from.coverageValuePairs);
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     return "TestCoverage{" +
             "totalSteps=" + totalSteps +
-            ", stepPairs=" + stepPairs +
-            ", singles=" + singles +
-            ", reqs=" + reqs +
-            ", variables=" + variables +
-            ", variableValues=" + variableValues +
-            ", coverageValues=" + coverageValues +
-            ", coverageValuePairs=" + coverageValuePairs +
+            ", stepPairs=" + getStepPairs() +
+            ", singles=" + getSingles() +
+            ", reqs=" + getRequirements() +
+            ", variables=" + getVariables() +
+            ", variableValues=" + getVariableValues() +
+            ", coverageValues=" + getStates() +
+            ", coverageValuePairs=" + getStatePairs() +
             '}';
   }
 
@@ -277,7 +379,7 @@ public class TestCoverage {
     if (possibleStepPairs != null && possibleStepPairs.size() > 0) {
       Collection<String> all = new LinkedHashSet<>();
       all.addAll(possibleStepPairs);
-      all.removeAll(stepPairs);
+      all.removeAll(getStepPairs());
       result += " (of " + possibleStepPairs.size() + ")";
       if (printAll || (all.size() > 0 && all.size() < 5)) {
         result += " missing:" + all;
@@ -297,7 +399,7 @@ public class TestCoverage {
         for (FSMTransition ft : fsmTransitions) {
           all.add(ft.getStringName());
         }
-        all.removeAll(singles);
+        all.removeAll(getSingles());
         result += " missing:" + all;
       }
     }
@@ -321,34 +423,44 @@ public class TestCoverage {
    *
    * @param in The items to remove from this set.
    */
-  public void removeAll(TestCoverage in) {
-//    steps.removeAll(in.steps);
-    //TODO: optimize removes by seeing if list is redone too many times (every remove)
+  public synchronized void removeAll(TestCoverage in) {
     singles.removeAll((in.singles));
     stepPairs.removeAll(in.stepPairs);
     reqs.removeAll(in.reqs);
     variables.removeAll(in.variables);
-    for (String var : variableValues.keySet()) {
-      Collection<String> yourValues = in.variableValues.get(var);
-      if (yourValues == null) continue;
-      Collection<String> myValues = variableValues.get(var);
-      myValues.removeAll(yourValues);
-    }
-    for (String var : coverageValues.keySet()) {
-      Collection<String> yourValues = in.coverageValues.get(var);
-      if (yourValues == null) continue;
-      Collection<String> myValues = coverageValues.get(var);
-      myValues.removeAll(yourValues);
-    }
-    for (String var : coverageValuePairs.keySet()) {
-      Collection<String> yourValues = in.coverageValuePairs.get(var);
-      if (yourValues == null) continue;
-      Collection<String> myValues = coverageValuePairs.get(var);
-      myValues.removeAll(yourValues);
+    variableValues.removeAll(in.variableValues);
+    coverageValues.removeAll(in.coverageValues);
+    coverageValuePairs.removeAll(in.coverageValuePairs);
+  }
+
+  /**
+   * Calculates how much score the coverage in this object adds on top of the given coverage.
+   * Only the elements in this object are checked against the given coverage, nothing is copied and neither
+   * coverage object is modified. The result is the same as scoring the union of both minus the score of the given one.
+   *
+   * @param base The coverage to compare against, typically the test suite.
+   * @param config Defines the scoring weights.
+   * @return The added score.
+   */
+  synchronized int addedScoreOver(TestCoverage base, ScoreConfiguration config) {
+    int score = totalSteps * config.getLengthWeight();
+    score += singles.countMissingFrom(base.singles) * config.getStepWeight();
+    score += stepPairs.countMissingFrom(base.stepPairs) * config.getStepPairWeight();
+    score += variables.countMissingFrom(base.variables) * config.getVariableCountWeight();
+    score += coverageValues.countMissingFrom(base.coverageValues) * config.getStateWeight();
+    score += coverageValuePairs.countMissingFrom(base.coverageValuePairs) * config.getStatePairWeight();
+    for (int i = 0 ; i < variableValues.size() ; i++) {
+      int nameId = variableValues.keyAt(i);
+      IdSet mine = variableValues.valuesAt(i);
+      IdSet theirs = base.variableValues.get(nameId);
+      int added = theirs == null ? mine.size() : mine.countMissingFrom(theirs);
+      if (added > 0) score += added * config.getVariableWeight(VARIABLES.nameFor(nameId));
     }
+    score += reqs.countMissingFrom(base.reqs) * config.getRequirementWeight();
+    return score;
   }
 
-  public void coveredRequirement(String name) {
-    reqs.add(name);
+  public synchronized void coveredRequirement(String name) {
+    reqs.add(REQUIREMENTS.idFor(name));
   }
 }
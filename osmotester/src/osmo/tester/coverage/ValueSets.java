@@ -0,0 +1,199 @@
+package osmo.tester.coverage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Sets of observed values for a group of named variables, all as interned identifiers.
+ * Keeps the order in which the variables were first observed, and for each variable the order of its values.
+ *
+ * @author Teemu Kanstren
+ */
+public class ValueSets {
+  /** Identifiers of the variable names, in the order they were added. */
+  private final IdSet keys;
+  /** The value sets for each variable, in same order as the keys. */
+  private IdSet[] sets;
+
+  public ValueSets() {
+    keys = new IdSet();
+    sets = new IdSet[4];
+  }
+
+  /**
+   * Creates a copy of the given sets.
+   *
+   * @param copy What to copy.
+   */
+  public ValueSets(ValueSets copy) {
+    keys = new IdSet(copy.keys);
+    sets = new IdSet[Math.max(copy.keys.size(), 4)];
+    for (int i = 0 ; i < copy.keys.size() ; i++) {
+      sets[i] = new IdSet(copy.sets[i]);
+    }
+  }
+
+  /**
+   * Gives the value set for the given variable, creating a new one if not present.
+   *
+   * @param nameId Variable name identifier.
+   * @return The value set.
+   */
+  private IdSet setFor(int nameId) {
+    int index = keys.indexOf(nameId);
+    if (index >= 0) return sets[index];
+    keys.add(nameId);
+    index = keys.size() - 1;
+    if (index == sets.length) sets = Arrays.copyOf(sets, index * 2);
+    IdSet set = new IdSet();
+    sets[index] = set;
+    return set;
+  }
+
+  /**
+   * @param nameId Variable name identifier.
+   * @return The value set for the variable, or null if nothing observed for it.
+   */
+  public IdSet get(int nameId) {
+    int index = keys.indexOf(nameId);
+    if (index < 0) return null;
+    return sets[index];
+  }
+
+  /**
+   * Adds a value for the given variable.
+   *
+   * @param nameId Variable name identifier.
+   * @param value The value identifier.
+   * @return True if this was a new value for the variable.
+   */
+  public boolean add(int nameId, long value) {
+    return setFor(nameId).add(value);
+  }
+
+  /**
+   * Adds all values from the given sets.
+   *
+   * @param from The values to add.
+   */
+  public void addAll(ValueSets from) {
+    for (int i = 0 ; i < from.keys.size() ; i++) {
+      setFor((int) from.keys.get(i)).addAll(from.sets[i]);
+    }
+  }
+
+  /**
+   * Removes from this all values found in the given sets for the same variables.
+   * The variables themselves remain, even if they have no values left.
+   *
+   * @param remove The values to remove.
+   */
+  public void removeAll(ValueSets remove) {
+    for (int i = 0 ; i < keys.size() ; i++) {
+      IdSet yours = remove.get((int) keys.get(i));
+      if (yours == null) continue;
+      sets[i].removeAll(yours);
+    }
+  }
+
+  /**
+   * Counts how many of the values in this are not present in the given sets.
+   *
+   * @param other The sets to compare to.
+   * @return Number of values for all variables in this set that are not in the other.
+   */
+  public int countMissingFrom(ValueSets other) {
+    int count = 0;
+    for (int i = 0 ; i < keys.size() ; i++) {
+      IdSet theirs = other.get((int) keys.get(i));
+      if (theirs == null) {
+        count += sets[i].size();
+      } else {
+        count += sets[i].countMissingFrom(theirs);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param other The sets to compare to.
+   * @return True if both have the same values for the same variables, in whatever order.
+   */
+  public boolean sameValues(ValueSets other) {
+    return size() == other.size() && count() == other.count() && countMissingFrom(other) == 0;
+  }
+
+  /** @return A hash of the values that does not depend on their order. */
+  public long valueHash() {
+    long hash = 0;
+    for (int i = 0 ; i < keys.size() ; i++) {
+      hash += (keys.get(i) + 1) * 0x9E3779B97F4A7C15L ^ sets[i].elementHash();
+    }
+    return hash;
+  }
+
+  /** @return The total number of values over all variables. */
+  public int count() {
+    int count = 0;
+    for (int i = 0 ; i < keys.size() ; i++) {
+      count += sets[i].size();
+    }
+    return count;
+  }
+
+  /** @return Number of variables. */
+  public int size() {
+    return keys.size();
+  }
+
+  /**
+   * @param index Index of the variable, in order of addition.
+   * @return Name identifier of the variable.
+   */
+  public int keyAt(int index) {
+    return (int) keys.get(index);
+  }
+
+  /**
+   * @param index Index of the variable, in order of addition.
+   * @return The values for the variable.
+   */
+  public IdSet valuesAt(int index) {
+    return sets[index];
+  }
+
+  /**
+   * Creates a string representation of the values.
+   *
+   * @param suffix Added to the name of all variables.
+   * @param values Used to create the string for each value.
+   * @return Key = variable name, value = the set of values.
+   */
+  public Map<String, Collection<String>> toMap(String suffix, LongFunction<String> values) {
+    Map<String, Collection<String>> map = new LinkedHashMap<>();
+    for (int i = 0 ; i < keys.size() ; i++) {
+      String name = CoverageIds.VARIABLES.nameFor((int) keys.get(i)) + suffix;
+      map.put(name, toStrings(sets[i], values));
+    }
+    return map;
+  }
+
+  /**
+   * Converts the given set into strings.
+   *
+   * @param set The set to convert.
+   * @param values Used to create the string for each value.
+   * @return The string values.
+   */
+  public static Collection<String> toStrings(IdSet set, LongFunction<String> values) {
+    Collection<String> strings = new LinkedHashSet<>();
+    for (int i = 0 ; i < set.size() ; i++) {
+      strings.add(values.apply(set.get(i)));
+    }
+    return strings;
+  }
+}
@@ -1,5 +1,7 @@
 package osmo.tester.explorer;
 
+import osmo.common.JavaRandomEngine;
+import osmo.common.RandomEngine;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.coverage.ScoreCalculator;
 import osmo.tester.coverage.ScoreConfiguration;
@@ -9,6 +11,8 @@ import osmo.tester.model.FSM;
 import osmo.tester.model.ModelFactory;
 import osmo.tester.scenario.Scenario;
 
+import java.util.function.LongFunction;
+
 /**
  * Defines a configuration for OSMO Explorer.
  * Defines the maximum and minimum lengths for tests and test suites, as well as a threshold when to stop if no gain
@@ -58,6 +62,10 @@ public class ExplorationConfiguration extends ScoreConfiguration {
   /** Passed to underlying generator, stops generation when no path forward is seen. Otherwise, new test is started. */
   private boolean failWhenNoWayForward;
   private boolean stopGenerationOnError;
+  /** If true, paths reaching the same state within one exploration round are only explored once. */
+  private boolean transpositions = false;
+  /** Creates the random number engine for the explored generators and the default fallback algorithm. */
+  private LongFunction<RandomEngine> randomEngine = JavaRandomEngine::new;
 
   public ExplorationConfiguration(ModelFactory factory, int depth, long seed) {
     this.factory = factory;
@@ -129,6 +137,7 @@ public class ExplorationConfiguration extends ScoreConfiguration {
     config.setScenario(scenario);
     config.setFailWhenNoWayForward(failWhenNoWayForward);
     config.setStopGenerationOnError(stopGenerationOnError);
+    config.setRandomEngine(getRandomEngine());
   }
 
   public int getMinTestLength() {
@@ -209,7 +218,7 @@ public class ExplorationConfiguration extends ScoreConfiguration {
 
   public FSMTraversalAlgorithm getFallback(long seed, FSM fsm) {
     if (fallback == null) {
-      setFallback(new RandomAlgorithm(), seed, fsm);
+      setFallback(new RandomAlgorithm(randomEngine), seed, fsm);
     }
     FSMTraversalAlgorithm clone = fallback.cloneMe();
     clone.init(seed, fsm);
@@ -314,6 +323,36 @@ public class ExplorationConfiguration extends ScoreConfiguration {
     this.stopGenerationOnError = stopGenerationOnError;
   }
 
+  /**
+   * Sets exploration to detect paths that lead to the same state and explore the continuations only once.
+   * Requires the model @Variable fields to describe all the state that affects the guards, steps and end conditions.
+   * See {@link TranspositionTable}.
+   *
+   * @param transpositions True to enable.
+   */
+  public void setTranspositions(boolean transpositions) {
+    this.transpositions = transpositions;
+  }
+
+  public boolean isTranspositions() {
+    return transpositions;
+  }
+
+  public LongFunction<RandomEngine> getRandomEngine() {
+    return randomEngine;
+  }
+
+  /**
+   * Sets the random number engine for the explored generators and the default fallback algorithm.
+   * A fallback set with {@link #setFallback(FSMTraversalAlgorithm, long, FSM)} uses its own engine.
+   *
+   * @param randomEngine Creates the random number engine from a seed.
+   * @see OSMOConfiguration#setRandomEngine(LongFunction)
+   */
+  public void setRandomEngine(LongFunction<RandomEngine> randomEngine) {
+    this.randomEngine = randomEngine;
+  }
+
   public boolean isStopGenerationOnError() {
     return stopGenerationOnError;
   }
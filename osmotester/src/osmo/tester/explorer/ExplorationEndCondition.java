@@ -1,5 +1,6 @@
 package osmo.tester.explorer;
 
+import osmo.common.Deadline;
 import osmo.common.Randomizer;
 import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
@@ -14,6 +15,7 @@ import osmo.tester.scenario.Scenario;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An end condition for guiding OSMO Tester during test exploration.
@@ -33,8 +35,8 @@ public class ExplorationEndCondition implements EndCondition {
   private Randomizer rand;
   /** Base randomization seed for checking test case end fallback. */
   private long seed;
-  /** When exploration was started.. */
-  private long startTime = 0;
+  /** When exploration should stop, counted from the creation of this instance. */
+  private final Deadline deadline;
   /** For calculating coverage scores. */
   private final ScoreCalculator scoreCalculator;
   /** Coverage for the generated test suite. */
@@ -60,7 +62,7 @@ public class ExplorationEndCondition implements EndCondition {
     this.config = config;
     this.scoreCalculator = new ScoreCalculator(config);
     this.fallbackProbability = config.getFallbackProbability();
-    this.startTime = System.currentTimeMillis();
+    this.deadline = config.getTimeout() > 0 ? Deadline.after(config.getTimeout(), TimeUnit.SECONDS) : Deadline.never();
     this.suiteCoverage = suiteCoverage;
     this.exploring = exploring;
     Scenario scenario = config.getScenario();
@@ -144,7 +146,8 @@ public class ExplorationEndCondition implements EndCondition {
         return false;
       }
     }
-    long mySeed = seed + suite.totalSteps();
+    //only the kept tests are counted, which gives the same seeds as before when tests are not kept
+    long mySeed = seed + suite.keptSteps();
     //plateau should take precedence over score limit otherwise it never happens. thus the ordering with this here
     int plateauThreshold = config.getTestPlateauThreshold();
 
@@ -184,20 +187,12 @@ public class ExplorationEndCondition implements EndCondition {
     Randomizer rand = new Randomizer(mySeed);
     //finally we go with random values to allow progress beyond end if so desired
     double v = rand.nextDouble();
-    log.d("randomizing..:" + v);
+    log.d("randomizing..:{}", v);
     return v < fallbackProbability;
   }  
 
   private boolean isTimedOut() {
-    if (config.getTimeout() <= 0) {
-      return false;
-    }
-    long now = System.currentTimeMillis();
-    long diff = now - startTime;
-    if (diff > config.getTimeout() * 1000) {
-      return true;
-    }
-    return false;
+    return deadline.isPassed();
   }
 
   @Override
@@ -0,0 +1,70 @@
+package osmo.tester.explorer;
+
+import osmo.common.log.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads used to run exploration for one {@link ExplorerAlgorithm}.
+ * Each step is explored by a {@link MainExplorer}, which is run on a reused runner thread and forks the
+ * {@link PathExplorer} tasks into the pool of this executor. So several explorers in one JVM each use their own
+ * pool with their own parallelism, and the threads are not re-created for each step.
+ * All threads are daemons so a forgotten executor will not keep the JVM alive, but {@link #shutdown()} should be
+ * called when exploration is done to release the threads.
+ *
+ * @author Teemu Kanstren
+ */
+public class ExplorationExecutor {
+  private static final Logger log = new Logger(ExplorationExecutor.class);
+  /** For naming the runner threads. */
+  private static final AtomicInteger nextId = new AtomicInteger(1);
+  /** The pool for exploring the paths in parallel. */
+  private final ForkJoinPool pool;
+  /** Runs the main explorers, which wait for the path explorers in the pool. */
+  private final ExecutorService runner;
+
+  /**
+   * @param parallelism Number of threads to use for exploring paths.
+   */
+  public ExplorationExecutor(int parallelism) {
+    this.pool = new ForkJoinPool(parallelism);
+    String name = "osmo-explorer-" + nextId.getAndIncrement();
+    this.runner = Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, name);
+      thread.setDaemon(true);
+      return thread;
+    });
+    log.d("Created exploration executor with parallelism " + parallelism);
+  }
+
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Starts running the given explorer on a runner thread.
+   *
+   * @param explorer The explorer to run.
+   * @return For following the explorer execution.
+   */
+  public Future<?> start(MainExplorer explorer) {
+    return runner.submit(explorer);
+  }
+
+  /**
+   * Stops all threads. Running explorers should be stopped first, as this does not wait for them.
+   */
+  public void shutdown() {
+    log.d("Shutting down exploration executor");
+    runner.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  public boolean isShutdown() {
+    return pool.isShutdown();
+  }
+}
@@ -5,7 +5,11 @@ import osmo.tester.OSMOConfiguration;
 import osmo.tester.coverage.TestCoverage;
 import osmo.tester.generator.MainGenerator;
 import osmo.tester.generator.testsuite.TestSuite;
+import osmo.tester.generator.testsuite.TestCase;
+import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
+import osmo.tester.model.InvocationTarget;
+import osmo.tester.model.Requirements;
 
 import java.util.Collection;
 import java.util.List;
@@ -18,9 +22,27 @@ import java.util.List;
 public class ExplorationHelper {
   private static final Logger log = new Logger(ExplorationHelper.class);
 
-  public static MainGenerator initPath( ExplorationState state, Collection<String> path) {
-    return initPath(state, path, false);
+  /**
+   * Initializes an exploration path with the current test suite and a new test case up to the given script.
+   * If the state of the model and test has been captured for the script before, the path is restored from that.
+   * Otherwise the script is executed from the start and the resulting state is captured for later use,
+   * if the model supports it.
+   *
+   * @param state Current exploration state.
+   * @param path The script of the exploration path to be initialized.
+   * @return The generator initialized with the current test suite and given test path.
+   */
+  public static MainGenerator initPath(ExplorationState state, List<String> path) {
+    PrefixCache cache = state.getPrefixCache();
+    if (cache != null) {
+      PrefixCache.Entry entry = cache.get(state.getTestIndex(), path);
+      if (entry != null) return restorePath(state, entry);
+    }
+    MainGenerator generator = initPath(state, path, false);
+    snapshot(state, path, generator);
+    return generator;
   }
+
   /**
    * Initializes an exploration path with the current test suite and a new test case up to the given script.
    * This is not always the current concrete generated test case but can also be a location in the explored path.
@@ -81,6 +103,51 @@ public class ExplorationHelper {
     generator.execute(transition);
   }
 
+  /**
+   * Captures the state of the model and the test in the given generator for the given path, if the model supports it.
+   *
+   * @param state Current exploration state, holding the cache where to store the captured state.
+   * @param path The script that was executed to get to the current state.
+   * @param generator The generator that executed the path.
+   */
+  public static void snapshot(ExplorationState state, List<String> path, MainGenerator generator) {
+    PrefixCache cache = state.getPrefixCache();
+    FSM fsm = generator.getFsm();
+    if (cache == null || !fsm.isSnapshotSupported()) return;
+    List<InvocationTarget> snapshots = fsm.getSnapshots();
+    Object[] states = new Object[snapshots.size()];
+    for (int i = 0 ; i < states.length ; i++) {
+      states[i] = snapshots.get(i).invoke();
+    }
+    //the generator may still continue the test so we store a copy of it
+    TestCase test = generator.getCurrentTest().copy();
+    cache.put(path, new PrefixCache.Entry(state.getTestIndex(), states, test));
+  }
+
+  /**
+   * Creates a new generator and restores it to the given captured state.
+   * The generator is initialized as when executing the path but instead of executing the steps the model objects
+   * are given their captured state and the test case continues from the captured one.
+   *
+   * @param state Current exploration state.
+   * @param entry The captured state.
+   * @return The generator at the end of the captured path.
+   */
+  private static MainGenerator restorePath(ExplorationState state, PrefixCache.Entry entry) {
+    MainGenerator generator = createGenerator(state);
+    generator.beforeTest();
+    Object[] states = entry.getStates();
+    List<InvocationTarget> restores = generator.getFsm().getRestores();
+    for (int i = 0 ; i < states.length ; i++) {
+      restores.get(i).invoke(states[i]);
+    }
+    TestCase prefix = entry.getTest();
+    generator.getSuite().continueTest(prefix);
+    Requirements reqs = generator.getSuite().getRequirements();
+    reqs.addCoverage(prefix.getCoverage());
+    return generator;
+  }
+
   /**
    * Creates a generator for exploring a sub-path of the exploration options.
    *
@@ -12,10 +12,26 @@ public class ExplorationState {
   private final ExplorationConfiguration config;
   /** The coverage of the current test suite. Used to evaluate added coverage of the paths. */
   private final TestCoverage suiteCoverage;
+  /** Captured states of explored test prefixes, null if not available. */
+  private final PrefixCache prefixCache;
+  /** Index of the explored test in the suite. */
+  private final int testIndex;
 
   public ExplorationState(ExplorationConfiguration config, TestCoverage suiteCoverage) {
+    this(config, suiteCoverage, null, 0);
+  }
+
+  /**
+   * @param config Configuration to use.
+   * @param suiteCoverage The coverage of the current test suite.
+   * @param prefixCache For starting exploration from captured test prefix states, null to always re-generate.
+   * @param testIndex Index of the explored test in the suite.
+   */
+  public ExplorationState(ExplorationConfiguration config, TestCoverage suiteCoverage, PrefixCache prefixCache, int testIndex) {
     this.config = config;
     this.suiteCoverage = suiteCoverage;
+    this.prefixCache = prefixCache;
+    this.testIndex = testIndex;
   }
 
   public ExplorationConfiguration getConfig() {
@@ -25,4 +41,12 @@ public class ExplorationState {
   public TestCoverage getSuiteCoverage() {
     return suiteCoverage;
   }
+
+  public PrefixCache getPrefixCache() {
+    return prefixCache;
+  }
+
+  public int getTestIndex() {
+    return testIndex;
+  }
 }
@@ -12,10 +12,13 @@ import osmo.tester.model.FSMTransition;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * The OSMO Tester test generation algorithm that explores the set of available test step options up to given depth
@@ -47,6 +50,16 @@ public class ExplorerAlgorithm implements FSMTraversalAlgorithm {
   private Collection<TimeTrace> traces = new ArrayList<>();
   /** If true, information on possible to reach coverage is maintained. */
   public static boolean trackCoverage = false;
+  /** The threads for exploration, created on first use and released in {@link #stop()}. */
+  private ExplorationExecutor executor = null;
+  /**
+   * The generator runs a clone of the configured algorithm, these are stopped along with this one.
+   * Held weakly, so clones of finished generators are not kept for the lifetime of this algorithm.
+   * The exploration threads are daemons that time out when idle, so a collected clone does not leave them running.
+   */
+  private final Set<ExplorerAlgorithm> clones = Collections.newSetFromMap(new WeakHashMap<>());
+  /** Captured states of explored test prefixes, to start new exploration paths from. */
+  private final PrefixCache prefixCache = new PrefixCache();
 
   public ExplorerAlgorithm(ExplorationConfiguration config) {
     this.config = config;
@@ -59,7 +72,7 @@ public class ExplorerAlgorithm implements FSMTraversalAlgorithm {
     DOTWriter.deleteFiles();
     this.fsm = fsm;
     //we initialize the fallback algorithm
-    config.getFallback(seed, fsm);
+    this.config.getFallback(seed, fsm);
   }
 
   public Collection<TimeTrace> getTraces() {
@@ -75,7 +88,7 @@ public class ExplorerAlgorithm implements FSMTraversalAlgorithm {
     TestCoverage suiteCoverage = suite.getCoverage();
     //create trace if DOT graph is wanted
     TraceNode[] trace = initTrace(path, testIndex);
-    ExplorationState state = new ExplorationState(config, suiteCoverage);
+    ExplorationState state = new ExplorationState(config, suiteCoverage, prefixCache, testIndex);
     String choice = null;
     if (choices.size() == 1) {
       //this handles the scenario startup, where there is always just one choice (and other similar scenarios)
@@ -134,7 +147,7 @@ public class ExplorerAlgorithm implements FSMTraversalAlgorithm {
   private String exploreLocal(TestSuite suite, ExplorationState state, List<String> path, TraceNode root) {
     if (currentExplorer == null) {
       currentExplorer = new MainExplorer(root);
-      currentExplorer.init(fsm, suite, state, path, config.getParallelism());
+      currentExplorer.init(fsm, suite, state, path, getExecutor());
       currentExplorer.explore();
     }
     //get the choice of next step based on best exploration score
@@ -193,13 +206,37 @@ public class ExplorerAlgorithm implements FSMTraversalAlgorithm {
       newScript.addAll(path);
       newScript.add(result);
       currentExplorer = new MainExplorer(root);
-      currentExplorer.init(fsm, suite, state, newScript, config.getParallelism());
+      currentExplorer.init(fsm, suite, state, newScript, getExecutor());
       currentExplorer.explore();
     }
 
     return result;
   }
   
+  private synchronized ExplorationExecutor getExecutor() {
+    if (executor == null || executor.isShutdown()) executor = new ExplorationExecutor(config.getParallelism());
+    return executor;
+  }
+
+  /**
+   * Stops any running exploration and releases the exploration threads, also for all clones of this algorithm.
+   * Exploration can still be started again after this, in which case new threads are created.
+   */
+  public synchronized void stop() {
+    for (ExplorerAlgorithm clone : clones) {
+      clone.stop();
+    }
+    clones.clear();
+    if (currentExplorer != null) {
+      currentExplorer.stop();
+      currentExplorer = null;
+    }
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
   /**
    * Creates the representation of the generation/exploration trace for using with DOT trace writing.
    *
@@ -246,6 +283,9 @@ public class ExplorerAlgorithm implements FSMTraversalAlgorithm {
   @Override
   public FSMTraversalAlgorithm cloneMe() {
     ExplorerAlgorithm clone = new ExplorerAlgorithm(config);
+    synchronized (this) {
+      clones.add(clone);
+    }
     return clone;
   }
 }
@@ -33,16 +33,16 @@ public class MainExplorer implements Runnable {
   private List<String> script;
   /** The overall state of exploration. */
   private ExplorationState state;
-  /** The thread pool used for exploration. */
-  private static ForkJoinPool explorationPool;
+  /** The threads used for exploration. */
+  private ExplorationExecutor executor;
   /** The chosen step (name). */
   private String result = null;
   /** The test suite being generated. */
   private TestSuite suite = null;
   /** The test model. */
   private FSM fsm = null;
-  /** If set to true, should abort exploration (path finished). */
-  private boolean shouldStop = false;
+  /** If set to true, should abort exploration (path finished). Checked by the path explorers in the pool. */
+  private volatile boolean shouldStop = false;
   /** For collecting possible coverage metrics. */
   private final Collection<String> possibleStepPairs = new LinkedHashSet<>();
   /** For collecting possible coverage metrics. */
@@ -70,12 +70,15 @@ public class MainExplorer implements Runnable {
     return endtime - starttime;
   }
 
-  public void init(FSM fsm, TestSuite suite, ExplorationState state, List<String> script, int parallelism) {
-    if (explorationPool == null) explorationPool = new ForkJoinPool(parallelism);
+  public void init(FSM fsm, TestSuite suite, ExplorationState state, List<String> script, ExplorationExecutor executor) {
+    this.executor = executor;
     this.fsm = fsm;
     this.suite = suite;
     this.state = state;
     this.script = script;
+    PrefixCache cache = state.getPrefixCache();
+    //paths not starting from current script were not taken, so they are no longer needed
+    if (cache != null) cache.prune(state.getTestIndex(), script);
   }
 
   /**
@@ -85,9 +88,7 @@ public class MainExplorer implements Runnable {
    */
   public void explore() {
     starttime = System.currentTimeMillis();
-    Thread t = new Thread(this);
-    t.setDaemon(true);
-    t.start();
+    executor.start(this);
   }
 
   public void run() {
@@ -114,8 +115,13 @@ public class MainExplorer implements Runnable {
     MainGenerator generator = ExplorationHelper.initPath(state, script);
     List<FSMTransition> enabled = generator.getEnabled();
     ExplorationConfiguration config = state.getConfig();
-    PathExplorer explorer = new PathExplorer(state, config.getDepth()-1, trace, enabled, script, explorationPool);
-    List<TestCase> testCases = explorationPool.invoke(explorer);
+    TranspositionTable transpositions = null;
+    //scenarios look at the step history, so the state is not enough to tell paths apart
+    if (config.isTranspositions() && config.getScenario() == null) transpositions = new TranspositionTable(config);
+    ForkJoinPool pool = executor.getPool();
+    PathExplorer explorer = new PathExplorer(state, config.getDepth()-1, trace, enabled, script, pool, transpositions, this);
+    List<TestCase> testCases = pool.invoke(explorer);
+    if (transpositions != null) log.d("transpositions:" + transpositions.getHits() + " of " + transpositions.size() + " states");
     if (shouldStop || testCases == null) {
       log.d("Exploration has stopped on the fly.");
       return;
@@ -299,8 +305,13 @@ public class MainExplorer implements Runnable {
     return possibleStatePairs;
   }
 
+  public boolean isStopped() {
+    return shouldStop;
+  }
+
   /**
    * Signals exploration to stop when possible.
+   * The path explorers stop at their next step, without waiting for their sub-paths to be explored.
    */
   public void stop() {
     shouldStop = true;
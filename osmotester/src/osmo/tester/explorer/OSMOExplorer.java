@@ -79,7 +79,11 @@ public class OSMOExplorer {
 
     System.out.println("Starting exploration with " + config.getParallelism() + " parallel processes.");
     //actual generation magic happens here
-    osmo.generate(config.getSeed());
+    try {
+      osmo.generate(config.getSeed());
+    } finally {
+      algorithm.stop();
+    }
 
     createScoreReport();
     //here we write the trace report.. =sequence of steps concretely executed
@@ -35,9 +35,20 @@ public class PathExplorer extends RecursiveTask<List<TestCase>> {
   private final ForkJoinPool pool;
   /** Used to check if a path exploration should end before depth is reached. */
   private final ExplorationEndCondition endCondition;
+  /** For reusing the results of paths leading to the same state. Null if not used. */
+  private final TranspositionTable transpositions;
+  /** The explorer that started this exploration round, to check if it has been stopped. Null if never stopped. */
+  private final MainExplorer main;
 
   public PathExplorer(ExplorationState state, int depth, TraceNode trace, Collection<FSMTransition> targets,
                       List<String> script, ForkJoinPool pool) {
+    this(state, depth, trace, targets, script, pool, null, null);
+  }
+
+  public PathExplorer(ExplorationState state, int depth, TraceNode trace, Collection<FSMTransition> targets,
+                      List<String> script, ForkJoinPool pool, TranspositionTable transpositions, MainExplorer main) {
+    this.transpositions = transpositions;
+    this.main = main;
     this.state = state;
     this.depth = depth;
     this.trace = trace;
@@ -60,9 +71,13 @@ public class PathExplorer extends RecursiveTask<List<TestCase>> {
     for (FSMTransition transition : targets) {
       toExplore.add(transition.getStringName());
     }
-    Collection<PathExplorer> children = new ArrayList<>();
+    List<PathExplorer> children = new ArrayList<>();
+    //for each child, the test so far if the child explores the same state for another path, null if its our own
+    List<TestCase> transposed = new ArrayList<>();
     List<TestCase> result = new ArrayList<>();
     for (String explore : toExplore) {
+      //no need to go on if the results are no longer wanted, the partial results will be ignored
+      if (isStopped()) break;
       TraceNode child = trace.add(explore, true);
       MainGenerator generator = ExplorationHelper.initPath(state, script);
       initPath(explore, generator);
@@ -70,6 +85,8 @@ public class PathExplorer extends RecursiveTask<List<TestCase>> {
       if (newDepth > 0) {
         PathExplorer explorer = forkExplorer(explore, child, generator, newDepth);
         children.add(explorer);
+        //if some other path already reached the same state, we take the rest of the paths from there
+        transposed.add(explorer.trace == child ? null : generator.getCurrentTest());
       } else {
         //we only come here once there is no depth left to go deeper. thus the end result is that the set of
         //concrete test cases returned is a set of the deepest test cases according to the original configuration
@@ -77,13 +94,30 @@ public class PathExplorer extends RecursiveTask<List<TestCase>> {
         result.add(test);
       }
     }
-    for (PathExplorer child : children) {
-      Collection<TestCase> tests = child.join();
-      result.addAll(tests);
+    for (int i = 0 ; i < children.size() ; i++) {
+      if (isStopped()) break;
+      Collection<TestCase> tests = children.get(i).join();
+      TestCase prefix = transposed.get(i);
+      if (prefix == null) {
+        result.addAll(tests);
+        continue;
+      }
+      for (TestCase test : tests) {
+        result.add(prefix.withSuffix(test, prefix.getLength()));
+      }
     }
     return result;
   }
 
+  private boolean isStopped() {
+    return main != null && main.isStopped();
+  }
+
+  /**
+   * Starts exploring the sub-paths from the current state of the given generator.
+   *
+   * @return The started explorer, or an explorer for another path that already reached the same state.
+   */
   private PathExplorer forkExplorer(String explore, TraceNode child, MainGenerator generator, int newDepth) {
     List<String> newScript = new ArrayList<>();
     newScript.addAll(script);
@@ -91,7 +125,13 @@ public class PathExplorer extends RecursiveTask<List<TestCase>> {
     //here we explore further into the depths of the "tree", but do not save the "testcase" so far as it is just
     //a temporary test on the way further in the depths of the "tree"
     List<FSMTransition> nowEnabled = generator.getEnabled();
-    PathExplorer explorer = new PathExplorer(state, newDepth - 1, child, nowEnabled, newScript, pool);
+    PathExplorer explorer = new PathExplorer(state, newDepth - 1, child, nowEnabled, newScript, pool, transpositions, main);
+    if (transpositions != null) {
+      PathExplorer previous = transpositions.register(generator, newDepth, explorer);
+      if (previous != null) return previous;
+    }
+    //sub-paths can start from here without re-generating the path so far
+    ExplorationHelper.snapshot(state, newScript, generator);
     explorer.fork();
     return explorer;
   }
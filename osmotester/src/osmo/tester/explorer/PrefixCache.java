@@ -0,0 +1,96 @@
+package osmo.tester.explorer;
+
+import osmo.common.log.Logger;
+import osmo.tester.generator.testsuite.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the captured model and test state for the explored test prefixes.
+ * This allows the explorer to start exploring new paths from the end of a stored prefix instead of re-generating
+ * the prefix from the start of the test each time.
+ * Only used if the model objects support it through {@link osmo.tester.annotation.Snapshot} and
+ * {@link osmo.tester.annotation.Restore} methods.
+ * The stored state depends on the test suite coverage (the added coverage of each step), so the entries are only
+ * valid for the test they were captured in.
+ *
+ * @author Teemu Kanstren
+ */
+public class PrefixCache {
+  private static final Logger log = new Logger(PrefixCache.class);
+  /** Key = the test steps (script) executed to reach the state, Value = the captured state. */
+  private final Map<List<String>, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Gives the state captured for the given prefix, if any.
+   *
+   * @param testIndex Index of the test in the suite being explored.
+   * @param script The step names of the test prefix.
+   * @return The captured state, or null if not available.
+   */
+  public Entry get(int testIndex, List<String> script) {
+    Entry entry = entries.get(script);
+    if (entry == null || entry.testIndex != testIndex) return null;
+    return entry;
+  }
+
+  /**
+   * Stores the state captured for the given prefix.
+   *
+   * @param script The step names of the test prefix.
+   * @param entry The captured state.
+   */
+  public void put(List<String> script, Entry entry) {
+    entries.put(new ArrayList<>(script), entry);
+  }
+
+  /**
+   * Removes all entries that can no longer be used when exploring from the given position.
+   * That is, those for other tests and those that do not start with the given script.
+   *
+   * @param testIndex Index of the test in the suite being explored.
+   * @param script The step names of the test so far.
+   */
+  public void prune(int testIndex, List<String> script) {
+    entries.entrySet().removeIf(e -> e.getValue().testIndex != testIndex || !startsWith(e.getKey(), script));
+    log.d("prefix cache pruned to " + entries.size() + " entries");
+  }
+
+  private static boolean startsWith(List<String> key, List<String> script) {
+    if (key.size() < script.size()) return false;
+    return key.subList(0, script.size()).equals(script);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * The state captured after executing a test prefix.
+   */
+  public static class Entry {
+    /** Index of the test in the suite. */
+    private final int testIndex;
+    /** The objects returned by the @Snapshot methods, in the order of the methods in the model. */
+    private final Object[] states;
+    /** A copy of the test case as it was after the prefix. Must not be continued, only continued from. */
+    private final TestCase test;
+
+    public Entry(int testIndex, Object[] states, TestCase test) {
+      this.testIndex = testIndex;
+      this.states = states;
+      this.test = test;
+    }
+
+    public Object[] getStates() {
+      return states;
+    }
+
+    public TestCase getTest() {
+      return test;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package osmo.tester.explorer;
+
+import osmo.common.log.Logger;
+import osmo.tester.coverage.TestCoverage;
+import osmo.tester.generator.MainGenerator;
+import osmo.tester.generator.testsuite.TestCase;
+import osmo.tester.generator.testsuite.TestCaseStep;
+import osmo.tester.model.VariableField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Detects when different paths in one exploration round lead to the same state, so the sub-tree from that state
+ * only needs to be explored once. The first path to reach a state explores it, the others reuse its results by
+ * appending the explored continuations to their own prefix.
+ * Shared by all the {@link PathExplorer} tasks of one exploration round, across the threads of the pool.
+ * <p>
+ * The state is identified by the values of the model {@link osmo.tester.annotation.Variable} fields, the last step
+ * taken, the test length, the remaining exploration depth, and the test coverage so far. The last is compared as
+ * covered elements, not as scores, so any two paths mapped to the same state get the same score for any continuation.
+ * For this to be correct, the @Variable fields need to describe all model state that affects the guards, steps
+ * and end conditions. So this is only used when enabled in {@link ExplorationConfiguration#setTranspositions}.
+ * The exploration trace does not show the sub-trees that were not explored due to this.
+ *
+ * @author Teemu Kanstren
+ */
+public class TranspositionTable {
+  private static final Logger log = new Logger(TranspositionTable.class);
+  /** Key = state reached, Value = the explorer task that explores from that state. */
+  private final Map<Key, PathExplorer> explorers = new ConcurrentHashMap<>();
+  /** Number of paths that reused the results of another. */
+  private final AtomicInteger hits = new AtomicInteger(0);
+  /** Number of steps back the plateau end condition looks at, their added coverage needs to match as well. */
+  private final int lookBack;
+
+  public TranspositionTable(ExplorationConfiguration config) {
+    this.lookBack = config.getTestPlateauThreshold() > 0 ? config.getTestPlateauLength() : 0;
+  }
+
+  /**
+   * Registers the given explorer as the one exploring from the current state of the given generator,
+   * unless one was already registered for the same state.
+   *
+   * @param generator The generator that has reached the state to explore.
+   * @param depth The remaining depth to explore.
+   * @param explorer The explorer to explore the state.
+   * @return The previously registered explorer for the same state, or null if the given one was registered.
+   */
+  public PathExplorer register(MainGenerator generator, int depth, PathExplorer explorer) {
+    Key key = new Key(generator, depth, lookBack);
+    PathExplorer previous = explorers.putIfAbsent(key, explorer);
+    if (previous != null) hits.incrementAndGet();
+    return previous;
+  }
+
+  /** @return Number of paths that reused the results of another path. */
+  public int getHits() {
+    return hits.get();
+  }
+
+  public int size() {
+    return explorers.size();
+  }
+
+  /**
+   * The state of the model and test coverage at a point of exploration.
+   */
+  private static class Key {
+    /** Remaining exploration depth. */
+    private final int depth;
+    /** Number of steps in the test so far. */
+    private final int length;
+    /** Name of the last step taken. */
+    private final String lastStep;
+    /** Values of the model state variables, compared with their equals() and hashCode(). */
+    private final Object[] variables;
+    /** Added coverage of the last steps taken, as end conditions check these. */
+    private final int[] added;
+    /** Coverage of the test so far. A copy as the test is still being generated. */
+    private final TestCoverage coverage;
+    /** Calculated once as the coverage hash needs to go through all the elements. */
+    private final int hash;
+
+    private Key(MainGenerator generator, int depth, int lookBack) {
+      this.depth = depth;
+      TestCase test = generator.getCurrentTest();
+      List<TestCaseStep> steps = test.getSteps();
+      this.length = steps.size();
+      TestCaseStep current = test.getCurrentStep();
+      this.lastStep = current == null ? null : current.getName();
+      List<Object> values = new ArrayList<>();
+      for (VariableField variable : generator.getFsm().getModelVariables()) {
+        if (variable.isSearchableInput()) continue;
+        values.add(variable.getValue());
+      }
+      this.variables = values.toArray();
+      int count = Math.min(lookBack + 1, length);
+      added = new int[count];
+      for (int i = 0 ; i < count ; i++) {
+        added[i] = steps.get(length - 1 - i).getAddedCoverage();
+      }
+      this.coverage = test.getCoverage().cloneMe();
+      long h = coverage.elementHash();
+      h = h * 31 + depth;
+      h = h * 31 + length;
+      h = h * 31 + (lastStep == null ? 0 : lastStep.hashCode());
+      h = h * 31 + Arrays.hashCode(variables);
+      h = h * 31 + Arrays.hashCode(added);
+      this.hash = (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      if (hash != key.hash || depth != key.depth || length != key.length) return false;
+      if (lastStep != null ? !lastStep.equals(key.lastStep) : key.lastStep != null) return false;
+      if (!Arrays.equals(variables, key.variables)) return false;
+      if (!Arrays.equals(added, key.added)) return false;
+      return coverage.sameElementsAs(key.coverage);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package osmo.tester.generator;
 import osmo.common.OSMOException;
 import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
+import osmo.tester.coverage.CoverageIds;
 import osmo.tester.coverage.ScoreCalculator;
 import osmo.tester.generator.algorithm.FSMTraversalAlgorithm;
 import osmo.tester.generator.filter.StepFilter;
@@ -24,8 +25,6 @@ import osmo.tester.scripter.internal.TestScript;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 
@@ -63,6 +62,8 @@ public class MainGenerator {
   private final FSMTraversalAlgorithm algorithm;
   private List<TestScript> scripts = null;
   private TestScript script = null;
+  /** Re-used for filtering the set of candidate steps on each step, to avoid re-allocating it every time. */
+  private final List<FSMTransition> candidates = new ArrayList<>();
 
   /**
    * @param seed   The base seed to use for randomization during generation.
@@ -78,6 +79,7 @@ public class MainGenerator {
     this.scenarioFilter = new ScenarioFilter(config.getScenario());
     this.scripts = config.getScripts();
     suite.setKeepTests(config.isKeepTests());
+    suite.setTestSink(config.getTestSink());
     //this is used to initialize variables such as fsm
     createModelObjects();
     this.algorithm = config.cloneAlgorithm(seed, fsm);
@@ -86,13 +88,18 @@ public class MainGenerator {
   /** Invoked to start the test generation using the configured parameters. */
   public void generate() {
     log.d("starting generation");
-    config.initialize(seed, fsm);
-    initSuite();
-    while (!shouldEndSuite()) {
-      nextTest();
+    CoverageIds.generationStarted();
+    try {
+      config.initialize(seed, fsm);
+      initSuite();
+      while (!shouldEndSuite()) {
+        nextTest();
+      }
+      log.d("Ending suite");
+      endSuite();
+    } finally {
+      CoverageIds.generationEnded();
     }
-    log.d("Ending suite");
-    endSuite();
   }
 
   private boolean shouldEndSuite() {
@@ -116,7 +123,7 @@ public class MainGenerator {
     //create a new seed for the new test case
     seed = baseSeed + salt;
     if (scripts != null) {
-      script = scripts.get(suite.getAllTestCases().size());
+      script = scripts.get(suite.currentTestNumber());
       seed = script.getSeed();
       scenarioFilter = new ScenarioFilter(script.toScenario());
     }
@@ -126,7 +133,7 @@ public class MainGenerator {
     //re-parse the model, which causes re-creation of the model objects and as such creates the new references
     //to the new object instances. invocationtargets for guards, steps, etc. need updating and this is needed for that.
     //also, we need to recreate the parser to avoid complaints about overlapping requirements definitions etc.
-    MainParser parser = new MainParser();
+    MainParser parser = new MainParser(config.getInvokerFactory());
     ParserResult result = parser.parse(seed, config, suite);
     fsm = result.getFsm();
     invokeAll(fsm.getGenerationEnablers());
@@ -247,7 +254,7 @@ public class MainGenerator {
     //not the best of hacks but.. manual drive ends by returning null
     if (algorithm instanceof ManualAlgorithm && next == null) return false;
 
-    log.d("Taking step " + next.getName());
+    log.d("Taking step {}", next.getName());
     execute(next);
     if (checkModelEndConditions()) {
       //stop this test case generation if any end condition returns true
@@ -313,7 +320,7 @@ public class MainGenerator {
       String value = coverage.invoke(step);
       String name = coverage.getVariableName();
       suite.addUserCoverage(name, value);
-      log.d("new coverage: " + name + "=" + value);
+      log.d("new coverage: {}={}", name, value);
     }
   }
 
@@ -430,27 +437,27 @@ public class MainGenerator {
    * @return The list of enabled {@link osmo.tester.annotation.TestStep} methods.
    */
   public List<FSMTransition> getEnabled() {
-    List<FSMTransition> enabled = new ArrayList<>();
-    enabled.addAll(fsm.getTransitions());
+    //the transitions are already sorted in the FSM to get deterministic test generation, filtering keeps the order
+    candidates.clear();
+    candidates.addAll(fsm.getSortedTransitions());
     //filter out all non-wanted transitions
     for (StepFilter filter : config.getFilters()) {
-      filter.filter(enabled);
+      filter.filter(candidates);
     }
     //if a scenario is defined, remove everything not part of that scenario
-    scenarioFilter.filter(enabled, getCurrentTest().getAllStepNames());
-    //sort the remaining ones to get deterministic test generation
-    Collections.sort(enabled);
+    if (scenarioFilter.isActive()) scenarioFilter.filter(candidates, getCurrentTest());
     //then check which of the remaining are allowed by their guard statements
-    for (Iterator<FSMTransition> i = enabled.iterator() ; i.hasNext() ; ) {
-      FSMTransition transition = i.next();
+    List<FSMTransition> enabled = new ArrayList<>(candidates.size());
+    for (FSMTransition transition : candidates) {
+      boolean allowed = true;
       for (InvocationTarget guard : transition.getGuards()) {
         listeners.guard(transition);
-        Boolean result = (Boolean) guard.invoke();
-        if (!result) {
-          i.remove();
+        if (!guard.invokeGuard()) {
+          allowed = false;
           break;
         }
       }
+      if (allowed) enabled.add(transition);
     }
     return enabled;
   }
@@ -1,69 +1,73 @@
 package osmo.tester.generator.algorithm;
 
+import osmo.common.JavaRandomEngine;
+import osmo.common.RandomEngine;
 import osmo.common.Randomizer;
+import osmo.tester.OSMOConfiguration;
 import osmo.common.log.Logger;
-import osmo.tester.coverage.TestCoverage;
+import osmo.tester.coverage.CoverageIds;
 import osmo.tester.generator.testsuite.TestCaseStep;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.function.LongFunction;
 
 /**
  * A test generation algorithm that is similar to the {@link RandomAlgorithm} but prefers to take
  * a the least covered of all available steps. Any uncovered steps are taken first, and after this
  * any uncovered pairs are taken. If all available steps and pairs have been taken already, the
  * algorithm picks one randomly but giving higher weight to those that have been covered fewer times.
+ * <p>
+ * The step counts are taken from {@link TestSuite#stepCount(FSMTransition)} and the pair counts are kept here in
+ * arrays indexed by step id, so the cost of a choice depends only on the number of available steps and not on the
+ * size of the suite generated so far.
  *
  * @author Teemu Kanstren, Olli-Pekka Puolitaival
  */
 public class BalancingAlgorithm implements FSMTraversalAlgorithm {
   private static final Logger log = new Logger(BalancingAlgorithm.class);
-  /** The coverage for step pairs, key = step 1 in pair, value = {step 2 in pair, coverage} */
-  private Map<String, Map<FSMTransition, Integer>> spCoverage = new LinkedHashMap<>();
+  /** Step id for the start of a test, used as the first step in pair for the first step of a test. */
+  private static final int START_ID = CoverageIds.STEPS.idFor(FSM.START_STEP_NAME);
+  /**
+   * The coverage for step pairs, first index = id of step 1 in pair, second index = id of step 2 in pair,
+   * value = number of times the pair has been taken. Rows are created when the first step is first seen.
+   */
+  private int[][] spCoverage = new int[0][];
   /** For randomization. Separate instances are used to allow multiple instances running concurrently. */
   private Randomizer rand = null;
+  /** Creates the random number engine, taken from the generator configuration if given. */
+  private LongFunction<RandomEngine> engine = JavaRandomEngine::new;
 
   public BalancingAlgorithm() {
   }
 
+  @Override
+  public void init(long seed, FSM fsm, OSMOConfiguration config) {
+    this.engine = config.getRandomEngine();
+    init(seed, fsm);
+  }
+
   @Override
   public void init(long seed, FSM fsm) {
+    this.rand = new Randomizer(seed, engine);
   }
 
   @Override
   public FSMTransition choose(TestSuite suite, List<FSMTransition> choices) {
     TestCaseStep ts = suite.getCurrentTest().getCurrentStep();
-    String previous = null;
+    int previous = START_ID;
     if (ts != null) {
-      previous = ts.getName();
-    } else {
-      previous = FSM.START_STEP_NAME;
+      previous = ts.getStepId();
     }
-    initSPCoverage(previous, choices);
+    int[] pairs = initSPCoverage(previous, choices);
 
     FSMTransition choice = checkUncoveredSteps(suite, choices);
-    if (choice != null) {
-      updateSPCoverage(previous, choice);
-      return choice;
-    }
-
-    choice = checkUncoveredSP(previous, choices);
-    if (choice != null) {
-      updateSPCoverage(previous, choice);
-      return choice;
-    }
-
-    choice = weightedChoice(previous, choices);
-    updateSPCoverage(previous, choice);
-    
+    if (choice == null) choice = checkUncoveredSP(pairs, choices);
+    if (choice == null) choice = weightedChoice(pairs, choices);
+    pairs[choice.getStepId()]++;
     return choice;
   }
 
@@ -71,18 +75,16 @@ public class BalancingAlgorithm implements FSMTraversalAlgorithm {
    * Performs a weighted choice from available test steps, based on how often each of them
    * has occurred after the step previously taken in current test case.
    * 
-   * @param previous The name of step previously taken in this test case.
+   * @param pairs The pair coverage for the step previously taken in this test case.
    * @param choices The available steps in current model state.
    * @return The chosen step to be taken next.
    */
-  private FSMTransition weightedChoice(String previous, List<FSMTransition> choices) {
-    Map<FSMTransition, Integer> map = spCoverage.get(previous);
+  private FSMTransition weightedChoice(int[] pairs, List<FSMTransition> choices) {
     int[] weights = new int[choices.size()];
-    int i = 0;
     int max = 0;
-    for (FSMTransition choice : choices) {
-      Integer weight = map.get(choice);
-      weights[i++] = weight;
+    for (int i = 0 ; i < weights.length ; i++) {
+      int weight = pairs[choices.get(i).getStepId()];
+      weights[i] = weight;
       if (weight > max) {
         max = weight;
       }
@@ -92,15 +94,10 @@ public class BalancingAlgorithm implements FSMTraversalAlgorithm {
     max++;
     //invert the weights, that is the more often a step is taken in proportion to the other available steps, 
     //the smaller probability it should have to be taken next
-    for (i = 0 ; i < weights.length ; i++) {
+    for (int i = 0 ; i < weights.length ; i++) {
       weights[i] = max - weights[i];
     }
-    
-    List<Integer> scores = new ArrayList<>();
-    for (int weight : weights) {
-      scores.add(weight);
-    }
-    int index = rand.rawWeightedRandomFrom(scores);
+    int index = rand.weightedRandomFrom(weights);
     return choices.get(index);
   }
 
@@ -113,91 +110,74 @@ public class BalancingAlgorithm implements FSMTraversalAlgorithm {
    * @return The step to take. Null if no uncovered step is found.
    */
   private FSMTransition checkUncoveredSteps(TestSuite suite, List<FSMTransition> choices) {
-    //how many times each step has been taken so far
-    TestCoverage tc = new TestCoverage();
-    tc.addCoverage(suite.getCoverage());
-    tc.addCoverage(suite.getCurrentTest().getCoverage());
-    Map<String, Integer> coverage = tc.getStepCoverage();
-    Collection<FSMTransition> options = new LinkedHashSet<>();
-    options.addAll(choices);
-    for (Iterator<FSMTransition> i = options.iterator() ; i.hasNext() ; ) {
-      FSMTransition next = i.next();
-      if (coverage.containsKey(next.getStringName())) {
-        //it was covered..
-        i.remove();
-      }
+    int uncovered = 0;
+    for (int i = 0 ; i < choices.size() ; i++) {
+      if (suite.stepCount(choices.get(i)) == 0) uncovered++;
     }
-    log.d("uncovered options:" + options);
-    //options now contains all previously uncovered transitions
-    if (options.size() > 0) {
-      return rand.oneOf(options);
+    log.d("uncovered options:{}", uncovered);
+    if (uncovered == 0) return null;
+    //pick one of the uncovered in the order they are in the choices
+    int index = rand.nextInt(0, uncovered - 1);
+    for (int i = 0 ; i < choices.size() ; i++) {
+      FSMTransition choice = choices.get(i);
+      if (suite.stepCount(choice) == 0 && index-- == 0) return choice;
     }
-    return null;
+    throw new IllegalStateException("Uncovered step not found.");
   }
 
   /**
    * Provides the step pair coverage for the previously taken step. That is, how many times other
    * steps have been taken after the one previously taken in current test case.
-   * Also initializes the default value of 0 for any available step that has not been taken, to make sure
-   * that get() will always return something valid for the available choices.
+   * Also makes sure the returned array has room for all the available choices.
    *
-   * @param previous The step that was taken previously (first step in pair).
+   * @param previous Id of the step that was taken previously (first step in pair).
    * @param choices  The choices for the next transition (second (latter) step in pair).
+   * @return The pair coverage for the previous step, index = id of the second step in pair.
    */
-  private void initSPCoverage(String previous, List<FSMTransition> choices) {
-    //this could be initialized once in init() but works so..
-    Map<FSMTransition, Integer> currentSPCoverage = spCoverage.get(previous);
-    if (currentSPCoverage == null) {
-      currentSPCoverage = new LinkedHashMap<>();
-      spCoverage.put(previous, currentSPCoverage);
+  private int[] initSPCoverage(int previous, List<FSMTransition> choices) {
+    if (previous >= spCoverage.length) {
+      spCoverage = Arrays.copyOf(spCoverage, Math.max(previous + 1, spCoverage.length * 2));
     }
-    for (FSMTransition t : choices) {
-      if (currentSPCoverage.get(t) == null) {
-        currentSPCoverage.put(t, 0);
-      }
+    int max = 0;
+    for (int i = 0 ; i < choices.size() ; i++) {
+      max = Math.max(max, choices.get(i).getStepId());
+    }
+    int[] pairs = spCoverage[previous];
+    if (pairs == null) {
+      pairs = new int[max + 1];
+      spCoverage[previous] = pairs;
+    } else if (max >= pairs.length) {
+      pairs = Arrays.copyOf(pairs, Math.max(max + 1, pairs.length * 2));
+      spCoverage[previous] = pairs;
     }
+    return pairs;
   }
 
   /**
-   * Provides a list of all previously uncovered pairs.
+   * Picks one of the available steps not yet taken after the previous step, if any.
    *
-   * @param previous Previously taken step (first step in pair).
+   * @param pairs The pair coverage for the previously taken step (first step in pair).
    * @param choices  The possible choices for the next step to be taken (second (later) step in pair).
+   * @return The step to take. Null if all available pairs have been covered.
    */
-  private FSMTransition checkUncoveredSP(String previous, Collection<FSMTransition> choices) {
-    Collection<FSMTransition> uncoveredSP = new ArrayList<>();
-    uncoveredSP.addAll(choices);
-    Map<FSMTransition, Integer> map = spCoverage.get(previous);
-    for (FSMTransition t : map.keySet()) {
-      if (map.get(t) > 0) {
-        uncoveredSP.remove(t);
-      }
-    }
-    log.d("Uncovered SP:" + uncoveredSP);
-    if (uncoveredSP.size() > 0) {
-      return rand.oneOf(uncoveredSP);
+  private FSMTransition checkUncoveredSP(int[] pairs, List<FSMTransition> choices) {
+    int uncovered = 0;
+    for (int i = 0 ; i < choices.size() ; i++) {
+      if (pairs[choices.get(i).getStepId()] == 0) uncovered++;
     }
-    return null;
-  }
-
-  /**
-   * Updates the coverage table based on the step that has been chosen as the one to be taken.
-   *
-   * @param previous The previously taken step.
-   * @param choice   The choice of step that will be taken next.
-   */
-  private void updateSPCoverage(String previous, FSMTransition choice) {
-    if (previous == null) {
-      return;
+    log.d("Uncovered SP:{}", uncovered);
+    if (uncovered == 0) return null;
+    int index = rand.nextInt(0, uncovered - 1);
+    for (int i = 0 ; i < choices.size() ; i++) {
+      FSMTransition choice = choices.get(i);
+      if (pairs[choice.getStepId()] == 0 && index-- == 0) return choice;
     }
-    Map<FSMTransition, Integer> currentSpCoverage = spCoverage.get(previous);
-    int count = currentSpCoverage.get(choice);
-    currentSpCoverage.put(choice, count + 1);
+    throw new IllegalStateException("Uncovered step pair not found.");
   }
 
   @Override
   public void initTest(long seed) {
-    this.rand = new Randomizer(seed);
+    rand.setSeed(seed);
   }
 
   @Override
@@ -1,5 +1,6 @@
 package osmo.tester.generator.algorithm;
 
+import osmo.tester.OSMOConfiguration;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
@@ -32,6 +33,19 @@ public interface FSMTraversalAlgorithm {
    */
   public void init(long seed, FSM fsm);
 
+  /**
+   * Called by the generator instead of {@link #init(long, FSM)}, to also give the generator configuration.
+   * Algorithms using randomization should override this to take the random number engine from the configuration.
+   * By default, this just calls {@link #init(long, FSM)}.
+   *
+   * @param seed Randomization seed to be used for test generation.
+   * @param fsm From parsing all given model objects, describes the test model structure.
+   * @param config The configuration for the generator, including the random number engine to use.
+   */
+  public default void init(long seed, FSM fsm, OSMOConfiguration config) {
+    init(seed, fsm);
+  }
+
   /**
    * This is called before a new test is started.
    * 
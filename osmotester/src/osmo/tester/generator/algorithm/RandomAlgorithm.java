@@ -1,11 +1,15 @@
 package osmo.tester.generator.algorithm;
 
+import osmo.common.JavaRandomEngine;
+import osmo.common.RandomEngine;
 import osmo.common.Randomizer;
+import osmo.tester.OSMOConfiguration;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
 
 import java.util.List;
+import java.util.function.LongFunction;
 
 /**
  * A simple algorithm that randomly picks a step from the given set.
@@ -15,12 +19,28 @@ import java.util.List;
 public class RandomAlgorithm implements FSMTraversalAlgorithm {
   /** Instance to provide deterministic random values. */
   private Randomizer rand = null;
+  /** Creates the random number engine, taken from the generator configuration if given. */
+  private LongFunction<RandomEngine> engine = JavaRandomEngine::new;
 
   public RandomAlgorithm() {
   }
 
+  /**
+   * @param engine Creates the random number engine, unless the generator configuration gives one in init.
+   */
+  public RandomAlgorithm(LongFunction<RandomEngine> engine) {
+    this.engine = engine;
+  }
+
   @Override
   public void init(long seed, FSM fsm) {
+    this.rand = new Randomizer(seed, engine);
+  }
+
+  @Override
+  public void init(long seed, FSM fsm, OSMOConfiguration config) {
+    this.engine = config.getRandomEngine();
+    init(seed, fsm);
   }
 
   @Override
@@ -34,11 +54,11 @@ public class RandomAlgorithm implements FSMTraversalAlgorithm {
     //if this is done and the valueset has the same number of options as the model has steps
     //the valueset will produce exact same value for that step (at least if it is first..)
     //when valueset.random method is used. yes it has happened with randomvaluemodel4 and unit tests..
-    this.rand = new Randomizer(seed+1000);
+    rand.setSeed(seed+1000);
   }
 
   @Override
   public FSMTraversalAlgorithm cloneMe() {
-    return new RandomAlgorithm();
+    return new RandomAlgorithm(engine);
   }
 }
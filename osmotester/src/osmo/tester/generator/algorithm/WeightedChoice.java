@@ -0,0 +1,233 @@
+package osmo.tester.generator.algorithm;
+
+import osmo.common.Randomizer;
+import osmo.tester.model.FSMTransition;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Weighted random choice of test steps for the traversal algorithms.
+ * Each known step has a fixed index and a weight, kept in a Fenwick tree (binary indexed tree) of weight sums.
+ * Changing the weight of one step and picking a step by weight are both O(log n), so the algorithms can update the
+ * weights incrementally as steps are covered instead of recalculating all of them for every step taken.
+ * <p>
+ * Only the steps given as available in {@link #choose(List, Randomizer)} can be picked. The others are kept in the
+ * tree with a weight of 0, and only the steps whose availability changed from the previous choice are updated.
+ * <p>
+ * With integer weights, the choice is the same as given by {@link Randomizer#rawWeightedRandomFrom(List)} for the
+ * available steps in index order. Otherwise the choice uses the exact double weights.
+ *
+ * @author Teemu Kanstren
+ */
+public class WeightedChoice {
+  /** Number of weight updates after which the tree is rebuilt, to avoid floating point errors from adding up. */
+  private static final int REBUILD_INTERVAL = 1024;
+  /** If true, the weights are whole numbers and choices are made as in {@link Randomizer#rawWeightedRandomFrom}. */
+  private final boolean integerWeights;
+  /**
+   * The steps given as available in the latest choice, index in array is the index of the step.
+   * These are returned instead of the steps used to create the indices, as the model objects, and with them
+   * the step objects, may be re-created between tests.
+   */
+  private FSMTransition[] steps = new FSMTransition[0];
+  /** Key = step id from {@link FSMTransition#getStepId()}, value = index of the step + 1. 0 for unknown steps. */
+  private int[] indices = new int[0];
+  /** The weights of the steps, whether available or not. */
+  private double[] weights = new double[0];
+  /** The weights in the tree, 0 for steps that are not available. */
+  private double[] values = new double[0];
+  /** The Fenwick tree of the values, 1-based. */
+  private double[] tree = new double[1];
+  /** Number of known steps. */
+  private int size = 0;
+  /** True for the steps that were available in the previous choice. */
+  private boolean[] active = new boolean[0];
+  /** Indices of the steps available in the previous choice. */
+  private int[] available = new int[0];
+  /** Number of valid items in {@link #available}. */
+  private int availableCount = 0;
+  /** For each step, the choice round in which it was last seen as available. */
+  private int[] seen = new int[0];
+  /** Number of the current choice round. */
+  private int round = 0;
+  /** Number of weight updates since last rebuild of the tree. */
+  private int updates = 0;
+
+  /**
+   * @param steps The steps to index, in the order in which they are chosen for the same random value.
+   * @param integerWeights True if the weights are whole numbers, to make the choices as with integer weights.
+   */
+  public WeightedChoice(Collection<FSMTransition> steps, boolean integerWeights) {
+    this.integerWeights = integerWeights;
+    for (FSMTransition step : steps) {
+      add(step);
+    }
+  }
+
+  /**
+   * @param step The step to look for.
+   * @return Index of the step, or -1 if it is not known.
+   */
+  public int indexOf(FSMTransition step) {
+    int id = step.getStepId();
+    if (id >= indices.length) return -1;
+    return indices[id] - 1;
+  }
+
+  /**
+   * Adds a new step to the end of the index order. The weight starts at 0, so it should be set before choosing.
+   *
+   * @param step The step to add.
+   * @return The index for the added step.
+   */
+  public int add(FSMTransition step) {
+    int id = step.getStepId();
+    if (id >= indices.length) indices = Arrays.copyOf(indices, Math.max(id + 1, indices.length * 2));
+    if (size == steps.length) {
+      int capacity = Math.max(8, size * 2);
+      steps = Arrays.copyOf(steps, capacity);
+      weights = Arrays.copyOf(weights, capacity);
+      values = Arrays.copyOf(values, capacity);
+      seen = Arrays.copyOf(seen, capacity);
+      active = Arrays.copyOf(active, capacity);
+      available = Arrays.copyOf(available, capacity);
+      tree = new double[capacity + 1];
+    }
+    int index = size++;
+    indices[id] = index + 1;
+    rebuild();
+    return index;
+  }
+
+  /**
+   * @param index Index of the step.
+   * @param weight The new weight for the step.
+   */
+  public void setWeight(int index, double weight) {
+    weights[index] = weight;
+    if (active[index]) setValue(index, checked(weight));
+  }
+
+  private static double checked(double weight) {
+    if (!(weight > 0)) {
+      throw new IllegalArgumentException("Weight must be > 0. Was " + weight + ".");
+    }
+    return weight;
+  }
+
+  public double getWeight(int index) {
+    return weights[index];
+  }
+
+  /**
+   * Picks one of the available steps, with probability proportional to its weight.
+   * All the available steps must be known, as added in the constructor or with {@link #add(FSMTransition)}.
+   *
+   * @param choices The available steps.
+   * @param rand Source for the random value.
+   * @return The chosen step.
+   */
+  public FSMTransition choose(List<FSMTransition> choices, Randomizer rand) {
+    updateAvailable(choices);
+    double total = sum(size);
+    if (integerWeights) {
+      //same as rawWeightedRandomFrom(), the first step where the weight sum reaches the target
+      int target = rand.nextInt(1, (int) total);
+      return steps[find(target - 1)];
+    }
+    double target = rand.nextDouble() * total;
+    return steps[find(target)];
+  }
+
+  /**
+   * Sets the values for the steps that became available or unavailable since the previous choice.
+   *
+   * @param choices The steps available now.
+   */
+  private void updateAvailable(List<FSMTransition> choices) {
+    round++;
+    for (int i = 0 ; i < choices.size() ; i++) {
+      FSMTransition choice = choices.get(i);
+      int index = indexOf(choice);
+      if (index < 0) throw new IllegalArgumentException("Unknown step:" + choice.getStringName());
+      seen[index] = round;
+      steps[index] = choice;
+    }
+    for (int i = 0 ; i < availableCount ; i++) {
+      int index = available[i];
+      if (seen[index] != round) {
+        active[index] = false;
+        setValue(index, 0);
+      }
+    }
+    availableCount = 0;
+    for (int i = 0 ; i < choices.size() ; i++) {
+      int index = indexOf(choices.get(i));
+      if (!active[index]) {
+        setValue(index, checked(weights[index]));
+        active[index] = true;
+      }
+      available[availableCount++] = index;
+    }
+  }
+
+  private void setValue(int index, double value) {
+    double delta = value - values[index];
+    values[index] = value;
+    if (!integerWeights && ++updates >= REBUILD_INTERVAL) {
+      rebuild();
+      return;
+    }
+    for (int i = index + 1 ; i <= size ; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  /** Builds the tree from the current values in O(n). */
+  private void rebuild() {
+    updates = 0;
+    Arrays.fill(tree, 0);
+    for (int i = 1 ; i <= size ; i++) {
+      tree[i] += values[i - 1];
+      int parent = i + (i & -i);
+      if (parent <= size) tree[parent] += tree[i];
+    }
+  }
+
+  /**
+   * @param count Number of steps to sum.
+   * @return Sum of the values for the first count steps.
+   */
+  private double sum(int count) {
+    double sum = 0;
+    for (int i = count ; i > 0 ; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  /**
+   * @param target The value to find.
+   * @return Index of the first available step where the sum of values up to and including it is over the target.
+   */
+  private int find(double target) {
+    int index = 0;
+    for (int step = Integer.highestOneBit(size) ; step > 0 ; step >>= 1) {
+      int next = index + step;
+      if (next <= size && tree[next] <= target) {
+        index = next;
+        target -= tree[next];
+      }
+    }
+    //rounding errors in the sums may point just past the last available step, so take the closest available one
+    for (int i = index ; i < size ; i++) {
+      if (values[i] > 0) return i;
+    }
+    for (int i = Math.min(index, size) - 1 ; i >= 0 ; i--) {
+      if (values[i] > 0) return i;
+    }
+    throw new IllegalStateException("No step available to choose from.");
+  }
+}
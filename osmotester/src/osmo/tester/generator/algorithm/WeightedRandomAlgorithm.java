@@ -1,17 +1,22 @@
 package osmo.tester.generator.algorithm;
 
+import osmo.common.JavaRandomEngine;
+import osmo.common.RandomEngine;
 import osmo.common.Randomizer;
+import osmo.tester.OSMOConfiguration;
 import osmo.common.log.Logger;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.function.LongFunction;
 
 /**
  * The chosen step is based on probability proportional to the weight of each step.
+ * The steps are ordered by weight, smallest first, for {@link WeightedChoice} so the same seed always gives
+ * the same choices.
  *
  * @author Teemu Kanstren
  */
@@ -19,30 +24,45 @@ public class WeightedRandomAlgorithm implements FSMTraversalAlgorithm {
   private static final Logger log = new Logger(WeightedRandomAlgorithm.class);
   /** Randomizer instance that allows us to run stuff in parallel vs static imports. */
   private Randomizer rand = null;
+  /** Creates the random number engine, taken from the generator configuration if given. */
+  private LongFunction<RandomEngine> engine = JavaRandomEngine::new;
+  /** For choosing the step according to the weights. */
+  private WeightedChoice weights = null;
 
   public WeightedRandomAlgorithm() {
   }
 
+  @Override
+  public void init(long seed, FSM fsm, OSMOConfiguration config) {
+    this.engine = config.getRandomEngine();
+    init(seed, fsm);
+  }
+
   @Override
   public void init(long seed, FSM fsm) {
+    this.rand = new Randomizer(seed, engine);
+    //smallest weights first, sort is stable so same weights stay in the order of the FSM
+    List<FSMTransition> steps = new ArrayList<>(fsm.getSortedTransitions());
+    steps.sort(new WeightComparator());
+    weights = new WeightedChoice(steps, true);
+    for (FSMTransition step : steps) {
+      weights.setWeight(weights.indexOf(step), step.getWeight());
+    }
   }
 
   @Override
   public FSMTransition choose(TestSuite suite, List<FSMTransition> choices) {
-    log.d("choosing from:" + choices);
-    //sort the list to have smallest weights first, to provide correct parameter list to rawWeightedRandomFrom()
-    Collections.sort(choices, new WeightComparator());
-    List<Integer> weights = new ArrayList<>();
-    for (FSMTransition choice : choices) {
-      weights.add(choice.getWeight());
+    log.d("choosing from:{}", choices);
+    for (int i = 0 ; i < choices.size() ; i++) {
+      FSMTransition choice = choices.get(i);
+      if (weights.indexOf(choice) < 0) weights.setWeight(weights.add(choice), choice.getWeight());
     }
-    int index = rand.rawWeightedRandomFrom(weights);
-    return choices.get(index);
+    return weights.choose(choices, rand);
   }
 
   @Override
   public void initTest(long seed) {
-    this.rand = new Randomizer(seed);
+    rand.setSeed(seed);
   }
 
   @Override
@@ -33,7 +33,7 @@ public class Length implements EndCondition {
   @Override
   public boolean endSuite(TestSuite suite, FSM fsm) {
     int suiteLength = suite.currentTestNumber();
-    log.d("finished tests:" + suiteLength + " current steps:" + suite.currentSteps());
+    log.d("finished tests:{} current steps:{}", suiteLength, suite.currentSteps());
     //suite maintains length of size + 1, but at this point the previous one has just ended, or so we think..
     return suiteLength >= length;
   }
@@ -41,7 +41,7 @@ public class Length implements EndCondition {
   @Override
   public boolean endTest(TestSuite suite, FSM fsm) {
     int currentSteps = suite.currentSteps();
-    log.d(" et:" + suite.getAllTestCases().size() + " c:" + currentSteps);
+    if (log.isDebugEnabled()) log.d(" et:{} c:{}", suite.getAllTestCases().size(), currentSteps);
     return currentSteps >= length;
   }
 
@@ -48,7 +48,7 @@ public class Probability implements EndCondition {
 
   @Override
   public void init(long seed, FSM fsm, OSMOConfiguration config) {
-    rand = new Randomizer(seed);
+    rand = new Randomizer(seed, config.getRandomEngine());
   }
 
   public double getThreshold() {
@@ -28,7 +28,7 @@ public class StateCoverage implements EndCondition {
 
   @Override
   public boolean endSuite(TestSuite suite, FSM fsm) {
-    Collection<String> covered = suite.getCoverage().getStates().get(name);
+    Collection<String> covered = suite.getCoverage().getStates(name);
     if (covered == null) covered = new ArrayList<>();
     Collection<String> clone = new ArrayList<>();
     clone.addAll(required);
@@ -39,7 +39,7 @@ public class StateCoverage implements EndCondition {
 
   @Override
   public boolean endTest(TestSuite suite, FSM fsm) {
-    Collection<String> covered = suite.getCurrentTest().getCoverage().getStates().get(name);
+    Collection<String> covered = suite.getCurrentTest().getCoverage().getStates(name);
     if (covered == null) covered = new ArrayList<>();
     Collection<String> clone = new ArrayList<>();
     clone.addAll(required);
@@ -1,21 +1,21 @@
 package osmo.tester.generator.endcondition;
 
+import osmo.common.Deadline;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSM;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Signals generation ending when the given time has elapsed.
+ * The time is counted from the latest call to init(), which for test end conditions is done for each test.
  *
  * @author Teemu Kanstren, Olli-Pekka Puolitaival
  */
 public class Time implements EndCondition {
-  /** Indicates whether time has passed or not, meaning should generation be stopped. */
-  private boolean shouldEnd = false;
+  /** When the generation should be stopped. Null until initialized. */
+  private Deadline deadline = null;
   /** The number of time units until this should return true. */
   private final long delay;
   /** The time unit used for evaluating time until signalling end. */
@@ -43,20 +43,17 @@ public class Time implements EndCondition {
 
   @Override
   public boolean endSuite(TestSuite suite, FSM fsm) {
-    return shouldEnd;
+    return deadline != null && deadline.isPassed();
   }
 
   @Override
   public boolean endTest(TestSuite suite, FSM fsm) {
-    return shouldEnd;
+    return deadline != null && deadline.isPassed();
   }
 
   @Override
   public void init(long seed, FSM fsm, OSMOConfiguration config) {
-    shouldEnd = false;
-    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
-    Runnable task = () -> shouldEnd = true;
-    executor.schedule(task, delay, timeUnit);
+    deadline = Deadline.after(delay, timeUnit);
   }
 
   public long getDelay() {
@@ -77,7 +74,7 @@ public class Time implements EndCondition {
 
   @Override
   public EndCondition cloneMe() {
-    //we need a copy as running the same instance in parallel would break on the shared timer task and shared boolean end condition
+    //we need a copy as running the same instance in parallel would break on the shared deadline being restarted in init
     return new Time(delay, timeUnit);
   }
 }
@@ -76,7 +76,7 @@ public class WeightedEndConditionSet implements EndCondition {
   public void init(long seed, FSM fsm, OSMOConfiguration config) {
     //use seed for selection to give deterministic tests
     //note that the generator should pick a new seed for each  test and call this with that seed, resulting in different choices per test
-    Randomizer rand = new Randomizer(seed);
+    Randomizer rand = new Randomizer(seed, config.getRandomEngine());
     int index = rand.rawWeightedRandomFrom(weights);
     this.ec = endConditions.get(index);
     ec.init(seed, fsm, config);
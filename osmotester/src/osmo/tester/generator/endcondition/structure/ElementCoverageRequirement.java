@@ -99,9 +99,9 @@ public class ElementCoverageRequirement {
    */
   public boolean checkCoverage(TestSuite suite) {
     TestCoverage coverage = suite.getCoverage();
-    if (pairs > 0 && pairs > coverage.getStepPairs().size()) return false;
-    if (requirements > 0 && requirements > coverage.getRequirements().size()) return false;
-    if (steps > 0 && steps > coverage.getSingles().size()) return false;
+    if (pairs > 0 && pairs > coverage.getStepPairCount()) return false;
+    if (requirements > 0 && requirements > coverage.getRequirementCount()) return false;
+    if (steps > 0 && steps > coverage.getSingleCount()) return false;
     return true;
   }
 
@@ -113,9 +113,9 @@ public class ElementCoverageRequirement {
    */
   public boolean checkCoverage(TestCase test) {
     TestCoverage tc = test.getCoverage();
-    if (requirements > 0 && requirements > tc.getRequirements().size()) return false;
-    if (steps > 0 && steps > tc.getSingles().size()) return false;
-    if (pairs > 0 && pairs > tc.getStepPairs().size()) return false;
+    if (requirements > 0 && requirements > tc.getRequirementCount()) return false;
+    if (steps > 0 && steps > tc.getSingleCount()) return false;
+    if (pairs > 0 && pairs > tc.getStepPairCount()) return false;
     return true;
   }
 
@@ -38,7 +38,6 @@ public class TestCase {
   /** Set to true if during test generation there is an exception thrown. */
   private boolean failed = false;
   private TestCoverage coverage = new TestCoverage();
-  private TestCoverage coverageClone = null;
   private final long seed;
 
   public TestCase(long seed) {
@@ -46,6 +45,19 @@ public class TestCase {
     this.seed = seed;
   }
 
+  /**
+   * Creates a copy of the given test case, with the same identifier.
+   * See {@link #continueFrom(TestCase)} for the details of what is copied.
+   *
+   * @param from The test case to copy.
+   */
+  private TestCase(TestCase from) {
+    this.id = from.id;
+    this.seed = from.seed;
+    this.startTime = from.startTime;
+    continueFrom(from);
+  }
+
   /**
    * Restarts the test id from 1.
    */
@@ -150,7 +162,7 @@ public class TestCase {
    */
   public TestCaseStep addStep(FSMTransition transition) {
     TestCaseStep step = new TestCaseStep(this, transition, nextStepId++);
-    log.d("Added step:" + step);
+    log.d("Added step:{}", step);
     steps.add(step);
     currentStep = step;
     return step;
@@ -236,16 +248,54 @@ public class TestCase {
     return "TestCase:" + steps.toString();
   }
 
-  public void cloneCoverage() {
-    coverageClone = new TestCoverage();
-    coverageClone.addCoverage(coverage);
+  public long getSeed() {
+    return seed;
   }
-  
-  public void switchToClonedCoverage() {
-    coverage = coverageClone;
+
+  /**
+   * Creates a copy of this test case with the same identifier, steps and coverage.
+   * The step objects are shared with this test case, so the steps taken so far should not be modified any more.
+   *
+   * @return The copy.
+   */
+  public TestCase copy() {
+    return new TestCase(this);
   }
 
-  public long getSeed() {
-    return seed;
+  /**
+   * Creates a copy of this test case, continued with the steps of another test case from the given index onwards.
+   * The coverage is copied from the other test case, so the other test case needs to have covered the same elements
+   * up to the given index as this one. The step objects are shared with both test cases.
+   * Used by the explorer to reuse paths explored from an equal state.
+   *
+   * @param other The test case to take the following steps and coverage from.
+   * @param from Index of the first step to take from the other test case.
+   * @return The combined test case.
+   */
+  public TestCase withSuffix(TestCase other, int from) {
+    TestCase test = new TestCase(this);
+    List<TestCaseStep> suffix = other.steps.subList(from, other.steps.size());
+    test.steps.addAll(suffix);
+    if (suffix.size() > 0) test.currentStep = other.currentStep;
+    test.nextStepId = nextStepId + suffix.size();
+    test.failed = failed || other.failed;
+    test.coverage = other.coverage.cloneMe();
+    return test;
+  }
+
+  /**
+   * Continues this test case from where the given test case is, as if its steps had been generated in this one.
+   * The step objects are shared with the given test case, so the steps taken so far should not be modified any more.
+   * Used by the explorer to start new paths from a stored test prefix instead of re-generating the prefix.
+   *
+   * @param prefix The test case to continue from.
+   */
+  public void continueFrom(TestCase prefix) {
+    steps = new ArrayList<>(prefix.steps);
+    currentStep = prefix.currentStep;
+    nextStepId = prefix.nextStepId;
+    attributes = new LinkedHashMap<>(prefix.attributes);
+    failed = prefix.failed;
+    coverage = prefix.coverage.cloneMe();
   }
 }
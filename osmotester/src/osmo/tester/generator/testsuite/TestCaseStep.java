@@ -23,6 +23,8 @@ public class TestCaseStep {
   private static final Logger log = new Logger(TestCaseStep.class);
   /** The transition (step) that was taken in this test step. */
   private final String transitionName;
+  /** Interned identifier for the transition name. */
+  private final int stepId;
   /** The model object from which the transition (step) was executed. */
   private final String modelObjectName;
   /** Step identifier. */
@@ -48,6 +50,7 @@ public class TestCaseStep {
   public TestCaseStep(TestCase parent, FSMTransition transition, int id) {
     this.parent = parent;
     this.transitionName = transition.getStringName();
+    this.stepId = transition.getStepId();
     if (transition.getTransition() == null) {
       log.d("NULL transition object, assuming unit test in progress..");
       this.modelObjectName = transition.toString();
@@ -61,6 +64,11 @@ public class TestCaseStep {
     return id;
   }
 
+  /** @return The interned identifier of the step name, see {@link osmo.tester.coverage.CoverageIds#STEPS}. */
+  public int getStepId() {
+    return stepId;
+  }
+
   /**
    * The step name practically equals the transition name executed in this step (including prefix).
    * 
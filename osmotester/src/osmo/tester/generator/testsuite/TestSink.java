@@ -0,0 +1,18 @@
+package osmo.tester.generator.testsuite;
+
+/**
+ * Receives the test cases from the {@link TestSuite} as they are finished.
+ * For long running generation, the suite can be set to not keep the tests, in which case the sink is the only
+ * place the tests are passed to. The sink can then write them to a file, pass them to a queue, or just keep
+ * the ones it is interested in, while the suite itself only keeps the aggregate coverage.
+ *
+ * @author Teemu Kanstren
+ */
+public interface TestSink {
+  /**
+   * Called when a test case has been finished.
+   *
+   * @param test The finished test case.
+   */
+  public void add(TestCase test);
+}
@@ -1,6 +1,7 @@
 package osmo.tester.generator.testsuite;
 
 import osmo.common.log.Logger;
+import osmo.tester.coverage.CoverageIds;
 import osmo.tester.coverage.TestCoverage;
 import osmo.tester.model.FSM;
 import osmo.tester.model.FSMTransition;
@@ -8,8 +9,10 @@ import osmo.tester.model.Requirements;
 import osmo.tester.model.VariableField;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Describes the test suite being generated.
@@ -34,9 +37,26 @@ public class TestSuite {
   private boolean keepTests = true;
   /** Number of tests that have passed through. Even if tests are not kept. And note that parallel suites will differ.. */
   private int testCount = 0;
+  /** Number of steps in the finished tests, including those not kept. */
+  private int pastSteps = 0;
+  /** Number of steps in the finished tests that were kept. */
+  private int keptSteps = 0;
+  /** Number of times each step is taken in the suite, including the current test and the tests not kept. Index = step id. */
+  private int[] stepCounts = new int[16];
+  /** Receives the finished tests, null if none. */
+  private TestSink sink = null;
 
+  /**
+   * Creates a suite that continues from the given coverage, such as one from an earlier phase of exploration.
+   * The steps in the given coverage are counted as taken in this suite.
+   *
+   * @param coverage The coverage to start from.
+   */
   public TestSuite(TestCoverage coverage) {
     this.coverage = coverage;
+    for (Map.Entry<String, Integer> entry : coverage.getStepCoverage().entrySet()) {
+      countStep(CoverageIds.STEPS.idFor(entry.getKey()), entry.getValue());
+    }
   }
 
   public TestSuite() {
@@ -46,6 +66,24 @@ public class TestSuite {
     this.keepTests = keepTests;
   }
 
+  public boolean isKeepTests() {
+    return keepTests;
+  }
+
+  public TestSink getTestSink() {
+    return sink;
+  }
+
+  /**
+   * Sets the sink to pass the finished tests to. Together with not keeping the tests, this allows streaming
+   * the tests out while the memory use of the suite stays constant.
+   *
+   * @param sink The sink for finished tests, null for none.
+   */
+  public void setTestSink(TestSink sink) {
+    this.sink = sink;
+  }
+
   /**
    * Gives the number of the test case currently being generated.
    * 
@@ -62,19 +100,50 @@ public class TestSuite {
    * @return The test case object to use for generating new test case.
    */
   public TestCase startTest(long seed) {
+    //a test that was never ended is dropped
+    if (current != null) countSteps(current, -1);
     current = new TestCase(seed);
     current.setStartTime(System.currentTimeMillis());
     testCoverage = current.getCoverage();
     return current;
   }
 
+  /**
+   * Continues the current test case from where the given test case is.
+   * See {@link TestCase#continueFrom(TestCase)}.
+   *
+   * @param prefix The test case to continue from.
+   */
+  public void continueTest(TestCase prefix) {
+    countSteps(current, -1);
+    current.continueFrom(prefix);
+    countSteps(current, 1);
+    testCoverage = current.getCoverage();
+  }
+
+  private void countSteps(TestCase test, int delta) {
+    for (TestCaseStep step : test.getSteps()) {
+      countStep(step.getStepId(), delta);
+    }
+  }
+
+  private void countStep(int stepId, int delta) {
+    if (stepId >= stepCounts.length) stepCounts = Arrays.copyOf(stepCounts, Math.max(stepId + 1, stepCounts.length * 2));
+    stepCounts[stepId] += delta;
+  }
+
   /** End the current test case and moves it to the suite "history". */
   public void endTest() {
     testCount++;
     current.setEndTime(System.currentTimeMillis());
-    if (keepTests) testCases.add(current);
-    current = null;
+    pastSteps += current.getSteps().size();
+    if (keepTests) {
+      testCases.add(current);
+      keptSteps += current.getSteps().size();
+    }
     coverage.addCoverage(testCoverage);
+    if (sink != null) sink.add(current);
+    current = null;
   }
 
   /**
@@ -86,24 +155,28 @@ public class TestSuite {
   public TestCaseStep addStep(FSMTransition transition) {
     testCoverage.addStep(transition.getStringName());
     TestCaseStep step = current.addStep(transition);
+    countStep(step.getStepId(), 1);
     return step;
   }
 
   /**
-   * Counts the total number of tests in the test suite and the test case currently being generated.
+   * Counts the total number of steps in the test suite and the test case currently being generated.
+   * Includes the finished tests that were not kept.
    *
    * @return The total number of test steps in test suite.
    */
   public int totalSteps() {
-    int count = 0;
-    for (TestCase test : testCases) {
-      count += test.getSteps().size();
-    }
-    //current is null when suite is initialized but no tests are started
-    if (current != null) {
-      count += current.getSteps().size();
-    }
-    return count;
+    return pastSteps + currentSteps();
+  }
+
+  /**
+   * Counts the number of steps in the kept tests and the test case currently being generated.
+   * Same as {@link #totalSteps()} unless tests are not kept.
+   *
+   * @return The number of test steps in the kept tests and the current test.
+   */
+  public int keptSteps() {
+    return keptSteps + currentSteps();
   }
 
   /**
@@ -145,37 +218,26 @@ public class TestSuite {
 
   /**
    * Checks if the given transition is present in any of the previously generated test cases (history+current test case).
+   * Includes the finished tests that were not kept.
    *
    * @param transition The transition to check.
    * @return True if transition is present, false if not.
    */
   public boolean contains(FSMTransition transition) {
-    for (TestCase testCase : testCases) {
-      if (testContains(testCase, transition)) {
-        return true;
-      }
-    }
-    if (current != null && testContains(current, transition)) {
-      return true;
-    }
-    return false;
+    int stepId = transition.getStepId();
+    return stepId < stepCounts.length && stepCounts[stepId] > 0;
   }
 
   /**
-   * Checks if the given test case contains a step executing the given transition.
+   * Gives the number of times the given transition has been taken in the test suite (history+current test case).
+   * Includes the finished tests that were not kept.
    *
-   * @param testCase   The test case to check.
    * @param transition The transition to check.
-   * @return True if the given transition is found in the given test case, otherwise false.
-   */
-  private boolean testContains(TestCase testCase, FSMTransition transition) {
-    List<TestCaseStep> steps = testCase.getSteps();
-    for (TestCaseStep step : steps) {
-      if (step.getName().equals(transition.getStringName())) {
-        return true;
-      }
-    }
-    return false;
+   * @return The number of steps taking the transition.
+   */
+  public int stepCount(FSMTransition transition) {
+    int stepId = transition.getStepId();
+    return stepId < stepCounts.length ? stepCounts[stepId] : 0;
   }
 
   /**
@@ -228,11 +290,10 @@ public class TestSuite {
   public void storeGeneralState(FSM fsm) {
     Collection<VariableField> variables = fsm.getModelVariables();
     for (VariableField variable : variables) {
-      String name = variable.getName();
-      Object value = variable.getValue();
-      if (!variable.isSearchableInput()) {
-        addValue(name, "" + value);
-      }
+      if (variable.isSearchableInput()) continue;
+      int valueId = variable.getValueId();
+      testCoverage.addVariableValue(variable.getNameId(), valueId);
+      if (trackParameters) current.getCurrentStep().addValue(variable.getName(), CoverageIds.VALUES.nameFor(valueId));
     }
   }
 
@@ -408,6 +408,18 @@ public class ManualAlgorithm extends JFrame implements FSMTraversalAlgorithm {
     this.randomAlgorithm.init(seed, fsm);
     this.balancingAlgorithm.init(seed, fsm);
     this.weightedRandomAlgorithm.init(seed, fsm);
+    initModel(fsm);
+  }
+
+  @Override
+  public void init(long seed, FSM fsm, OSMOConfiguration config) {
+    this.randomAlgorithm.init(seed, fsm, config);
+    this.balancingAlgorithm.init(seed, fsm, config);
+    this.weightedRandomAlgorithm.init(seed, fsm, config);
+    initModel(fsm);
+  }
+
+  private void initModel(FSM fsm) {
     this.fsm = fsm;
     Collection<VariableField> variables = fsm.getModelVariables();
     for (VariableField variable : variables) {
@@ -4,6 +4,7 @@ import osmo.common.log.Logger;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,8 @@ public class FSM {
   private static final Logger log = new Logger(FSM.class);
   /** Key = transition name (from @TestStep("name")), Value = transition object */
   private Map<TransitionName, FSMTransition> transitions = new LinkedHashMap<>();
+  /** The transitions sorted by name, for deterministic generation. Created when first needed. */
+  private List<FSMTransition> sortedTransitions = null;
   /** List of specific guards, associated to groups or steps. */
   private List<FSMGuard> specificGuards = new ArrayList<>();
   /** List of generic guards that apply to all steps. */
@@ -49,6 +52,10 @@ public class FSM {
   private Collection<InvocationTarget> explorationEnablers = new ArrayList<>();
   /** List of method to invoke when entering generation mode. */
   private Collection<InvocationTarget> generationEnablers = new ArrayList<>();
+  /** List of methods to invoke to capture model object state. */
+  private List<InvocationTarget> snapshots = new ArrayList<>();
+  /** List of methods to invoke to restore captured model object state, in the same model object order as snapshots. */
+  private List<InvocationTarget> restores = new ArrayList<>();
   /** List of model variables to store for each test step. */
   private Collection<VariableField> modelVariables = new ArrayList<>();
   /** User defined requirements. */
@@ -84,6 +91,7 @@ public class FSM {
     transition = new FSMTransition(name);
     transition.setWeight(weight);
     transitions.put(name, transition);
+    sortedTransitions = null;
     log.d("Transition created");
     return transition;
   }
@@ -123,6 +131,8 @@ public class FSM {
         groupNames.add(groupName);
       }
     }
+    errors = bindGuardInputs(errors);
+    errors = checkSnapshots(errors);
     errors = checkGuards(specificGuards, errors, "@Guard");
     errors = checkGuards(negatedGuards, errors, "Negation");
     errors = checkGuards(specificPre, errors, "@Pre");
@@ -138,6 +148,45 @@ public class FSM {
     log.d("FSM checked");
   }
 
+  /**
+   * Binds the @Variable inputs declared for guards to the actual variable fields.
+   *
+   * @param errors Errors so far.
+   * @return The old and new errors.
+   */
+  private String bindGuardInputs(String errors) {
+    for (FSMTransition transition : transitions.values()) {
+      for (InvocationTarget guard : transition.getGuards()) {
+        errors += guard.bindInputs(modelVariables);
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Checks that each model object with a @Snapshot method also has a @Restore method, and the other way around.
+   * As the model objects are parsed in order, matching pairs are then at the same index in both lists.
+   *
+   * @param errors Errors so far.
+   * @return The old and new errors.
+   */
+  private String checkSnapshots(String errors) {
+    int count = Math.max(snapshots.size(), restores.size());
+    for (int i = 0 ; i < count ; i++) {
+      InvocationTarget snapshot = i < snapshots.size() ? snapshots.get(i) : null;
+      InvocationTarget restore = i < restores.size() ? restores.get(i) : null;
+      if (snapshot != null && restore != null && snapshot.getModelObject() == restore.getModelObject()) continue;
+      if (snapshot != null) {
+        errors += "@Snapshot without matching @Restore in:" + snapshot.getModelObject().getClass().getName() + ".\n";
+      } else {
+        errors += "@Restore without matching @Snapshot in:" + restore.getModelObject().getClass().getName() + ".\n";
+      }
+      //the rest would just be misaligned
+      break;
+    }
+    return errors;
+  }
+
   private String checkGuards(List<FSMGuard> guards, String errors, String errorMsg) {
     for (FSMGuard guard : guards) {
       if (guard.getCount() == 0) {
@@ -261,6 +310,20 @@ public class FSM {
     return transitions.values();
   }
 
+  /**
+   * Gives the transitions sorted by name. The list is created once and shared, so it should not be modified.
+   *
+   * @return All transitions sorted by their name.
+   */
+  public List<FSMTransition> getSortedTransitions() {
+    if (sortedTransitions == null) {
+      List<FSMTransition> sorted = new ArrayList<>(transitions.values());
+      Collections.sort(sorted);
+      sortedTransitions = Collections.unmodifiableList(sorted);
+    }
+    return sortedTransitions;
+  }
+
   public void addAfter(InvocationTarget target) {
     afterTests.add(target);
   }
@@ -413,6 +476,27 @@ public class FSM {
     return generationEnablers;
   }
 
+  public void addSnapshot(InvocationTarget target) {
+    snapshots.add(target);
+  }
+
+  public void addRestore(InvocationTarget target) {
+    restores.add(target);
+  }
+
+  public List<InvocationTarget> getSnapshots() {
+    return snapshots;
+  }
+
+  public List<InvocationTarget> getRestores() {
+    return restores;
+  }
+
+  /** @return True if the model objects define how to capture and restore their state. */
+  public boolean isSnapshotSupported() {
+    return snapshots.size() > 0;
+  }
+
   public void addCoverageMethod(CoverageMethod coverageMethod) {
     this.coverageValues.add(coverageMethod);
   }
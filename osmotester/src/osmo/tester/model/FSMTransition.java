@@ -1,6 +1,7 @@
 package osmo.tester.model;
 
 import osmo.common.log.Logger;
+import osmo.tester.coverage.CoverageIds;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +31,8 @@ public class FSMTransition implements Comparable<FSMTransition> {
   private final List<InvocationTarget> posts = new ArrayList<>();
   /** The group this transition belongs to, null or "" are considered as no group. */
   private TransitionName groupName;
+  /** Identifier of the step name in {@link CoverageIds#STEPS}, 0 until first asked. */
+  private int stepId = 0;
 
   /**
    * This is only used in testing.
@@ -132,6 +135,13 @@ public class FSMTransition implements Comparable<FSMTransition> {
     return name.toString();
   }
 
+  /** @return The interned identifier for the name of this step, see {@link CoverageIds#STEPS}. */
+  public int getStepId() {
+    //no need to synchronize, all threads get the same value
+    if (stepId == 0) stepId = CoverageIds.STEPS.idFor(getStringName());
+    return stepId;
+  }
+
   @Override
   public int compareTo(FSMTransition o) {
     return name.toString().compareTo(o.name.toString());
@@ -5,6 +5,8 @@ import osmo.common.log.Logger;
 import osmo.tester.parser.ParserParameters;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Objects;
 
 /**
  * A class used internally to represent a method to be invoked on a specific object.
@@ -21,12 +23,23 @@ public class InvocationTarget implements Comparable<InvocationTarget> {
   private final String type;
   /** Description of the method for GUI. */
   private String description = "";
+  /** The backend actually performing the invocation. */
+  private final Invoker invoker;
+  /** Names of the @Variable fields a guard declares to read. Empty if not declared. */
+  private String[] inputNames = new String[0];
+  /** The variables matching inputNames, once bound to the model. Null if not bound (always evaluate). */
+  private VariableField[] inputs = null;
+  /** The values of the inputs when the guard was last evaluated. */
+  private Object[] inputValues = null;
+  /** The result of last guard evaluation. */
+  private boolean lastResult = false;
 
   public InvocationTarget(ParserParameters parameters, Class type) {
     this.modelObject = parameters.getModel();
     this.method = parameters.getMethod();
     this.type = "@" + type.getName();
-    log.d("Found and created " + this.type + " method:" + method.getName());
+    this.invoker = parameters.getInvokerFactory().create(modelObject, method);
+    log.d("Found and created {} method:{}", this.type, method.getName());
   }
 
   /**
@@ -36,7 +49,7 @@ public class InvocationTarget implements Comparable<InvocationTarget> {
    */
   public Object invoke() {
     try {
-      return method.invoke(modelObject);
+      return invoker.invoke();
     } catch (Exception e) {
       throw new OSMOException("Failed to invoke " + type + " method on the model object.", e);
     }
@@ -50,12 +63,68 @@ public class InvocationTarget implements Comparable<InvocationTarget> {
    */
   public Object invoke(Object arg) {
     try {
-      return method.invoke(modelObject, arg);
+      return invoker.invoke(arg);
     } catch (Exception e) {
       throw new OSMOException("Failed to invoke " + type + " method on the model object.", e);
     }
   }
 
+  /**
+   * Evaluates this as a guard. If the guard has declared its inputs (@Variable fields it reads) and none of those
+   * have changed since the last evaluation, the previous result is returned without invoking the guard.
+   *
+   * @return The guard result.
+   */
+  public boolean invokeGuard() {
+    if (inputs == null) return (Boolean) invoke();
+    Object[] values = inputValues;
+    boolean changed = values == null;
+    if (changed) values = new Object[inputs.length];
+    for (int i = 0 ; i < inputs.length ; i++) {
+      Object value = inputs[i].getValue();
+      if (changed || !Objects.equals(value, values[i])) {
+        changed = true;
+        values[i] = value;
+      }
+    }
+    if (!changed) return lastResult;
+    //if the guard throws, we do not want a stale result to be used next time
+    inputValues = null;
+    lastResult = (Boolean) invoke();
+    inputValues = values;
+    return lastResult;
+  }
+
+  public void setInputNames(String[] inputNames) {
+    this.inputNames = inputNames;
+  }
+
+  /**
+   * Binds the declared input names for a guard to the matching variables in the same model object.
+   * Done only once, as the same guard object can be associated with several test steps.
+   *
+   * @param variables All the variables in the model.
+   * @return Errors for any input name not matching a variable.
+   */
+  public String bindInputs(Collection<VariableField> variables) {
+    if (inputNames.length == 0 || inputs != null) return "";
+    String errors = "";
+    VariableField[] found = new VariableField[inputNames.length];
+    for (int i = 0 ; i < inputNames.length ; i++) {
+      for (VariableField variable : variables) {
+        if (variable.getModelObject() == modelObject && variable.getName().equals(inputNames[i])) {
+          found[i] = variable;
+          break;
+        }
+      }
+      if (found[i] == null) {
+        errors += "Guard (\"" + method.getName() + "()\") reads unknown @Variable:" + inputNames[i] + ".\n";
+      }
+    }
+    if (errors.length() == 0) inputs = found;
+    return errors;
+  }
+
   public Object getModelObject() {
     return modelObject;
   }
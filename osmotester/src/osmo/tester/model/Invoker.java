@@ -0,0 +1,27 @@
+package osmo.tester.model;
+
+/**
+ * The backend used by an {@link InvocationTarget} to actually call the model method.
+ * Exceptions thrown by the model method itself are always reported wrapped in a
+ * {@link java.lang.reflect.InvocationTargetException}, regardless of the backend, so error handling stays the same.
+ *
+ * @author Teemu Kanstren
+ */
+public interface Invoker {
+  /**
+   * Call the method with no parameters.
+   *
+   * @return The return value from the invoked method.
+   * @throws Exception If the invocation fails.
+   */
+  public Object invoke() throws Exception;
+
+  /**
+   * Call the method with a single parameter.
+   *
+   * @param arg The argument to the method.
+   * @return The return value from the invoked method.
+   * @throws Exception If the invocation fails.
+   */
+  public Object invoke(Object arg) throws Exception;
+}
@@ -0,0 +1,20 @@
+package osmo.tester.model;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the {@link Invoker} objects that are used to call the model methods (guards, steps, pre/post, ...).
+ * Set in {@link osmo.tester.OSMOConfiguration} to choose the invocation backend.
+ *
+ * @author Teemu Kanstren
+ */
+public interface InvokerFactory {
+  /**
+   * Create an invoker for calling the given method on the given object.
+   *
+   * @param modelObject The object to invoke the method on.
+   * @param method The method to invoke.
+   * @return The invoker to use.
+   */
+  public Invoker create(Object modelObject, Method method);
+}
@@ -0,0 +1,89 @@
+package osmo.tester.model;
+
+import osmo.common.log.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes model methods through a {@link MethodHandle} bound to the model object.
+ * The handle is adapted once to a generic (Object)->Object signature so each call is a simple exact invocation,
+ * instead of going through the reflection access checks and argument array every time.
+ * As the handle is an instance field and not a static final constant, the JIT does not inline the target method
+ * through it, so the call still costs an indirect invocation.
+ * If a handle cannot be created for the method (e.g., access restrictions), falls back to reflection.
+ * <p>
+ * The argument count and type are checked before the invocation, and a mismatch gives an
+ * {@link IllegalArgumentException} as with reflection. Only exceptions thrown by the invoked method itself are
+ * wrapped in an {@link InvocationTargetException}.
+ *
+ * @author Teemu Kanstren
+ */
+public class MethodHandleInvoker implements Invoker {
+  private static final Logger log = new Logger(MethodHandleInvoker.class);
+  /** For creating method handle based invokers. */
+  public static final InvokerFactory FACTORY = MethodHandleInvoker::create;
+  /** The method handle, bound to the model object, to invoke. */
+  private final MethodHandle handle;
+  /** Number of parameters the method expects. */
+  private final int paramCount;
+  /** Type of the parameter, if the method has one. Primitive types are given as their wrappers. */
+  private final Class<?> paramType;
+  /** True if the parameter is of primitive type and so cannot be null. */
+  private final boolean primitive;
+
+  private MethodHandleInvoker(MethodHandle handle, Method method) {
+    this.handle = handle;
+    this.paramCount = method.getParameterCount();
+    Class<?> type = paramCount == 1 ? method.getParameterTypes()[0] : Object.class;
+    this.primitive = type.isPrimitive();
+    this.paramType = MethodType.methodType(type).wrap().returnType();
+  }
+
+  /**
+   * Creates the invoker, falling back to reflection if the method cannot be accessed through a method handle.
+   *
+   * @param modelObject The object to invoke the method on.
+   * @param method The method to invoke.
+   * @return The invoker.
+   */
+  public static Invoker create(Object modelObject, Method method) {
+    try {
+      //model classes are often not public (inner classes etc.), so we need to bypass the access checks
+      method.setAccessible(true);
+      int count = method.getParameterCount();
+      MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(modelObject);
+      handle = handle.asType(MethodType.genericMethodType(count));
+      return new MethodHandleInvoker(handle, method);
+    } catch (IllegalAccessException | RuntimeException e) {
+      log.d("Unable to create method handle for " + method + ", using reflection.", e);
+      return new ReflectionInvoker(modelObject, method);
+    }
+  }
+
+  @Override
+  public Object invoke() throws Exception {
+    if (paramCount != 0) throw new IllegalArgumentException("wrong number of arguments");
+    try {
+      return (Object) handle.invokeExact();
+    } catch (Throwable e) {
+      throw new InvocationTargetException(e);
+    }
+  }
+
+  @Override
+  public Object invoke(Object arg) throws Exception {
+    if (paramCount != 1) throw new IllegalArgumentException("wrong number of arguments");
+    if (arg == null ? primitive : !paramType.isInstance(arg)) {
+      throw new IllegalArgumentException("argument type mismatch, expected " + paramType.getName() + ", was " + (arg == null ? null : arg.getClass().getName()));
+    }
+    try {
+      return (Object) handle.invokeExact(arg);
+    } catch (Throwable e) {
+      throw new InvocationTargetException(e);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package osmo.tester.model;
+
+import java.lang.reflect.Method;
+
+/**
+ * Invokes model methods using plain Java reflection ({@link Method#invoke(Object, Object...)}).
+ * Works for any method that is accessible but goes through the reflection overhead on every call.
+ *
+ * @author Teemu Kanstren
+ */
+public class ReflectionInvoker implements Invoker {
+  /** For creating reflection based invokers. */
+  public static final InvokerFactory FACTORY = ReflectionInvoker::new;
+  /** The model object itself, implementing the actual method to be invoked. */
+  private final Object modelObject;
+  /** The method to be invoked on the model object. */
+  private final Method method;
+
+  public ReflectionInvoker(Object modelObject, Method method) {
+    this.modelObject = modelObject;
+    this.method = method;
+  }
+
+  @Override
+  public Object invoke() throws Exception {
+    return method.invoke(modelObject);
+  }
+
+  @Override
+  public Object invoke(Object arg) throws Exception {
+    return method.invoke(modelObject, arg);
+  }
+}
@@ -25,7 +25,7 @@ public class Requirements {
   private static final Logger log = new Logger(Requirements.class);
   /** The overall set of requirements that should be covered. */
   private List<String> reqs = new ArrayList<>();
-  /** The set of requirements that have been covered. */
+  /** The set of requirements that have been covered. A set without duplicates if the suite does not keep its tests. */
   private Collection<String> covered = new ArrayList<>();
   /** The set of generated tests cases, including the one currently under generation. */
   private TestSuite testSuite = null;
@@ -36,6 +36,9 @@ public class Requirements {
   public void setTestSuite(TestSuite testSuite) {
     log.d("Setting test suite:" + testSuite);
     this.testSuite = testSuite;
+    //when tests are not kept, generation can run for long and keeping the duplicates would grow without bounds
+    if (!testSuite.isKeepTests() || testSuite.getTestSink() != null) covered = new LinkedHashSet<>();
+    else covered = new ArrayList<>();
     fillCoverage(testSuite.getCoverage());
   }
   
@@ -44,6 +47,17 @@ public class Requirements {
     covered.addAll(tc.getRequirements());
   }
 
+  /**
+   * Adds the requirements from the given coverage to the covered ones, if not already there.
+   * 
+   * @param tc The coverage to add.
+   */
+  public void addCoverage(TestCoverage tc) {
+    for (String requirement : tc.getRequirements()) {
+      if (!covered.contains(requirement)) covered.add(requirement);
+    }
+  }
+
   /**
    * Adds a new requirement that should be covered.
    *
@@ -109,6 +123,7 @@ public class Requirements {
 
   /**
    * Gives the list of covered requirements defined with the "covered" method. Keeps duplicates and order.
+   * If the test suite does not keep its tests, or streams them to a sink, duplicates are not kept.
    *
    * @return List of covered requirements.
    */
@@ -13,10 +13,13 @@ public class TransitionName {
   private final String prefix;
   /** The actual name given in the model class. */
   private final String name;
+  /** The prefix and name together, created once as this is asked for every step taken. */
+  private final String fullName;
 
   public TransitionName(String prefix, String name) {
     this.prefix = prefix;
     this.name = name;
+    this.fullName = prefix + name;
   }
 
   public int length() {
@@ -25,7 +28,7 @@ public class TransitionName {
 
   @Override
   public String toString() {
-    return prefix + name;
+    return fullName;
   }
 
   @Override
@@ -1,12 +1,22 @@
 package osmo.tester.model;
 
 import osmo.common.log.Logger;
+import osmo.tester.coverage.CoverageIds;
 import osmo.tester.model.data.SearchableInput;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Represents a field for a state variable in the model as tagged by {@link osmo.tester.annotation.Variable} annotation.
+ * The state is read after every test step, so the accessor for the field is resolved once as a method handle,
+ * and the values of immutable types (strings, boxed primitives, enums) are mapped to their interned identifiers
+ * without turning them into strings again each time.
  *
  * @author Teemu Kanstren
  */
@@ -20,6 +30,18 @@ public class VariableField {
   private final String name;
   /** If the variable object implements the {@link VariableValue} interface, we store it here for faster access. */
   private VariableValue variable = null;
+  /** For reading the field value, null if not available in which case reflection is used. */
+  private final MethodHandle getter;
+  /** True if the variable is a {@link SearchableInput}, which are tracked separately from the model state. */
+  private final boolean searchableInput;
+  /** Identifier of the name in {@link CoverageIds#VARIABLES}. */
+  private final int nameId;
+  /** Maximum number of values to keep in {@link #valueIds}, after which new values are converted each time. */
+  private static final int MAX_CACHED_VALUES = 1024;
+  /** Key = immutable value observed, Value = its identifier in {@link CoverageIds#VALUES}. */
+  private final Map<Object, Integer> valueIds = new HashMap<>();
+  /** The {@link CoverageIds#getGeneration()} of the identifiers in {@link #valueIds}. */
+  private int valueIdsGeneration = CoverageIds.VALUES.getGeneration();
 
   public VariableField(Object modelObject, Field field, String name) {
     this.modelObject = modelObject;
@@ -29,8 +51,32 @@ public class VariableField {
       name = field.getName();
     }
     this.name = name;
+    this.nameId = CoverageIds.VARIABLES.idFor(name);
     ///check only once here to avoid overhead of repeating it on every access
     checkIfVariableValue();
+    this.getter = createGetter(modelObject, field);
+    this.searchableInput = SearchableInput.class.isAssignableFrom(field.getType()) || readField() instanceof SearchableInput;
+  }
+
+  private static MethodHandle createGetter(Object modelObject, Field field) {
+    try {
+      field.setAccessible(true);
+      MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+      if (!Modifier.isStatic(field.getModifiers())) handle = handle.bindTo(modelObject);
+      return handle.asType(MethodType.genericMethodType(0));
+    } catch (IllegalAccessException | RuntimeException e) {
+      log.d("Unable to create method handle for " + field + ", using reflection.", e);
+      return null;
+    }
+  }
+
+  private Object readField() {
+    try {
+      if (getter != null) return (Object) getter.invokeExact();
+      return field.get(modelObject);
+    } catch (Throwable e) {
+      throw new RuntimeException("Failed to read state variable value for field:" + field, e);
+    }
   }
 
   /**
@@ -61,6 +107,10 @@ public class VariableField {
     }
   }
 
+  public Object getModelObject() {
+    return modelObject;
+  }
+
   /**
    * Field name as read from the class object.
    *
@@ -82,19 +132,56 @@ public class VariableField {
     if (variable != null) {
       return variable.value();
     }
-    try {
-      return field.get(modelObject);
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException("Failed to read state variable value for field:" + field, e);
+    return readField();
+  }
+
+  /** @return Identifier of the variable name in {@link CoverageIds#VARIABLES}. */
+  public int getNameId() {
+    return nameId;
+  }
+
+  /**
+   * Gives the current value of this field as an identifier in {@link CoverageIds#VALUES}.
+   * The identifier is for the string representation of the value, same as for ("" + {@link #getValue()}).
+   * For immutable value types, the string is only created the first time a value is seen.
+   *
+   * @return The value identifier.
+   */
+  public int getValueId() {
+    Object value = getValue();
+    if (!isImmutable(value)) return CoverageIds.VALUES.idFor("" + value);
+    int generation = CoverageIds.VALUES.getGeneration();
+    if (generation != valueIdsGeneration) {
+      //the identifiers have been cleared since they were cached
+      valueIds.clear();
+      valueIdsGeneration = generation;
+    }
+    Integer id = valueIds.get(value);
+    if (id == null) {
+      id = CoverageIds.VALUES.idFor("" + value);
+      if (valueIds.size() < MAX_CACHED_VALUES) valueIds.put(value, id);
     }
+    return id;
   }
-  
+
+  /**
+   * Checks if the string representation of the given value can be assumed to stay the same when equal.
+   * Null is not accepted to keep the map simple, as it is a single value anyway.
+   */
+  private static boolean isImmutable(Object value) {
+    return value instanceof String || value instanceof Integer || value instanceof Long || value instanceof Boolean ||
+            value instanceof Enum || value instanceof Double || value instanceof Float || value instanceof Character ||
+            value instanceof Short || value instanceof Byte;
+  }
+
+  /**
+   * Checks if this is a {@link SearchableInput}, which are tracked separately from the model state.
+   * This is checked once when the model is parsed, from the field type and the value at that time.
+   *
+   * @return True if a searchable input.
+   */
   public boolean isSearchableInput() {
-    try {
-      return (field.get(modelObject) instanceof SearchableInput);
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException("Failed to read state variable value for field:" + field, e);
-    }
+    return searchableInput;
   }
   
   @Override
@@ -1,5 +1,6 @@
 package osmo.tester.model.data;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -13,9 +14,13 @@ import java.util.List;
  */
 public class Boundary {
   /** The set of values to be provided, initialized and startup on call to init() */
-  private ValueSet<Number> validValues = new ValueSet<>();
+  private final List<Number> validValues = new ArrayList<>();
   /** The set of values to be provided, initialized and startup on call to init() */
-  private ValueSet<Number> invalidValues = new ValueSet<>();
+  private final List<Number> invalidValues = new ArrayList<>();
+  /** Index of next valid value to provide. */
+  private int validIndex = 0;
+  /** Index of next invalid value to provide. */
+  private int invalidIndex = 0;
   /** How many values will be generated for each boundary. */
   private int count = 5;
   /** The value by which the boundary is incremented / decremented in the scan. */
@@ -31,9 +36,6 @@ public class Boundary {
     this.type = type;
     this.min = min;
     this.max = max;
-    //the actual numbers should not matter as we use no randomization from these
-    validValues.setSeed(1);
-    invalidValues.setSeed(1);
   }
 
   public int getCount() {
@@ -109,9 +111,9 @@ public class Boundary {
    */
   public List<Number> getOptions(boolean in) {
     if (!in) {
-      return invalidValues.getOptions();
+      return invalidValues;
     }
-    return validValues.getOptions();
+    return validValues;
   }
 
   /** 
@@ -125,7 +127,8 @@ public class Boundary {
     if (validValues.size() == 0) {
       init();
     }
-    return validValues.loop();
+    if (validIndex >= validValues.size()) validIndex = 0;
+    return validValues.get(validIndex++);
   }
 
   /**
@@ -139,6 +142,8 @@ public class Boundary {
     if (validValues.size() == 0) {
       init();
     }
-    return invalidValues.loop();
+    if (invalidValues.isEmpty()) throw new IllegalStateException("No invalid boundary values with count " + count + ".");
+    if (invalidIndex >= invalidValues.size()) invalidIndex = 0;
+    return invalidValues.get(invalidIndex++);
   }
 }
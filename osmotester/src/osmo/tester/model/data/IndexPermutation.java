@@ -0,0 +1,82 @@
+package osmo.tester.model.data;
+
+/**
+ * A seeded random permutation of the index range [0, n), calculated one index at a time.
+ * Used for balanced data generation, where each value in a range should be provided once before any is repeated.
+ * Instead of creating and shuffling a list of all the values, the permutation is calculated with a Feistel network
+ * over the smallest even number of bits that covers n. Indices that map outside the range are mapped again
+ * ("cycle walking") until they fall inside the range, which takes on average less than four rounds.
+ * So the memory use is constant regardless of n.
+ *
+ * @author Teemu Kanstren
+ */
+public class IndexPermutation {
+  /** Number of rounds in the Feistel network. */
+  private static final int ROUNDS = 4;
+  /** Size of the index range. */
+  private final long size;
+  /** Number of bits in each half of the Feistel network input. */
+  private final int halfBits;
+  /** Mask for the bits in a half. */
+  private final long mask;
+  /** Keys for the rounds of the network. */
+  private final long[] keys = new long[ROUNDS];
+
+  /**
+   * @param size Size of the index range.
+   * @param seed Seed for the permutation, same seed gives the same permutation.
+   */
+  public IndexPermutation(long size, long seed) {
+    if (size <= 0) throw new IllegalArgumentException("Permutation size must be > 0, was " + size + ".");
+    this.size = size;
+    int bits = 64 - Long.numberOfLeadingZeros(size - 1);
+    if (bits < 2) bits = 2;
+    if (bits % 2 == 1) bits++;
+    halfBits = bits / 2;
+    mask = halfBits == 32 ? 0xFFFFFFFFL : (1L << halfBits) - 1;
+    for (int i = 0 ; i < ROUNDS ; i++) {
+      keys[i] = mix(seed + (i + 1) * 0x9E3779B97F4A7C15L);
+    }
+  }
+
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @param index Index in the range [0, size).
+   * @return The index in the permutation for the given index, also in the range [0, size).
+   */
+  public long get(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index must be in range [0, " + size + "), was " + index + ".");
+    }
+    long result = index;
+    do {
+      result = encrypt(result);
+    } while (Long.compareUnsigned(result, size) >= 0);
+    return result;
+  }
+
+  /**
+   * @param value The value to permute, within the bits of the network.
+   * @return The permuted value, within the bits of the network.
+   */
+  private long encrypt(long value) {
+    long left = value >>> halfBits;
+    long right = value & mask;
+    for (long key : keys) {
+      long next = left ^ (mix(right ^ key) & mask);
+      left = right;
+      right = next;
+    }
+    return (left << halfBits) | right;
+  }
+
+  /** The splitmix64 finalizer, to make the round outputs look random. */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
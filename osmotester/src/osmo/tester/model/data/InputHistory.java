@@ -0,0 +1,162 @@
+package osmo.tester.model.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History of values generated by a data object ({@link SearchableInput}).
+ * What values are kept depends on the retention:
+ * - {@link #full()} keeps all values, which grows for the lifetime of the data object.
+ * - {@link #last(int)} keeps the given number of latest values in a ring buffer.
+ * - {@link #countsOnly()} keeps no values, only the counts.
+ * <p>
+ * The total number of generated values is always counted. The number of times each distinct value has been generated
+ * is only counted if the data object has a bounded set of values, such as {@link ValueSet}, which enables it with
+ * {@link #countValues()}. This allows the balancing strategies to work from the counts alone.
+ * For unbounded data objects such as {@link Text} or {@link ValueRange} of long or double, no per-value counts are
+ * kept as they would grow with every new value. So for those, {@link #countsOnly()} keeps only the total and
+ * {@link #last(int)} keeps only the latest values.
+ * <p>
+ * With long online runs, such as when using a single model instance for all tests, the full history can take a lot
+ * of memory over time. In such cases, one of the bounded versions should be used.
+ *
+ * @author Teemu Kanstren
+ * @param <T> Type of the values.
+ */
+public class InputHistory<T> {
+  /** Max number of values to keep, -1 for all. */
+  private final int limit;
+  /** The kept values. A ring buffer if there is a limit. */
+  private Object[] values;
+  /** Index of the oldest value in {@link #values}. */
+  private int start = 0;
+  /** Number of values in {@link #values}. */
+  private int size = 0;
+  /** Key = generated value, value = number of times generated (first item in array). Null if not counted. */
+  private Map<T, int[]> counts = null;
+  /** Total number of values generated. */
+  private long total = 0;
+
+  private InputHistory(int limit) {
+    this.limit = limit;
+    values = new Object[limit < 0 ? 16 : limit];
+  }
+
+  /** @return History that keeps all generated values. */
+  public static <T> InputHistory<T> full() {
+    return new InputHistory<>(-1);
+  }
+
+  /**
+   * @param n Number of latest values to keep.
+   * @return History that keeps only the given number of latest generated values.
+   */
+  public static <T> InputHistory<T> last(int n) {
+    if (n <= 0) throw new IllegalArgumentException("Number of values to keep must be > 0, was " + n + ".");
+    return new InputHistory<>(n);
+  }
+
+  /** @return History that keeps only the number of times each value was generated. */
+  public static <T> InputHistory<T> countsOnly() {
+    return new InputHistory<>(0);
+  }
+
+  /**
+   * Enables counting the number of times each distinct value is generated, from this point on.
+   * The counts are kept for every distinct value, so this should only be used by data objects with a bounded set
+   * of values.
+   */
+  public void countValues() {
+    if (counts == null) counts = new HashMap<>();
+  }
+
+  /** @return True if the number of times each distinct value is generated is counted. */
+  public boolean isCountingValues() {
+    return counts != null;
+  }
+
+  /**
+   * Records a new generated value.
+   *
+   * @param value The generated value.
+   */
+  public void add(T value) {
+    total++;
+    if (counts != null) {
+      int[] count = counts.get(value);
+      if (count == null) {
+        count = new int[1];
+        counts.put(value, count);
+      }
+      count[0]++;
+    }
+    if (limit == 0) return;
+    if (limit < 0) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+      return;
+    }
+    if (size < limit) {
+      values[(start + size++) % limit] = value;
+    } else {
+      //buffer is full, overwrite the oldest
+      values[start] = value;
+      start = (start + 1) % limit;
+    }
+  }
+
+  /**
+   * @param value The value to check.
+   * @return Number of times the value has been generated.
+   * @throws IllegalStateException If the values are not counted, see {@link #countValues()}.
+   */
+  public int count(T value) {
+    checkCounted();
+    int[] count = counts.get(value);
+    return count == null ? 0 : count[0];
+  }
+
+  /** @return Total number of values generated. */
+  public long total() {
+    return total;
+  }
+
+  /**
+   * @return Number of different values generated.
+   * @throws IllegalStateException If the values are not counted, see {@link #countValues()}.
+   */
+  public int distinct() {
+    checkCounted();
+    return counts.size();
+  }
+
+  private void checkCounted() {
+    if (counts == null) {
+      throw new IllegalStateException("Values are not counted in this history, only for data objects with a bounded set of values.");
+    }
+  }
+
+  /** @return The kept values, from oldest to latest. */
+  public List<T> values() {
+    if (size == 0) return Collections.emptyList();
+    List<T> result = new ArrayList<>(size);
+    int capacity = limit < 0 ? values.length : limit;
+    for (int i = 0 ; i < size ; i++) {
+      result.add((T) values[(start + i) % capacity]);
+    }
+    return result;
+  }
+
+  /** Removes all values and counts. */
+  public void clear() {
+    if (counts != null) counts.clear();
+    total = 0;
+    start = 0;
+    size = 0;
+    Arrays.fill(values, null);
+  }
+}
@@ -30,6 +30,8 @@ public abstract class SearchableInput<T> implements VariableValue<T> {
   private boolean stored = false;
   /** Provides for instance specific randomization. */
   protected Randomizer rand = null;
+  /** History of generated values, null if not kept. */
+  protected InputHistory<T> history = null;
 
   protected SearchableInput() {
   }
@@ -71,6 +73,22 @@ public abstract class SearchableInput<T> implements VariableValue<T> {
     return name;
   }
 
+  /**
+   * Sets how the history of generated values is kept. For example, {@link InputHistory#last(int)} can be used to
+   * avoid the history growing for the lifetime of this object. Values are counted per value only by data objects
+   * with a bounded set of values, see {@link InputHistory}.
+   *
+   * @param history The new history, null to not keep history.
+   */
+  public void setHistory(InputHistory<T> history) {
+    this.history = history;
+  }
+
+  /** @return The history of generated values, null if not kept. */
+  public InputHistory<T> getInputHistory() {
+    return history;
+  }
+
   /**
    * Records the given value into test generation history, including current test and step.
    * 
@@ -78,6 +96,7 @@ public abstract class SearchableInput<T> implements VariableValue<T> {
    */
   public void record(T value) {
     latestValue = value;
+    if (history != null) history.add(value);
     if (name == null) {
       return;
     }
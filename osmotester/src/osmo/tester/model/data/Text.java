@@ -3,8 +3,8 @@ package osmo.tester.model.data;
 import osmo.common.log.Logger;
 import osmo.tester.gui.manualdrive.TextGUI;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * For generating strings of characters matching the given specification.
@@ -19,8 +19,6 @@ public class Text extends SearchableInput<String> {
   private int max = 10;
   /** Used to create valid characters for text. */
   private final CharSet chars = new CharSet();
-  /** History of generated text for this object. */
-  private Collection<String> history = new ArrayList<>();
   /** Produce words of invalid length? Invalid is what we call length outside configured bounds.. */
   private boolean invalid = false;
   /** Length of previously generated value. Used to track upper/lower bounds violations when generating invalid data. */
@@ -41,6 +39,7 @@ public class Text extends SearchableInput<String> {
 
   /** Constructor for default values. */
   public Text() {
+    history = InputHistory.full();
   }
 
   /**
@@ -48,6 +47,7 @@ public class Text extends SearchableInput<String> {
    * @param max The maximum length.
    */
   public Text(int min, int max) {
+    this();
     this.min = min;
     this.max = max;
     checkMinMax(min, max);
@@ -153,7 +153,6 @@ public class Text extends SearchableInput<String> {
       c[i] = chars.random();
     }
     String next = new String(c);
-    history.add(next);
     record(next);
     return next;
   }
@@ -178,7 +177,6 @@ public class Text extends SearchableInput<String> {
       }
     }
     String next = new String(c);
-    history.add(next);
     record(next);
     return next;
   }
@@ -209,12 +207,13 @@ public class Text extends SearchableInput<String> {
   }
 
   /**
-   * Gives the list of previously generated texts.
+   * Gives the list of previously generated texts, as kept by the history set for this object.
    * 
    * @return The generation history.
    */
   public Collection<String> getHistory() {
-    return history;
+    if (history == null) return Collections.emptyList();
+    return history.values();
   }
 
   @Override
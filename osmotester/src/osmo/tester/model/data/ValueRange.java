@@ -6,7 +6,6 @@ import osmo.tester.gui.manualdrive.ValueRangeGUI;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Defines a value range with a minimum and maximum values. Generates input from this range, including min and max.
@@ -41,10 +40,10 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
   private Number max;
   /** Amount to increment with if using ordered loop data generation strategy. */
   private Number increment = 1;
-  /** Keeps a history of all the data values created as input from this value range. */
-  protected List<Number> history = new ArrayList<>();
-  /** Balancing strategy selection set. */
-  protected ValueSet<T> balancingChoices = new ValueSet<>();
+  /** Order of values for the balancing strategy, a new one for each pass over the range. */
+  private IndexPermutation balancingOrder = null;
+  /** Number of values provided from the current balancing order. */
+  private long balancingIndex = 0;
   /** The actual type of data to be generated. */
   private DataType type;
   /** Handles boundary scan data generation strategy. */
@@ -59,6 +58,7 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
    * @param max  Maximum value of the range.
    */
   public ValueRange(Class<T> type, Number min, Number max) {
+    init();
     this.min = min;
     this.max = max;
 
@@ -78,6 +78,7 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
    * @param max Maximum value of the range.
    */
   public ValueRange(Number min, Number max) {
+    init();
     this.min = min;
     this.max = max;
 
@@ -91,10 +92,8 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
     boundary = new Boundary(this.type, min, max);
   }
 
-  @Override
-  public void setSeed(long seed) {
-    super.setSeed(seed);
-    balancingChoices.setSeed(seed);
+  private void init() {
+    history = InputHistory.full();
   }
 
   private void setType(DataType type) {
@@ -109,6 +108,7 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
   /** @param increment The value to increment with for ordered loops. */
   public void setIncrement(Number increment) {
     this.increment = increment;
+    balancingOrder = null;
     boundary.setIncrement(increment);
   }
 
@@ -122,6 +122,7 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
 
   public void setMin(Number min) {
     this.min = min;
+    balancingOrder = null;
   }
 
   public Number max() {
@@ -130,10 +131,13 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
 
   public void setMax(Number max) {
     this.max = max;
+    balancingOrder = null;
   }
 
+  /** @return The generated values, as kept by the history set for this object. */
   public Collection<Number> getHistory() {
-    return history;
+    if (history == null) return new ArrayList<>();
+    return new ArrayList<>(history.values());
   }
 
   private void pre() {
@@ -146,7 +150,6 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
   }
   
   private void post() {
-    history.add(choice);
     record((T) choice);
     log.d("Value:" + choice);
   }
@@ -159,11 +162,9 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
   public T loop() {
     pre();
     if (choice == null) {
-      Number last = min;
-      if (!history.isEmpty()) {
-        //get the previous value
-        last = history.get(history.size() - 1);
-      } else {
+      //the previous value
+      Number last = getLatestValue();
+      if (last == null) {
         choice = min;
         post();
         return (T)choice;
@@ -190,21 +191,73 @@ public class ValueRange<T extends Number> extends SearchableInput<T> {
   }
 
   /**
-   * Create next value for the balancing strategy. Note that this creates a list of all options so really large
-   * sets on possible input will eat big memory.
+   * Create next value for the balancing strategy.
+   * Every value in the range (from min to max with the increment) is provided once in random order,
+   * before any value is provided again. The order is calculated one value at a time, so the size of the range
+   * does not affect memory use.
    *
    * @return A new value in this range.
    */
   public T balanced() {
     pre();
     if (choice == null) {
-      if (balancingChoices.size() == 0) balancingChoices.addAll(getOptions());
-      choice = balancingChoices.removeRandom();
+      if (balancingOrder == null || balancingIndex >= balancingOrder.size()) {
+        //each pass over the range gets a new order
+        balancingOrder = new IndexPermutation(optionCount(), rand.nextLong());
+        balancingIndex = 0;
+      }
+      choice = valueAt(balancingOrder.get(balancingIndex++));
     }
     post();
     return (T)choice;
   }
 
+  /** @return Number of values in the range, from min to max with the increment. */
+  private long optionCount() {
+    long count;
+    switch (type) {
+      case INT:
+      case LONG:
+        long inc = increment.longValue();
+        if (inc <= 0) throw new IllegalStateException("Increment must be > 0 for balancing, was " + increment + ".");
+        long span;
+        try {
+          span = Math.subtractExact(max.longValue(), min.longValue());
+        } catch (ArithmeticException e) {
+          throw new IllegalStateException("Range is too big for balancing:" + min + "-" + max);
+        }
+        count = span / inc + 1;
+        break;
+      case DOUBLE:
+        double dinc = increment.doubleValue();
+        if (dinc <= 0) throw new IllegalStateException("Increment must be > 0 for balancing, was " + increment + ".");
+        //small extra to avoid losing the max value to rounding errors
+        count = (long) Math.floor((max.doubleValue() - min.doubleValue()) / dinc + 1e-9) + 1;
+        break;
+      default:
+        throw new IllegalArgumentException("Enum type:" + type + " unsupported.");
+    }
+    if (count <= 0) throw new IllegalStateException("No values in range:" + min + "-" + max);
+    return count;
+  }
+
+  /**
+   * @param index Index of the value in the range.
+   * @return The value at given index, counting from min with the increment.
+   */
+  private Number valueAt(long index) {
+    switch (type) {
+      case INT:
+        return (int) (min.longValue() + index * increment.longValue());
+      case LONG:
+        return min.longValue() + index * increment.longValue();
+      case DOUBLE:
+        return min.doubleValue() + index * increment.doubleValue();
+      default:
+        throw new IllegalArgumentException("Enum type:" + type + " unsupported.");
+    }
+  }
+
   public T random() {
     pre();
     if (choice == null) {
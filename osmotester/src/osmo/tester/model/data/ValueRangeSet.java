@@ -4,6 +4,7 @@ import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.gui.manualdrive.ValueRangeSetGUI;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 /**
@@ -31,6 +32,8 @@ public class ValueRangeSet<T extends Number> extends SearchableInput<T> {
   public static final int LOOP = 3;
 
   public ValueRangeSet() {
+    //balancing over partitions only needs the counts
+    partitions.setHistory(InputHistory.countsOnly());
   }
 
   @Override
@@ -61,10 +64,12 @@ public class ValueRangeSet<T extends Number> extends SearchableInput<T> {
    * @param increment Increment for value range partitions.
    */
   public void setIncrement(Number increment) {
-    Collection<ValueRange<T>> all = partitions.getOptions();
+    Collection<ValueRange<T>> all = new ArrayList<>(partitions.getOptions());
     for (ValueRange range : all) {
       range.setIncrement(increment);
     }
+    //the increment is part of the identity of a partition, so they need to be indexed again
+    partitions.setOptions(all);
   }
 
   /**
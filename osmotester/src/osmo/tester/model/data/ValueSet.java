@@ -4,33 +4,65 @@ import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.gui.manualdrive.ValueSetGUI;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Represents a set of values (objects) of the given type.
  * Input generation picks one of these objects according to the used query function.
+ * <p>
+ * The options are indexed by value, and the free and reserved options are kept in separate lists where an option
+ * is removed by moving the last one in its place. So adding, removing, reserving, freeing, and checking for options
+ * take constant time, as does picking a random one if no weights are used. Weights are stored as counts for each
+ * option instead of adding the option several times.
+ * <p>
+ * Since an option is removed from the free and reserved lists by moving the last one in its place, the order of
+ * these lists changes when options are reserved and freed. Random choices index these lists, so they are not in the
+ * order the options were added, and the values chosen for a seed depend on the earlier reservations.
  *
  * @author Teemu Kanstren
  * @param <T> Type of values to generate. Integer, Long or Double.
  */
 public class ValueSet<T> extends SearchableInput<T> {
   private static final Logger log = new Logger(ValueSet.class);
-  /** The options for data generation and evaluation. */
-  private List<T> options = new ArrayList<>();
-  /** Options that have been reserved. These will not be returned by reserveXX() methods. */
-  private List<T> reserved = new ArrayList<>();
+  /** Identifies the list of all options. */
+  private static final int OPTIONS = 1;
+  /** Identifies the list of free options. */
+  private static final int FREE = 2;
+  /** Identifies the list of reserved options. */
+  private static final int RESERVED = 3;
+  /** Key = option value, value = the indexed option. */
+  private final Map<T, Option<T>> index = new HashMap<>();
+  /** All the options. */
+  private final List<Option<T>> options = new ArrayList<>();
   /** Options still available for reserving. */
-  private List<T> free = new ArrayList<>();
-  /** Index for ordered loop. Using this instead of iterator to allow modification of options in runtime. */
-  private int next = 0;
-  private T choice = null;
-  /** The history of chosen values for this ValueSet. */
-  private Collection<T> history = new ArrayList<>();
+  private final List<Option<T>> free = new ArrayList<>();
+  /** Options that have been reserved. These will not be returned by reserveXX() methods. */
+  private final List<Option<T>> reserved = new ArrayList<>();
+  /** Sum of weights for all options. */
+  private int weight = 0;
+  /** Sum of weights for free options. */
+  private int freeWeight = 0;
+  /** Sum of weights for reserved options. */
+  private int reservedWeight = 0;
+  /** First option in the order they were added, for ordered loop. */
+  private Option<T> first = null;
+  /** Last option in the order they were added. */
+  private Option<T> last = null;
+  /** The option given last by ordered loop, null to start from first. */
+  private Option<T> looped = null;
+  /** Round of ordered loop, options with a weight smaller than this are skipped. */
+  private int loopRound = 1;
+  /** The value chosen in the current generation call. */
+  protected T choice = null;
+  /** Candidates for balanced choice, kept to avoid creating a new list for each choice. */
+  private final List<Option<T>> candidates = new ArrayList<>();
+  /** Incremented on every change to the options, so the views know when their position is no longer valid. */
+  private int changes = 0;
 
   /** Constructor for when no initial options are provided. Options need to be added later with addOption(). */
   public ValueSet() {
@@ -51,26 +83,40 @@ public class ValueSet<T> extends SearchableInput<T> {
   }
 
   private void init() {
+    setHistory(InputHistory.full());
+  }
+
+  /**
+   * Also enables counting each value in the given history, as the balancing strategy uses the counts and the
+   * number of options is bounded.
+   *
+   * @param history The new history, null to not keep history.
+   */
+  @Override
+  public void setHistory(InputHistory<T> history) {
+    if (history != null) history.countValues();
+    super.setHistory(history);
   }
 
   /**
    * Adds a new value to the set as potential input and accepted output (evaluation parameter).
+   * If the value already exists, its weight is increased by one.
    *
    * @param option The object to be added.
    */
   public void add(T option) {
-    options.add(option);
-    free.add(option);
+    add(option, 1);
   }
 
   /**
    * Add all values in the given collection as potential input/output.
-   * 
+   *
    * @param options The options to add.
    */
   public void addAll(Collection<T> options) {
-    this.options.addAll(options);
-    free.addAll(options);
+    for (T option : options) {
+      add(option, 1);
+    }
   }
 
   /**
@@ -79,39 +125,107 @@ public class ValueSet<T> extends SearchableInput<T> {
    * ones added with the non-weighted add() method only have one instance. For example, add("teemu");add("bob",6)
    * results in "teemu" being provided once and "bob" six times with looping strategy. With random strategy,
    * "bob" will just have 6 times higher probability to appear. Just as if add("bob") had been called six times.
-   * NOTE: this can mess up the reservation system as it reserves only one of these values.
+   * NOTE: the reservation system reserves and frees an option with all its weight.
    *
    * @param option The object to be added.
-   * @param weight The weight of the option, resulting in this many calls to add().
+   * @param weight The weight of the option, added to any existing weight.
    */
   public void add(T option, int weight) {
-    for (int i = 0 ; i < weight ; i++) {
-      options.add(option);
-      free.add(option);
+    if (weight <= 0) return;
+    changes++;
+    Option<T> o = index.get(option);
+    if (o == null) {
+      o = new Option<>(option);
+      index.put(option, o);
+      o.optionIndex = options.size();
+      options.add(o);
+      o.freeIndex = free.size();
+      free.add(o);
+      o.prev = last;
+      if (last == null) first = o;
+      else last.next = o;
+      last = o;
     }
+    o.weight += weight;
+    changeWeight(o, weight);
+  }
+
+  /**
+   * Updates the sums of weights.
+   *
+   * @param o The option whose weight was changed.
+   * @param delta The amount of change.
+   */
+  private void changeWeight(Option<T> o, int delta) {
+    weight += delta;
+    if (o.freeIndex >= 0) freeWeight += delta;
+    else reservedWeight += delta;
   }
-  
+
   /**
    * Removes a value from the set of potential values.
    * If the object does not exist, nothing is done.
-   * If several values exist (e.g., weighted add was done), only first one is removed
+   * If the option has a weight above one (e.g., weighted add was done), the weight is reduced by one.
    *
    * @param option The object to be removed.
    */
   public void remove(T option) {
-    int index = options.indexOf(option);
-    if (index < 0) {
+    Option<T> o = index.get(option);
+    if (o == null) {
       return;
     }
-    if (index <= next) {
-      next--;
+    removeOne(o);
+  }
+
+  /**
+   * Reduces weight of given option by one, and removes it completely if this reduces the weight to zero.
+   *
+   * @param o The option to remove.
+   */
+  private void removeOne(Option<T> o) {
+    changes++;
+    o.weight--;
+    changeWeight(o, -1);
+    if (o.weight > 0) return;
+    index.remove(o.value);
+    o.optionIndex = removeAt(options, o.optionIndex, OPTIONS);
+    if (o.freeIndex >= 0) o.freeIndex = removeAt(free, o.freeIndex, FREE);
+    else o.reservedIndex = removeAt(reserved, o.reservedIndex, RESERVED);
+    if (looped == o) looped = o.prev;
+    if (o.prev == null) first = o.next;
+    else o.prev.next = o.next;
+    if (o.next == null) last = o.prev;
+    else o.next.prev = o.prev;
+  }
+
+  /**
+   * Removes the option at given index in given list by moving the last one in the list to its place.
+   *
+   * @param list The list to remove from.
+   * @param i The index to remove.
+   * @param type Which list is this, to update the index of the moved option.
+   * @return -1 to mark the removed option not being in the list.
+   */
+  private int removeAt(List<Option<T>> list, int i, int type) {
+    Option<T> moved = list.remove(list.size() - 1);
+    if (i < list.size()) {
+      list.set(i, moved);
+      switch (type) {
+        case OPTIONS:
+          moved.optionIndex = i;
+          break;
+        case FREE:
+          moved.freeIndex = i;
+          break;
+        default:
+          moved.reservedIndex = i;
+      }
     }
-    options.remove(option);
-    free.remove(option);
-    reserved.remove(option);
+    return -1;
   }
-  
-  private void pre() {
+
+  /** Checks the set is ready for generating a value, and takes the value from the GUI if it is enabled. */
+  protected void pre() {
     if (rand == null) throw new IllegalStateException("You need to set seed before using data objects");
     choice = null;
     if (gui != null) {
@@ -119,27 +233,46 @@ public class ValueSet<T> extends SearchableInput<T> {
       return;
     }
     OSMOConfiguration.check(this);
-    if (options.isEmpty()) {
+    if (size() == 0) {
       throw new IllegalStateException("No value to provide (add some options).");
     }
   }
-  
-  private void post() {
-    history.add(choice);
+
+  /** Records the chosen value. */
+  protected void post() {
     //log.d("Value:"+next);
     record(choice);
   }
 
+  /**
+   * Picks a random option from the given list, with probability relative to the option weights.
+   * If all weights are one, this takes constant time.
+   *
+   * @param list The options to pick from.
+   * @param total Sum of weights for the options in the list.
+   * @return The chosen option.
+   */
+  private Option<T> pick(List<Option<T>> list, int total) {
+    int target = rand.nextInt(0, total - 1);
+    if (total == list.size()) return list.get(target);
+    for (int i = 0 ; i < list.size() ; i++) {
+      Option<T> o = list.get(i);
+      target -= o.weight;
+      if (target < 0) return o;
+    }
+    throw new IllegalStateException("Weights do not match options, this should not happen.");
+  }
+
   /**
    * Randomly picks one of the free options.
-   * 
+   *
    * @return The chosen one.
    */
   public T random() {
     pre();
     if (choice == null) {
       if (free.isEmpty()) throw new IllegalStateException("No free to choose from.");
-      choice = rand.oneOf(free);
+      choice = pick(free, freeWeight).value;
     }
     post();
     return choice;
@@ -153,7 +286,7 @@ public class ValueSet<T> extends SearchableInput<T> {
   public T randomAny() {
     pre();
     if (choice == null) {
-      choice = rand.oneOf(options);
+      choice = pick(options, weight).value;
     }
     post();
     return choice;
@@ -161,14 +294,14 @@ public class ValueSet<T> extends SearchableInput<T> {
 
   /**
    * Randomly picks one of the reserved ones.
-   * 
+   *
    * @return The chosen one.
    */
   public T randomReserved() {
     pre();
     if (choice == null) {
       if (reserved.isEmpty()) throw new IllegalStateException("No reserved to choose from.");
-      choice = rand.oneOf(reserved);
+      choice = pick(reserved, reservedWeight).value;
     }
     post();
     return choice;
@@ -176,37 +309,51 @@ public class ValueSet<T> extends SearchableInput<T> {
 
   /**
    * Reserves the given option. TODO: tests for all uncovered.
-   * 
+   *
    * @param t Option to reserve.
    */
   public void reserve(T t) {
-    if (!options.contains(t)) throw new IllegalArgumentException("Tried to reserve non-existing option:"+t);
-    if (!free.contains(t)) throw new IllegalArgumentException("Tried to reserve something that is not free:"+t);
-    reserved.add(t);
-    free.remove(t);
+    Option<T> o = index.get(t);
+    if (o == null) throw new IllegalArgumentException("Tried to reserve non-existing option:"+t);
+    if (o.freeIndex < 0) throw new IllegalArgumentException("Tried to reserve something that is not free:"+t);
+    reserve(o);
+  }
+
+  /**
+   * Moves the given option from free to reserved.
+   *
+   * @param o The option to reserve.
+   */
+  private void reserve(Option<T> o) {
+    changes++;
+    o.freeIndex = removeAt(free, o.freeIndex, FREE);
+    freeWeight -= o.weight;
+    o.reservedIndex = reserved.size();
+    reserved.add(o);
+    reservedWeight += o.weight;
   }
 
   /**
    * Gives the number of items reserved currently in this ValueSet.
-   * 
+   *
    * @return The number of reserved items.
    */
   public int reserved() {
-    return reserved.size();
+    return reservedWeight;
   }
-  
+
   /**
    * Pick an option at random and reserves it.
-   * 
+   *
    * @return The chosen one. If all are reserved, throws an IllegalStateException.
    */
   public T reserve() {
     pre();
     if (choice == null) {
       if (free.isEmpty()) throw new IllegalStateException("Nothing left to reserve.");
-      choice = rand.oneOf(free);
-      reserved.add(choice);
-      free.remove(choice);
+      Option<T> o = pick(free, freeWeight);
+      reserve(o);
+      choice = o.value;
     }
     post();
     return choice;
@@ -214,130 +361,153 @@ public class ValueSet<T> extends SearchableInput<T> {
 
   /**
    * Picks an option from all options (ignoring reserved status) and removes it.
-   * 
+   *
    * @return The removed option.
    */
   public T removeRandom() {
     pre();
-    if (choice == null) choice = rand.oneOf(options);
-    options.remove(choice);
-    free.remove(choice);
-    reserved.remove(choice);
+    if (choice == null) {
+      Option<T> o = pick(options, weight);
+      removeOne(o);
+      choice = o.value;
+    } else {
+      remove(choice);
+    }
     post();
     return choice;
   }
 
   /**
    * Makes a previously reserved option available again.
-   * 
+   *
    * @param option The option to free.
    */
   public void free(T option) {
-    boolean ok = reserved.remove(option);
-    if (!ok) throw new IllegalArgumentException("Given option to free that was not reserved:"+option);
-    free.add(option);
+    Option<T> o = index.get(option);
+    if (o == null || o.reservedIndex < 0) {
+      throw new IllegalArgumentException("Given option to free that was not reserved:"+option);
+    }
+    changes++;
+    o.reservedIndex = removeAt(reserved, o.reservedIndex, RESERVED);
+    reservedWeight -= o.weight;
+    o.freeIndex = free.size();
+    free.add(o);
+    freeWeight += o.weight;
   }
 
   /**
    * Gives the number of available options.
-   * 
+   *
    * @return Number of available options.
    */
   public int available() {
-    return free.size();
+    return freeWeight;
   }
 
   /**
    * Checks if the given option is part of this set (reserved or not).
-   * 
+   *
    * @param option To check.
    * @return True if found.
    */
   public boolean contains(T option) {
-    return options.contains(option);
+    return index.containsKey(option);
   }
 
   /**
    * Gives a higher probability to less covered options.
+   * Picks randomly one of the free options that has been generated the least number of times.
+   * The number of times is taken from the counts in the history, so the cost does not depend on how many values
+   * have been generated. If no history is kept, picks randomly from all the free options.
    *
    * @return The chosen one.
    */
   public T balanced() {
     pre();
     if (choice == null) {
-      Collection<T> choices = new LinkedHashSet<>();
-      choices.addAll(free);
-      choices.removeAll(history);
-      //choices now has all items that have never been covered
-
-      if (choices.size() == 0) {
-        Map<T, Integer> coverage = new LinkedHashMap<>();
-        for (T t : history) {
-          Integer count = coverage.get(t);
-          //when first encountered, the object will have "null" instances so we translate that to 0
-          //if an object is in history multiple times, the following ones will just increment the value
-          if (count == null) {
-            count = 0;
-          }
-          count++;
-          coverage.put(t, count);
-        }
-        int min = rand.minOf(coverage.values());
-        for (Map.Entry<T, Integer> item : coverage.entrySet()) {
-          if (coverage.get(item.getKey()) == min) {
-            choices.add(item.getKey());
-          }
+      if (free.isEmpty()) throw new IllegalStateException("No free to choose from.");
+      candidates.clear();
+      int min = Integer.MAX_VALUE;
+      for (int i = 0 ; i < free.size() ; i++) {
+        Option<T> option = free.get(i);
+        int count = history == null ? 0 : history.count(option.value);
+        if (count > min) continue;
+        if (count < min) {
+          min = count;
+          candidates.clear();
         }
+        candidates.add(option);
       }
-      choice = rand.oneOf(choices);
+      choice = rand.oneOf(candidates).value;
+      candidates.clear();
     }
     post();
     return choice;
   }
 
   /**
-   * Treats the choice as an ordered loop through the options.
+   * Treats the choice as an ordered loop through the free options, in the order they were added.
+   * An option with a weight of N is given once in each of the first N rounds of the loop.
    *
    * @return The next item according to loop index.
    */
   public T loop() {
     pre();
     if (choice == null) {
-      List<T> currentOptions = new ArrayList<>();
-      currentOptions.addAll(free);
-      if (next >= currentOptions.size()) {
-        next = 0;
+      if (free.isEmpty()) throw new IllegalStateException("No free to choose from.");
+      Option<T> o = looped == null ? first : looped.next;
+      while (true) {
+        while (o != null && (o.freeIndex < 0 || o.weight < loopRound)) {
+          o = o.next;
+        }
+        if (o != null) break;
+        //end of round, start the next one, or from the first round if no option has a weight this big
+        loopRound++;
+        if (loopRound > maxFreeWeight()) loopRound = 1;
+        o = first;
       }
-      choice = currentOptions.get(next++);
+      looped = o;
+      choice = o.value;
     }
     post();
     return choice;
   }
 
+  /** @return The biggest weight of a free option. */
+  private int maxFreeWeight() {
+    int max = 0;
+    for (int i = 0 ; i < free.size() ; i++) {
+      max = Math.max(max, free.get(i).weight);
+    }
+    return max;
+  }
+
   /**
    * Gives the number of objects in this set.
    *
-   * @return The number of objects.
+   * @return The number of objects, including weights.
    */
   public int size() {
-    return options.size();
+    return weight;
   }
 
   /**
-   * Gives all the objects in this set.
+   * Gives all the objects in this set, in the order they were added, each included as many times as its weight.
    *
-   * @return All the objects in this set.
+   * @return A read-only view of all the objects in this set.
    */
   public List<T> getOptions() {
-    return options;
+    return new OptionView(options, OPTIONS);
   }
 
+  /** @return A read-only view of the free objects, each included as many times as its weight. */
   public List<T> getFreeOptions() {
-    return free;
+    return new OptionView(free, FREE);
   }
-  
+
+  /** @return A read-only view of the reserved objects, each included as many times as its weight. */
   public List<T> getReservedOptions() {
-    return reserved;
+    return new OptionView(reserved, RESERVED);
   }
 
   @Override
@@ -349,7 +519,7 @@ public class ValueSet<T> extends SearchableInput<T> {
   @Override
   public String toString() {
     return "ValueSet{name="+getName()+", " +
-            "options=" + options +
+            "options=" + getOptions() +
             '}';
   }
 
@@ -359,21 +529,121 @@ public class ValueSet<T> extends SearchableInput<T> {
    * @param newOptions The new set of options to use.
    */
   public void setOptions(Collection<T> newOptions) {
-    history.clear();
-    options.clear();
-    free.clear();
-    reserved.clear();
-    options.addAll(newOptions);
-    free.addAll(newOptions);
+    if (history != null) history.clear();
+    List<T> copy = new ArrayList<>(newOptions);
+    clear();
+    addAll(copy);
   }
 
   public void clear() {
+    changes++;
+    index.clear();
     options.clear();
     free.clear();
     reserved.clear();
+    weight = 0;
+    freeWeight = 0;
+    reservedWeight = 0;
+    first = null;
+    last = null;
+    looped = null;
+    loopRound = 1;
   }
 
   public long getSeed() {
     return rand.getSeed();
   }
+
+  /**
+   * An option in the set.
+   *
+   * @param <T> Type of the option value.
+   */
+  private static class Option<T> {
+    /** The option value. */
+    private final T value;
+    /** Weight of the option, how many instances of it there are. */
+    private int weight = 0;
+    /** Index of this option in the list of all options. */
+    private int optionIndex = -1;
+    /** Index of this option in the list of free options, -1 if reserved. */
+    private int freeIndex = -1;
+    /** Index of this option in the list of reserved options, -1 if free. */
+    private int reservedIndex = -1;
+    /** Previous option in the order they were added. */
+    private Option<T> prev = null;
+    /** Next option in the order they were added. */
+    private Option<T> next = null;
+
+    private Option(T value) {
+      this.value = value;
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+  }
+
+  /**
+   * Read-only view of a list of options, with each option repeated as many times as its weight.
+   * The view remembers the option of the previous get() call, so going through the view in order, as iterating does,
+   * takes constant time per item.
+   */
+  private class OptionView extends AbstractList<T> {
+    /** The options in the view. */
+    private final List<Option<T>> list;
+    /** Which list of options this is. */
+    private final int type;
+    /** Value of {@link #changes} when the position was stored, the position is not valid if they differ. */
+    private int positionChanges = -1;
+    /** Index in the view where the option at the stored position starts. */
+    private int positionStart = 0;
+    /** The option at the stored position, for the list of all options. */
+    private Option<T> positionOption = null;
+    /** Index in the list of the option at the stored position, for the free and reserved options. */
+    private int positionIndex = 0;
+
+    private OptionView(List<Option<T>> list, int type) {
+      this.list = list;
+      this.type = type;
+    }
+
+    @Override
+    public T get(int i) {
+      if (i < 0 || i >= size()) throw new IndexOutOfBoundsException("Index:" + i + ", size:" + size());
+      if (type != OPTIONS && size() == list.size()) return list.get(i).value;
+      if (positionChanges != changes || i < positionStart) {
+        //start again from the beginning
+        positionChanges = changes;
+        positionStart = 0;
+        positionOption = first;
+        positionIndex = 0;
+      }
+      if (type == OPTIONS) {
+        //all options are given in the order they were added
+        while (i >= positionStart + positionOption.weight) {
+          positionStart += positionOption.weight;
+          positionOption = positionOption.next;
+        }
+        return positionOption.value;
+      }
+      while (i >= positionStart + list.get(positionIndex).weight) {
+        positionStart += list.get(positionIndex++).weight;
+      }
+      return list.get(positionIndex).value;
+    }
+
+    @Override
+    public int size() {
+      switch (type) {
+        case OPTIONS:
+          return weight;
+        case FREE:
+          return freeWeight;
+        default:
+          return reservedWeight;
+      }
+    }
+  }
 }
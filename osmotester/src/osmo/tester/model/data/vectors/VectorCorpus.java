@@ -0,0 +1,177 @@
+package osmo.tester.model.data.vectors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static osmo.common.TestUtils.*;
+
+/**
+ * An immutable list of fuzz vectors, one per line in the source. Lines starting with "#" and empty lines are skipped.
+ * Corpora are loaded on first use and cached, so all {@link VectorSet} instances using the same source share
+ * a single copy. This matters when the model objects are re-created for each test.
+ * <p>
+ * Corpora from files are memory-mapped, and only the positions of the lines are kept in memory.
+ * Each line is decoded when it is requested.
+ *
+ * @author Teemu Kanstren
+ */
+public class VectorCorpus {
+  /** Key = source of the corpus, value = the loaded corpus. */
+  private static final Map<String, VectorCorpus> cache = new ConcurrentHashMap<>();
+  /** Name of the corpus. */
+  private final String name;
+  /** The vectors. */
+  private final List<String> vectors;
+
+  private VectorCorpus(String name, List<String> vectors) {
+    this.name = name;
+    this.vectors = vectors;
+  }
+
+  /**
+   * Gives the corpus for a resource, loading it on first request.
+   *
+   * @param clazz The class to load the resource relative to.
+   * @param name Name of the resource, without the ".txt" ending.
+   * @return The shared corpus.
+   */
+  public static VectorCorpus forResource(Class clazz, String name) {
+    return cache.computeIfAbsent(clazz.getName() + ":" + name, key -> load(clazz, name));
+  }
+
+  /**
+   * Gives the corpus for a file, memory-mapping it on first request.
+   *
+   * @param file The corpus file, UTF-8 encoded.
+   * @return The shared corpus.
+   */
+  public static VectorCorpus forFile(Path file) {
+    Path path = file.toAbsolutePath().normalize();
+    return cache.computeIfAbsent("file:" + path, key -> map(path));
+  }
+
+  private static VectorCorpus load(Class clazz, String name) {
+    String text = getResource(clazz, name + ".txt");
+    text = unifyLineSeparators(text, "\n");
+    String[] lines = text.split("\n");
+    List<String> vectors = new ArrayList<>(lines.length);
+    for (String line : lines) {
+      if (line.startsWith("#")) {
+        continue;
+      }
+      if (line.trim().length() == 0) {
+        continue;
+      }
+      vectors.add(line);
+    }
+    return new VectorCorpus(name, Collections.unmodifiableList(vectors));
+  }
+
+  private static VectorCorpus map(Path path) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Corpus file too big to map:" + path);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      return new VectorCorpus(path.toString(), new MappedLines(buffer));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read corpus file:" + path, e);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int size() {
+    return vectors.size();
+  }
+
+  /**
+   * @param i Index of the vector.
+   * @return The vector at given index.
+   */
+  public String get(int i) {
+    return vectors.get(i);
+  }
+
+  /** @return Read-only list of the vectors. */
+  public List<String> getVectors() {
+    return vectors;
+  }
+
+  /** The lines of a memory-mapped file, decoded as requested. */
+  private static class MappedLines extends AbstractList<String> {
+    /** The file contents. */
+    private final ByteBuffer buffer;
+    /** Start positions of the lines in the buffer. */
+    private final int[] starts;
+    /** End positions of the lines in the buffer, exclusive. */
+    private final int[] ends;
+
+    private MappedLines(ByteBuffer buffer) {
+      this.buffer = buffer;
+      int[] starts = new int[64];
+      int[] ends = new int[64];
+      int count = 0;
+      int limit = buffer.limit();
+      int start = 0;
+      while (start < limit) {
+        int end = start;
+        while (end < limit && buffer.get(end) != '\n') end++;
+        int next = end + 1;
+        if (end > start && buffer.get(end - 1) == '\r') end--;
+        if (include(buffer, start, end)) {
+          if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+          }
+          starts[count] = start;
+          ends[count] = end;
+          count++;
+        }
+        start = next;
+      }
+      this.starts = Arrays.copyOf(starts, count);
+      this.ends = Arrays.copyOf(ends, count);
+    }
+
+    /** @return False for comment lines and lines with only whitespace, as with {@link String#trim()}. */
+    private static boolean include(ByteBuffer buffer, int start, int end) {
+      if (end > start && buffer.get(start) == '#') return false;
+      for (int i = start ; i < end ; i++) {
+        //bytes of multi-byte characters are negative, so they count as content
+        if (buffer.get(i) > ' ' || buffer.get(i) < 0) return true;
+      }
+      return false;
+    }
+
+    @Override
+    public String get(int index) {
+      int start = starts[index];
+      byte[] bytes = new byte[ends[index] - start];
+      //duplicate so concurrent readers do not share the position
+      ByteBuffer view = buffer.duplicate();
+      view.position(start);
+      view.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+      return starts.length;
+    }
+  }
+}
@@ -2,10 +2,16 @@ package osmo.tester.model.data.vectors;
 
 import osmo.tester.model.data.ValueSet;
 
-import static osmo.common.TestUtils.*;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /** 
  * Set of fuzz vectors for different types of data.
+ * The vectors are read from a shared {@link VectorCorpus}, and each instance only keeps a cursor for the ordered loop.
+ * Operations that modify the set, such as reserving or removing vectors, first copy the vectors into this set
+ * and after that work as in {@link ValueSet}.
  * 
  * @author Teemu Kanstren 
  */
@@ -18,24 +24,163 @@ public class VectorSet extends ValueSet<String> {
   public static final String XSS = "owasp/xss";
 
   public final String name;
+  /** The shared vectors. */
+  private final VectorCorpus corpus;
+  /** Index of next vector for ordered loop. */
+  private int cursor = 0;
+  /** True once the vectors have been copied into this set for modification. */
+  private boolean copied = false;
 
   public VectorSet(Class clazz, String name) {
-    this.name = name;
-    String text = getResource(clazz, name + ".txt");
-    text = unifyLineSeparators(text, "\n");
-    String[] lines = text.split("\n");
-    for (String line : lines) {
-      if (line.startsWith("#")) {
-        continue;
-      }
-      if (line.trim().length() == 0) {
-        continue;
-      }
-      add(line);
-    }
+    this(VectorCorpus.forResource(clazz, name));
   }
 
   public VectorSet(String name) {
     this(VectorSet.class, name);
   }
+
+  /**
+   * For a user-supplied corpus file, which is memory-mapped instead of read into memory.
+   * 
+   * @param file The corpus file.
+   */
+  public VectorSet(Path file) {
+    this(VectorCorpus.forFile(file));
+  }
+
+  public VectorSet(VectorCorpus corpus) {
+    this.corpus = corpus;
+    this.name = corpus.getName();
+  }
+
+  /** Copies the vectors into this set, so they can be modified without affecting the shared corpus. */
+  private void copy() {
+    if (copied) return;
+    copied = true;
+    for (String vector : corpus.getVectors()) {
+      super.add(vector, 1);
+    }
+  }
+
+  @Override
+  public String loop() {
+    if (copied) return super.loop();
+    pre();
+    if (choice == null) {
+      if (cursor >= corpus.size()) cursor = 0;
+      choice = corpus.get(cursor++);
+    }
+    post();
+    return choice;
+  }
+
+  @Override
+  public String random() {
+    if (copied) return super.random();
+    pre();
+    if (choice == null) choice = corpus.get(rand.nextInt(0, corpus.size() - 1));
+    post();
+    return choice;
+  }
+
+  @Override
+  public String randomAny() {
+    if (copied) return super.randomAny();
+    return random();
+  }
+
+  @Override
+  public int size() {
+    return copied ? super.size() : corpus.size();
+  }
+
+  @Override
+  public int available() {
+    return copied ? super.available() : corpus.size();
+  }
+
+  @Override
+  public int reserved() {
+    return copied ? super.reserved() : 0;
+  }
+
+  @Override
+  public boolean contains(String option) {
+    return copied ? super.contains(option) : corpus.getVectors().contains(option);
+  }
+
+  @Override
+  public List<String> getOptions() {
+    return copied ? super.getOptions() : corpus.getVectors();
+  }
+
+  @Override
+  public List<String> getFreeOptions() {
+    return copied ? super.getFreeOptions() : corpus.getVectors();
+  }
+
+  @Override
+  public List<String> getReservedOptions() {
+    return copied ? super.getReservedOptions() : Collections.emptyList();
+  }
+
+  @Override
+  public void add(String option, int weight) {
+    copy();
+    super.add(option, weight);
+  }
+
+  @Override
+  public void remove(String option) {
+    copy();
+    super.remove(option);
+  }
+
+  @Override
+  public void reserve(String t) {
+    copy();
+    super.reserve(t);
+  }
+
+  @Override
+  public String reserve() {
+    copy();
+    return super.reserve();
+  }
+
+  @Override
+  public void free(String option) {
+    copy();
+    super.free(option);
+  }
+
+  @Override
+  public String removeRandom() {
+    copy();
+    return super.removeRandom();
+  }
+
+  @Override
+  public String randomReserved() {
+    copy();
+    return super.randomReserved();
+  }
+
+  @Override
+  public String balanced() {
+    copy();
+    return super.balanced();
+  }
+
+  @Override
+  public void setOptions(Collection<String> newOptions) {
+    copied = true;
+    super.setOptions(newOptions);
+  }
+
+  @Override
+  public void clear() {
+    copied = true;
+    super.clear();
+  }
 }
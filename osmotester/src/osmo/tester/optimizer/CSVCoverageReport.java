@@ -82,10 +82,10 @@ public class CSVCoverageReport {
       this.gain += gain + "; ";
 
       coverage += scoreCalculator.calculateScore(tc) + "; ";
-      reqs += tc.getRequirements().size() + "; ";
+      reqs += tc.getRequirementCount() + "; ";
       length += tc.getTotalSteps() + "; ";
-      steps += tc.getSingles().size() + "; ";
-      stepPairs += tc.getStepPairs().size() + "; ";
+      steps += tc.getSingleCount() + "; ";
+      stepPairs += tc.getStepPairCount() + "; ";
       values += tc.getValueCount()+"; ";
       states += tc.getStateCount()+"; ";
       statePairs += tc.getStatePairCount()+"; ";
@@ -1,8 +1,10 @@
 package osmo.tester.optimizer;
 
 import osmo.tester.generator.testsuite.TestCase;
+import osmo.tester.generator.testsuite.TestCaseStep;
 
 import java.util.Comparator;
+import java.util.List;
 
 /** 
  * Sorts given test cases to make a test suite deterministic.
@@ -10,6 +12,8 @@ import java.util.Comparator;
  * depending on what order did the sets get finished and added to the set. If we then prune this set to pick
  * a smaller set according to some coverage criteria, the resulting set may be different on different runs.
  * By sorting the merged set before pruning it, we get (more) deterministic results.
+ * The order is the same as comparing the string representations of the tests, but the strings are never built.
+ * Instead the step names are walked character by character until the first difference.
  * Note that if several tests still have the same string representation their ordering is not guaranteed.
  * 
  * @author Teemu Kanstren 
@@ -17,6 +21,56 @@ import java.util.Comparator;
 public class TestSorter implements Comparator<TestCase> {
   @Override
   public int compare(TestCase t1, TestCase t2) {
-    return t1.toString().compareTo(t2.toString());
+    StepChars c1 = new StepChars(t1.getSteps());
+    StepChars c2 = new StepChars(t2.getSteps());
+    while (true) {
+      int ch1 = c1.next();
+      int ch2 = c2.next();
+      if (ch1 != ch2) return ch1 - ch2;
+      if (ch1 < 0) return 0;
+    }
+  }
+
+  /**
+   * Iterates the characters of the list of step names as they appear in {@link TestCase#toString()},
+   * that is "[name1, name2]".
+   */
+  private static class StepChars {
+    /** The step names to iterate. */
+    private final List<TestCaseStep> names;
+    /** Index of the current step name, -1 for the opening bracket. */
+    private int step = -1;
+    /** Position inside the current name, continuing into the separator after it. */
+    private int pos = 0;
+
+    private StepChars(List<TestCaseStep> names) {
+      this.names = names;
+    }
+
+    /** @return The next character, or -1 when all is consumed. */
+    private int next() {
+      if (step < 0) {
+        step = 0;
+        //an empty list is "[]"
+        if (names.isEmpty()) step = 1;
+        return '[';
+      }
+      if (step >= names.size()) {
+        if (pos++ == 0) return ']';
+        return -1;
+      }
+      String name = names.get(step).getName();
+      if (pos < name.length()) return name.charAt(pos++);
+      if (step == names.size() - 1) {
+        step++;
+        pos = 0;
+        return next();
+      }
+      //separator ", " between names
+      if (pos++ == name.length()) return ',';
+      step++;
+      pos = 0;
+      return ' ';
+    }
   }
 }
@@ -1,9 +1,11 @@
 package osmo.tester.optimizer.greedy;
 
+import osmo.common.Deadline;
 import osmo.common.TestUtils;
 import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.OSMOTester;
+import osmo.tester.coverage.CoverageIds;
 import osmo.tester.coverage.ScoreCalculator;
 import osmo.tester.coverage.ScoreConfiguration;
 import osmo.tester.coverage.TestCoverage;
@@ -24,6 +26,10 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Generates test cases and greedily optimizes the resulting test suite with regards to coverage criteria as
@@ -81,6 +87,8 @@ public class GreedyOptimizer {
   private Collection<IterationListener> listeners = new HashSet<>();
   /** If we are running as sub-optimizer for multi-greedy we do not notify about final generation finished. */
   private boolean subStatus;
+  /** Number of threads to use for scoring tests when sorting and pruning the suite. Defaults to 1. */
+  private int sortParallelism = 1;
 
   /** @param osmoConfig Generator configuration to use in optimizers doing generation.
    * @param configuration For scoring the search. */
@@ -114,6 +122,19 @@ public class GreedyOptimizer {
     this.maxIterations = maxIterations;
   }
 
+  public int getSortParallelism() {
+    return sortParallelism;
+  }
+
+  /**
+   * The results are the same for any value, only the time it takes to sort the suite differs.
+   *
+   * @param sortParallelism Number of threads to use for scoring tests when sorting and pruning the suite.
+   */
+  public void setSortParallelism(int sortParallelism) {
+    this.sortParallelism = sortParallelism;
+  }
+
   public void enableDataTrace() {
     osmoConfig.setDataTraceRequested(true);
   }
@@ -162,8 +183,14 @@ public class GreedyOptimizer {
     this.seed = seed;
 
     CSVCoverageReport report = new CSVCoverageReport(scoreCalculator);
-    MainGenerator generator = configure(seed);
-    generate(report, generator, populationSize);
+    MainGenerator generator;
+    CoverageIds.generationStarted();
+    try {
+      generator = configure(seed);
+      generate(report, generator, populationSize);
+    } finally {
+      CoverageIds.generationEnded();
+    }
 
     this.possiblePairs = generator.getPossibleStepPairs();
     TestCoverage suiteCoverage = new TestCoverage(suite);
@@ -184,11 +211,7 @@ public class GreedyOptimizer {
     start = System.currentTimeMillis();
     int gain = Integer.MAX_VALUE;
     int previousScore = 0;
-    long endTime = -1;
-    if (timeout > 0) {
-      //timeout is given in seconds so we multiple by 1000 to get milliseconds
-      endTime = System.currentTimeMillis() + timeout * 1000;
-    }
+    Deadline deadline = timeout > 0 ? Deadline.after(timeout, TimeUnit.SECONDS) : Deadline.never();
     log.i("greedy " + id + " starting up, population size " + populationSize);
     //to get a shorter test suite, use negative length weight.. in most cases should be no problem
     while (shouldRun(gain, iteration)) {
@@ -202,7 +225,7 @@ public class GreedyOptimizer {
         suite.add(testCase);
       }
       log.i(id + ":sorting and pruning iteration results");
-      suite = sortAndPrune(id, suite, scoreCalculator, max);
+      suite = sortAndPrune(id, suite, scoreCalculator, max, sortParallelism);
       //we process each iteration to produce a list of how it was overall progressing
       report.process(suite);
       TestCoverage suiteCoverage = new TestCoverage(suite);
@@ -218,7 +241,7 @@ public class GreedyOptimizer {
       long diff = System.currentTimeMillis() - iStart;
       log.i(id + ":iteration time:(" + iteration + ")" + diff + " gain:" + gain);
 //      System.err.println(id + ":iteration time:(" + iteration + ")" + diff + " gain:" + gain);
-      if (endTime > 0 && endTime < System.currentTimeMillis()) {
+      if (deadline.isPassed()) {
         log.i("Generation timed out");
         break;
       }
@@ -291,6 +314,15 @@ public class GreedyOptimizer {
 
   /**
    * Same as createSortedSet(int howMany) but does not generate the tests, uses the given set as source instead.
+   * Uses the lazy greedy approach: the score a test adds to the suite can only go down as more tests are added
+   * to the suite (coverage gain is submodular). So the previously calculated gain of a test is an upper bound
+   * for its current gain, and the tests are kept in a priority queue ordered by these (possibly stale) bounds.
+   * Only the top of the queue is re-evaluated, and once the top has been evaluated against the current suite
+   * it is known to be the best pick. Ties are broken by the position in the sorted source set, which gives
+   * exactly the same result as evaluating every test on every pick.
+   * If the score configuration has negative weights ({@link ScoreConfiguration#hasNegativeWeights()}), the gain is
+   * not submodular and the old scores are no upper bounds. In that case all remaining tests are re-evaluated on
+   * every pick.
    *
    * @param from The source set to pick from.
    * @param calculator For calculating coverage score.
@@ -298,58 +330,172 @@ public class GreedyOptimizer {
    * @return Greedily sorted suite of requested size.
    */
   public static List<TestCase> sortAndPrune(int id, List<TestCase> from, ScoreCalculator calculator, int max) {
+    return sortAndPrune(id, from, calculator, max, 1);
+  }
+
+  /**
+   * Same as {@link #sortAndPrune(int, List, ScoreCalculator, int)} but scores the tests using several threads.
+   * The initial scores for all tests are calculated in parallel, as are the re-evaluations of the stale tests
+   * at the top of the queue. The picks are made only from up-to-date scores in the same order as with a
+   * single thread, so the result is always the same as for the sequential version.
+   *
+   * @param from The source set to pick from.
+   * @param calculator For calculating coverage score.
+   * @param max Maximum number of tests to include in results.
+   * @param parallelism Number of threads to use for scoring. 1 or less means to score in the calling thread.
+   * @return Greedily sorted suite of requested size.
+   */
+  public static List<TestCase> sortAndPrune(int id, List<TestCase> from, ScoreCalculator calculator, int max, int parallelism) {
     //this sort is here to ensure deterministic results (as far as sequence of steps and scores go..)
-    //TODO: optimize the sort based on something other than full .tostring
     Collections.sort(from, new TestSorter());
     List<TestCase> suite = new ArrayList<>();
-
-    //first we need to clone the coverage so we can reuse it later since first loop removes items from it
-    for (TestCase test : from) {
-      test.cloneCoverage();
+    TestCoverage suiteCoverage = new TestCoverage();
+    ForkJoinPool pool = null;
+    int batchSize = 1;
+    if (parallelism > 1 && from.size() > ScoreTask.SPLIT_SIZE) {
+      pool = new ForkJoinPool(parallelism);
+      batchSize = parallelism * ScoreTask.SPLIT_SIZE;
     }
-    int times = 0;
-    TestCase best = null;
-    TestCoverage bestCoverage = null;
-    while (from.size() > 0) {
-      int bestScore = 0;
-      TestCase found = null;
-      for (TestCase test : from) {
-        TestCoverage tc = test.getCoverage();
-        if (best != null) tc.removeAll(bestCoverage);
-        int score = calculator.calculateScore(tc);
-        if (score > bestScore) {
-          bestScore = score;
-          found = test;
+    try {
+      Candidate[] all = new Candidate[from.size()];
+      for (int i = 0 ; i < all.length ; i++) {
+        all[i] = new Candidate(from.get(i), i);
+      }
+      score(pool, calculator, suiteCoverage, 0, all, all.length);
+      PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(all.length, 1));
+      Collections.addAll(queue, all);
+      int times = all.length;
+      Candidate[] batch = new Candidate[batchSize];
+      boolean lazy = !calculator.getConfig().hasNegativeWeights();
+      while (!queue.isEmpty()) {
+        int round = suite.size();
+        if (!lazy && queue.peek().round < round) {
+          //the scores can go up, so re-evaluate all against the current suite
+          Candidate[] rest = queue.toArray(new Candidate[queue.size()]);
+          score(pool, calculator, suiteCoverage, round, rest, rest.length);
+          queue.clear();
+          Collections.addAll(queue, rest);
+          times += rest.length;
         }
-        times++;
+        Candidate top = queue.peek();
+        //bounds never go up (or all scores are current), so if the best adds nothing, nothing else does either
+        if (top.score <= 0) break;
+        if (top.round < round) {
+          //stale bounds, re-evaluate against the current suite and let them find their new place in the queue
+          int count = 0;
+          while (count < batchSize && !queue.isEmpty() && queue.peek().round < round && queue.peek().score > 0) {
+            batch[count++] = queue.poll();
+          }
+          score(pool, calculator, suiteCoverage, round, batch, count);
+          for (int i = 0 ; i < count ; i++) {
+            queue.add(batch[i]);
+          }
+          times += count;
+          continue;
+        }
+        queue.poll();
+        suite.add(top.test);
+        suiteCoverage.addCoverage(top.test.getCoverage());
+        //if max length for suite defined, we do not go beyond that
+        if (max > 0 && suite.size() >= max) break;
       }
-      if (found == null) {
-        //no more gains found in coverage
-        break;
+      int steps = 0;
+      for (TestCase test : from) {
+        steps += test.getCoverage().getTotalSteps();
       }
-      best = found;
-      bestCoverage = best.getCoverage();
-//      System.out.println("best:"+bestScore);
-      //TODO: check if possible to optimize this removal
-      from.remove(best);
-      suite.add(best);
-      //if max length for suite defined, we do not go beyond that
-      if (max > 0 && suite.size() >= max) break;
+      log.i(id + ":loops in sort:" + times + ", tests:" + suite.size() + ", steps:" + steps);
+    } finally {
+      if (pool != null) pool.shutdown();
+    }
+    return suite;
+  }
+
+  /**
+   * Calculates the score the given candidates add to the suite.
+   *
+   * @param pool If not null, the scores are calculated in parallel in this pool.
+   * @param calculator For calculating the scores.
+   * @param suiteCoverage Coverage of the suite so far.
+   * @param round Size of the suite so far.
+   * @param candidates The candidates to score.
+   * @param count Number of candidates to score from the start of the array.
+   */
+  private static void score(ForkJoinPool pool, ScoreCalculator calculator, TestCoverage suiteCoverage, int round,
+                            Candidate[] candidates, int count) {
+    ScoreTask task = new ScoreTask(calculator, suiteCoverage, round, candidates, 0, count);
+    if (pool == null || count <= ScoreTask.SPLIT_SIZE) task.compute();
+    else pool.invoke(task);
+  }
+
+  /**
+   * A test in the lazy greedy queue, with the score it was last evaluated to add to the suite.
+   * Higher scores come first, and for equal scores the one earlier in the sorted source set.
+   */
+  private static class Candidate implements Comparable<Candidate> {
+    /** The test case. */
+    private final TestCase test;
+    /** Position in the sorted source set. */
+    private final int index;
+    /** Added score when last evaluated. An upper bound for the current added score, if no weights are negative. */
+    private int score = 0;
+    /** Size of the suite when the score was last evaluated. */
+    private int round = -1;
+
+    private Candidate(TestCase test, int index) {
+      this.test = test;
+      this.index = index;
     }
-    int steps = 0;
-    //loop all and not just the results, as sometimes the listeners use the old ones (the GUI does at this writing)
-    for (TestCase test : from) {
-      //here we switch to the original coverage
-      test.switchToClonedCoverage();
-      steps += test.getCoverage().getTotalSteps();
+
+    @Override
+    public int compareTo(Candidate o) {
+      if (score != o.score) return score > o.score ? -1 : 1;
+      return Integer.compare(index, o.index);
     }
-    for (TestCase test : suite) {
-      //here we switch to the original coverage
-      test.switchToClonedCoverage();
-      steps += test.getCoverage().getTotalSteps();
+  }
+
+  /**
+   * Scores a range of candidates against the suite coverage, splitting the range for parallel execution.
+   * The suite coverage is only read while this runs, and each candidate is only updated by a single task.
+   */
+  private static class ScoreTask extends RecursiveAction {
+    /** Ranges up to this size are scored in a single task. */
+    private static final int SPLIT_SIZE = 16;
+    /** For calculating the scores. */
+    private final ScoreCalculator calculator;
+    /** Coverage of the suite so far. */
+    private final TestCoverage suiteCoverage;
+    /** Size of the suite so far. */
+    private final int round;
+    /** The candidates to score. */
+    private final Candidate[] candidates;
+    /** Start index of the range to score, inclusive. */
+    private final int from;
+    /** End index of the range to score, exclusive. */
+    private final int to;
+
+    private ScoreTask(ScoreCalculator calculator, TestCoverage suiteCoverage, int round, Candidate[] candidates, int from, int to) {
+      this.calculator = calculator;
+      this.suiteCoverage = suiteCoverage;
+      this.round = round;
+      this.candidates = candidates;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SPLIT_SIZE) {
+        for (int i = from ; i < to ; i++) {
+          Candidate candidate = candidates[i];
+          candidate.score = calculator.addedScoreFor(suiteCoverage, candidate.test);
+          candidate.round = round;
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new ScoreTask(calculator, suiteCoverage, round, candidates, from, middle),
+              new ScoreTask(calculator, suiteCoverage, round, candidates, middle, to));
     }
-    log.i(id+":loops in sort:" + times + ", tests:" + suite.size() + ", steps:" + steps);
-    return suite;
   }
 
   public FSM getFsm() {
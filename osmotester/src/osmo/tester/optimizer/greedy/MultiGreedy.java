@@ -68,6 +68,8 @@ public class MultiGreedy {
   private int threshold = 1;
   /** Listeners to be notified about finishing some iterations or all generation. */
   private final Collection<IterationListener> listeners = new HashSet<>();
+  /** Number of threads to use for scoring tests in the final sort over all optimizer results. */
+  private int sortParallelism;
 
   /**
    * Uses number of processors on system as default for number of threads in the thread pool.
@@ -94,6 +96,7 @@ public class MultiGreedy {
     greedyPool = Executors.newFixedThreadPool(parallelism);
     rand = new Randomizer(seed);
     optimizerCount = parallelism;
+    sortParallelism = parallelism;
     midPath = "multi-greedy-"+seed+"/";
   }
 
@@ -113,6 +116,20 @@ public class MultiGreedy {
     this.threshold = threshold;
   }
 
+  public int getSortParallelism() {
+    return sortParallelism;
+  }
+
+  /**
+   * The final sort runs after all optimizers are done, so by default it uses as many threads as the optimizers.
+   * The results are the same for any value.
+   *
+   * @param sortParallelism Number of threads to use for scoring tests in the final sort.
+   */
+  public void setSortParallelism(int sortParallelism) {
+    this.sortParallelism = sortParallelism;
+  }
+
   public void enableDataTrace() {
     dataTrace = true;
   }
@@ -154,7 +171,7 @@ public class MultiGreedy {
 
     log.i("sorting set from all optimizers");
     //this does the final round of optimization for the set received from all optimizers..
-    tests = GreedyOptimizer.sortAndPrune(-1, tests, calculator, max);
+    tests = GreedyOptimizer.sortAndPrune(-1, tests, calculator, max, sortParallelism);
 
     tests = trimToMax(tests);
 
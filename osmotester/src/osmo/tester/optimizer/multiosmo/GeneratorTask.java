@@ -54,9 +54,9 @@ public class GeneratorTask implements Callable<TestCoverage> {
       long seed = seeder.nextLong();
       tester.generate(seed);
       TestSuite suite = tester.getSuite();
+      //the suite coverage is there even if the tests are not kept
+      tc.addCoverage(suite.getCoverage());
       List<TestCase> tests = suite.getAllTestCases();
-      TestCoverage tc2 = new TestCoverage(tests);
-      tc.addCoverage(tc2);
       if (traceAll) {
         OSMOTester.writeTrace("osmo-output/mosmo-task-"+id+"-i-"+i, tests, seed, config);
       } else {
@@ -39,6 +39,8 @@ public class Reducer {
   private final ReducerConfig config;
   /** Used to create random seeds for different tasks. Takes seed itself from reducer config. */
   private Randomizer rand;
+  /** Seeds for the shortening tasks, separate from {@link #rand} so the fuzz seeds do not depend on the number of shortening tasks. */
+  private Randomizer shorteningRand;
   private TestCase startTest = null;
 
   public Reducer(ReducerConfig config) {
@@ -72,9 +74,10 @@ public class Reducer {
     osmoConfig.setStopGenerationOnError(false);
     //using the base seed we create a randomizer to create seeds for all tasks
     rand = new Randomizer(config.getSeed());
+    shorteningRand = rand.child(0);
 
     //we need a list of all possible step names in the model to build reports in the end
-    MainParser parser = new MainParser();
+    MainParser parser = new MainParser(osmoConfig.getInvokerFactory());
     ParserResult parserResult = parser.parse(0, osmoConfig.getFactory(), null);
     FSM fsm = parserResult.getFsm();
     Collection<FSMTransition> transitions = fsm.getTransitions();
@@ -265,20 +268,18 @@ public class Reducer {
   /**
    * Tries to shorten current found test.
    * Meaning, removes a step at a time, sees if still produces exception, if so repeat with shorter.
+   * The steps to remove are shared between the parallel tasks through a {@link ShorteningScheduler}.
    *
    * @param state Current search state.
+   * @param waitTime Time to wait until signalling stop for shortening tasks if not stopped yet.
    */
   private void shorten(ReducerState state, long waitTime) {
     Collection<Runnable> tasks = new ArrayList<>();
-    List<TestCase> tests = state.getTests();
-    for (TestCase test : tests) {
-      ShortenerTask task = new ShortenerTask(osmoConfig, test, rand.nextLong(), state);
+    ShorteningScheduler scheduler = new ShorteningScheduler(state);
+    for (int i = 0; i < parallelism; i++) {
+      ShortenerTask task = new ShortenerTask(osmoConfig, scheduler, shorteningRand.nextLong(), state);
       tasks.add(task);
     }
-//    for (int i = 0; i < parallelism; i++) {
-//      ShortenerTask task = new ShortenerTask(osmoConfig, rand.nextLong(), state);
-//      tasks.add(task);
-//    }
     runTasks(tasks, state, waitTime);
   }
 
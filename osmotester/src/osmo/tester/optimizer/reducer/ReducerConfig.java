@@ -17,6 +17,8 @@ public class ReducerConfig {
   private long fuzzTime = 20;
   /** Defines maximum time to run a single iteration in a task after finding a test to reduce. */
   private TimeUnit fuzzUnit = TimeUnit.MINUTES;
+  /** If > 0, the final fuzz ends after generating this many tests, even if the fuzz time is not over. */
+  private int fuzzTestCount = 0;
   /** Defines maximum time to run a single iteration in a task after finding a test to reduce. */
   private long initialTime = 20;
   /** Defines maximum time to run a single iteration in a task after finding a test to reduce. */
@@ -117,6 +119,20 @@ public class ReducerConfig {
     this.fuzzTime = iterationTime;
   }
 
+  public int getFuzzTestCount() {
+    return fuzzTestCount;
+  }
+
+  /**
+   * Limits the final fuzz phase to a number of generated tests, instead of only the fuzz time.
+   * With a single thread, this makes the final fuzz produce the same tests on every run.
+   *
+   * @param fuzzTestCount Number of tests to generate, 0 or less for no limit.
+   */
+  public void setFuzzTestCount(int fuzzTestCount) {
+    this.fuzzTestCount = fuzzTestCount;
+  }
+
   public long getInitialTime() {
     return initialTime;
   }
@@ -1,9 +1,11 @@
 package osmo.tester.optimizer.reducer;
 
+import osmo.common.Deadline;
 import osmo.common.log.Logger;
 import osmo.tester.generator.testsuite.TestCase;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -27,10 +29,8 @@ public class ReducerState {
   private final AtomicInteger testCount = new AtomicInteger(0);
   /** All steps in the test model, regardless if taken in tests or not. */
   private final List<String> allSteps;
-  /** Time when current iteration started. */
-  public long startTime = Long.MIN_VALUE;
-  /** Iteration timeout in milliseconds. */
-  private long timeout = -1;
+  /** When the current iteration times out. Restarted for each new iteration. */
+  private Deadline deadline = Deadline.never();
   /** Current reduction configuration. */
   private final ReducerConfig config;
   /** The latest found test. Used to check for single step length and to set steps to search in next iteration. */
@@ -48,6 +48,8 @@ public class ReducerState {
   private ReductionPhase phase = ReductionPhase.INITIAL_SEARCH;
   private String finalFuzzTimes = "";
   private boolean needReport = false;
+  /** Number of tests generated before the final fuzz started. */
+  private int fuzzStartCount = 0;
 
   /**
    * @param allSteps All steps in the test model.
@@ -60,15 +62,13 @@ public class ReducerState {
   }
 
   public void startInitialSearch() {
-    this.timeout = config.getInitialUnit().toMillis(config.getInitialTime());
-    startTime = System.currentTimeMillis();
+    deadline = Deadline.after(config.getInitialTime(), config.getInitialUnit());
     phase = ReductionPhase.INITIAL_SEARCH;
     resetDone();
   }
 
   public void startShortening() {
-    this.timeout = config.getShorteningUnit().toMillis(config.getShorteningTime());
-    startTime = System.currentTimeMillis();
+    deadline = Deadline.after(config.getShorteningTime(), config.getShorteningUnit());
     phase = ReductionPhase.SHORTENING;
 
     //we need to update "minimum" size for later phases even if we still want to keep all sizes at start for diversity
@@ -86,9 +86,9 @@ public class ReducerState {
   }
 
   public void startFinalFuzz() {
-    this.timeout = config.getFuzzUnit().toMillis(config.getFuzzTime());
-    startTime = System.currentTimeMillis();
+    deadline = Deadline.after(config.getFuzzTime(), config.getFuzzUnit());
     phase = ReductionPhase.FINAL_FUZZ;
+    fuzzStartCount = testCount.get();
     resetDone();
   }
 
@@ -199,8 +199,7 @@ public class ReducerState {
     checkMinimum(test);
     //add the new test to the set of found tests for this length
     tests.add(test);
-    long now = System.currentTimeMillis();
-    long diff = now-startTime;
+    long diff = deadline.elapsed(TimeUnit.MILLISECONDS);
     finalFuzzTimes += tests.size()+";"+diff+"\n";
   }
 
@@ -214,7 +213,7 @@ public class ReducerState {
     if (length < minimum) {
       writeReport();
       //starting a new iteration, so store new start time for the iteration
-      startTime = System.currentTimeMillis();
+      deadline = deadline.restart();
 
       //set new state for the new iteration
       tests.clear();
@@ -293,16 +292,19 @@ public class ReducerState {
    * @param count Number of tests generated in an iteration, to add to overall metric.
    */
   public synchronized void testsDone(int count) {
-    testCount.addAndGet(count);
+    int total = testCount.addAndGet(count);
+    int limit = config.getFuzzTestCount();
+    if (phase == ReductionPhase.FINAL_FUZZ && limit > 0 && total - fuzzStartCount >= limit) {
+      log.i("Final fuzz test count reached");
+      endSearch();
+    }
     checkTimeout();
     writeReport();
   }
 
   private void checkTimeout() {
     //if our reduction iteration has passed its timeout we stop
-    long now = System.currentTimeMillis();
-    long diff = now - startTime;
-    if (diff > timeout) {
+    if (deadline.isPassed()) {
       log.i("Iteration timed out");
       endSearch();
     }
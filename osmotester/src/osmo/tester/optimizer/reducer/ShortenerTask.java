@@ -4,9 +4,10 @@ import osmo.common.Randomizer;
 import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.OSMOTester;
+import osmo.tester.generator.endcondition.EndCondition;
 import osmo.tester.generator.endcondition.Length;
+import osmo.tester.generator.endcondition.logical.Or;
 import osmo.tester.generator.testsuite.TestCase;
-import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.optimizer.reducer.debug.invariants.NumberOfSteps;
 import osmo.tester.scenario.Scenario;
 
@@ -20,6 +21,8 @@ import java.util.Map;
  * For example, test has 2 times step A and 3 times step B.
  * This tries to generate a set of tests with 1 A and 3 B.
  * If this does not reach target, it tries with 2 A and 2 B. Repeat for every step.
+ * The steps to remove are taken from a {@link ShorteningScheduler} shared by all the parallel tasks,
+ * which also stops the generation once another task has found a shorter test.
  *
  * @author Teemu Kanstren
  */
@@ -29,82 +32,60 @@ public class ShortenerTask implements Runnable {
   private final OSMOConfiguration osmoConfig;
   /** Current reduction state; found tests, iteration information, etc. */
   private final ReducerState state;
-  /** Set of steps that we have not tried to shorten (remove) in current iteration. */
-  private final Collection<String> untried = new HashSet<>();
+  /** Gives the steps to try to remove, and receives the generated tests. */
+  private final ShorteningScheduler scheduler;
   /** Base seed randomizer for the generators running in this task. Used to generate generator seeds. */
   private final Randomizer seeder;
   /** Number of tests to generate in one iteration. */
   private final int populationSize;
   /** Task iteration counter. */
   private static int nextId = 1;
-  /** Previous best test to improve on. */
-  private TestCase previousTest;
 
   /**
    *
    * @param osmoConfig Generator configuration.
-   * @param previousTest Previous best test to improve on.
+   * @param scheduler Shared between all shortener tasks, to provide the work and collect the results.
    * @param seed Seed for seeding generators.
    * @param state Current reducer state.
    */
-  public ShortenerTask(OSMOConfiguration osmoConfig, TestCase previousTest, long seed, ReducerState state) {
+  public ShortenerTask(OSMOConfiguration osmoConfig, ShorteningScheduler scheduler, long seed, ReducerState state) {
     this.osmoConfig = new OSMOConfiguration(osmoConfig);
     this.state = state;
-    this.previousTest = previousTest;
+    this.scheduler = scheduler;
     this.seeder = new Randomizer(seed);
     this.populationSize = state.getConfig().getPopulationSize();
+    //tests are passed to the scheduler as they finish, so others can stop as soon as a shorter one is found
+    this.osmoConfig.setTestSink(scheduler);
   }
 
   @Override
   public void run() {
-    state.resetDone();
     log.d("Starting new shortener");
     while (!state.isDone()) {
-      //TestCase previousTest = state.getTest();
-      //create a list of untried steps as all the steps in the test case. then try to remove each one at a time.
-      untried.clear();
-      untried.addAll(previousTest.getAllStepNames());
+      ShorteningScheduler.Candidate candidate = scheduler.next();
+      if (candidate == null) break;
+      TestCase previousTest = candidate.getTest();
+      String removeMe = candidate.getStep();
+      //create a new generator scenario allowing the steps in the test and with the chosen step removed
+      Scenario scenario = createScenario(previousTest, removeMe);
 
-      while (untried.size() > 0) {
-        String removeMe = untried.iterator().next();
-        untried.remove(removeMe);
-        //create a new generator scenario allowing the steps in the test and with the chosen step removed
-        Scenario scenario = createScenario(previousTest, removeMe);
-
-        OSMOTester tester = new OSMOTester();
-        osmoConfig.setScenario(scenario);
-        tester.setConfig(osmoConfig);
-        tester.setPrintCoverage(false);
-        int newMinimum = previousTest.getLength()-1;
-        log.d("removed:" + removeMe + " size now:" + newMinimum + " remaining:" + untried);
-        tester.setTestEndCondition(new Length(newMinimum));
-        //we need to try many as there can be many combinations possible
-        tester.setSuiteEndCondition(new Length(populationSize));
-        long seed = seeder.nextLong();
-        int id = nextId++;
-        log.d("Starting shortener run " + id + " with seed " + seed + " and population " + populationSize);
-        tester.generate(seed);
-        state.testsDone(populationSize);
-        TestSuite suite = tester.getSuite();
-        List<TestCase> tests = suite.getAllTestCases();
-
-        for (TestCase test : tests) {
-          //if we d, we ignore passing tests. if we look for requirements we look at them all
-          if (!state.getConfig().isRequirementsSearch() && !test.isFailed()) continue;
-          if (!state.check(test)) {
-            //in debugging mode this should never happen, in requirements mode can happen often
-            continue;
-          }
-          previousTest = test;
-          state.addTest(test);
-          untried.clear();
-        }
-        log.d("Finished with step " + removeMe);
-      }
-//      //if we did not find anything shorter, we finish
-//      if (!found) {
-//        state.finish();
-//      }
+      OSMOTester tester = new OSMOTester();
+      osmoConfig.setScenario(scenario);
+      tester.setConfig(osmoConfig);
+      tester.setPrintCoverage(false);
+      int newMinimum = previousTest.getLength()-1;
+      log.d("removed:" + removeMe + " size now:" + newMinimum);
+      //stop when the candidate becomes stale, as trying to reach the old length is no longer useful
+      EndCondition cancellation = scheduler.cancellation(candidate);
+      tester.setTestEndCondition(new Or(new Length(newMinimum), cancellation));
+      //we need to try many as there can be many combinations possible
+      tester.setSuiteEndCondition(new Or(new Length(populationSize), cancellation));
+      long seed = seeder.nextLong();
+      int id = nextId++;
+      log.d("Starting shortener run " + id + " with seed " + seed + " and population " + populationSize);
+      tester.generate(seed);
+      state.testsDone(tester.getSuite().currentTestNumber());
+      log.d("Finished with step " + removeMe);
     }
   }
 
@@ -0,0 +1,189 @@
+package osmo.tester.optimizer.reducer;
+
+import osmo.common.log.Logger;
+import osmo.tester.OSMOConfiguration;
+import osmo.tester.generator.endcondition.EndCondition;
+import osmo.tester.generator.testsuite.TestCase;
+import osmo.tester.generator.testsuite.TestSink;
+import osmo.tester.generator.testsuite.TestSuite;
+import osmo.tester.model.FSM;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Shares the shortening work between the {@link ShortenerTask} workers.
+ * The work is split into candidates, one for each step that can be removed from the current best tests.
+ * Each worker takes the next candidate from a shared queue when it finishes the previous one,
+ * so a worker never waits for others as long as there is work left.
+ * When the queue runs out, it is planned again from the current best tests, to retry them with new seeds.
+ * <p>
+ * The workers pass every finished test here as soon as it is generated ({@link TestSink}).
+ * When a shorter test is found, it becomes the new best and all candidates based on the older tests become stale.
+ * The queue is cleared and the generators working on stale candidates are stopped through the end condition
+ * from {@link #cancellation(Candidate)}.
+ *
+ * @author Teemu Kanstren
+ */
+public class ShorteningScheduler implements TestSink {
+  private static final Logger log = new Logger(ShorteningScheduler.class);
+  /** Current reduction state; found tests, iteration information, etc. */
+  private final ReducerState state;
+  /** The candidates not yet taken by any worker. */
+  private final Deque<Candidate> queue = new ArrayDeque<>();
+  /** The shortest test found so far. */
+  private volatile TestCase best = null;
+  /** Incremented each time a shorter test is found. Candidates from earlier rounds are stale. */
+  private volatile int round = 0;
+
+  /**
+   * @param state Current reducer state, with the tests to start shortening from.
+   */
+  public ShorteningScheduler(ReducerState state) {
+    this.state = state;
+    for (TestCase test : state.getTests()) {
+      if (best == null || test.getLength() < best.getLength()) best = test;
+    }
+  }
+
+  /** @return The shortest test found so far, null if none. */
+  public TestCase getBest() {
+    return best;
+  }
+
+  /**
+   * Gives the next candidate to try. If all candidates have been taken, plans a new set from the current tests.
+   *
+   * @return The next candidate, or null if there are no tests to shorten.
+   */
+  public synchronized Candidate next() {
+    if (queue.isEmpty()) plan();
+    return queue.poll();
+  }
+
+  /**
+   * Creates one candidate for each different step in each different test in the current state.
+   */
+  private void plan() {
+    Collection<List<String>> planned = new HashSet<>();
+    for (TestCase test : state.getTests()) {
+      List<String> steps = test.getAllStepNames();
+      //the initial tests are replicated for diversity, but one set of candidates is enough for each
+      if (!planned.add(steps)) continue;
+      for (String step : new HashSet<>(steps)) {
+        queue.add(new Candidate(test, step, round));
+      }
+    }
+    log.d("Planned " + queue.size() + " candidates for round " + round);
+  }
+
+  /**
+   * Receives the tests from the generators of the workers as soon as they are finished.
+   * If the test is better than the ones found before, it is stored in the reducer state.
+   * If it is also shorter than the current best, it starts a new round of shortening.
+   *
+   * @param test The finished test.
+   */
+  @Override
+  public void add(TestCase test) {
+    //if we debug, we ignore passing tests. if we look for requirements we look at them all
+    if (!state.getConfig().isRequirementsSearch() && !test.isFailed()) return;
+    synchronized (this) {
+      if (!state.check(test)) {
+        //in debugging mode this should never happen, in requirements mode can happen often
+        return;
+      }
+      state.addTest(test);
+      if (best != null && test.getLength() >= best.getLength()) return;
+      best = test;
+      round++;
+      queue.clear();
+      log.d("Found shorter test with length " + test.getLength() + ", starting round " + round);
+    }
+  }
+
+  /**
+   * Gives an end condition that stops test and suite generation once the given candidate is stale,
+   * or the search is done. Combine with the actual end conditions using {@link osmo.tester.generator.endcondition.logical.Or}.
+   *
+   * @param candidate The candidate being tried.
+   * @return The end condition.
+   */
+  public EndCondition cancellation(Candidate candidate) {
+    return new Cancellation(candidate.round);
+  }
+
+  /**
+   * A test to shorten and the step to remove from it.
+   */
+  public static class Candidate {
+    /** The test to shorten. */
+    private final TestCase test;
+    /** The step to have one less of. */
+    private final String step;
+    /** The round of shortening this was planned for. */
+    private final int round;
+
+    private Candidate(TestCase test, String step, int round) {
+      this.test = test;
+      this.step = step;
+      this.round = round;
+    }
+
+    public TestCase getTest() {
+      return test;
+    }
+
+    public String getStep() {
+      return step;
+    }
+
+    @Override
+    public String toString() {
+      return "Candidate{" +
+              "step='" + step + '\'' +
+              ", length=" + test.getLength() +
+              ", round=" + round +
+              '}';
+    }
+  }
+
+  /**
+   * Ends generation when the round it was started for is over.
+   */
+  private class Cancellation implements EndCondition {
+    /** The round of the candidate being generated. */
+    private final int started;
+
+    private Cancellation(int started) {
+      this.started = started;
+    }
+
+    private boolean isCancelled() {
+      return round != started || state.isDone();
+    }
+
+    @Override
+    public boolean endSuite(TestSuite suite, FSM fsm) {
+      return isCancelled();
+    }
+
+    @Override
+    public boolean endTest(TestSuite suite, FSM fsm) {
+      return isCancelled();
+    }
+
+    @Override
+    public void init(long seed, FSM fsm, OSMOConfiguration config) {
+    }
+
+    @Override
+    public EndCondition cloneMe() {
+      //the only state is the round, which is fixed
+      return this;
+    }
+  }
+}
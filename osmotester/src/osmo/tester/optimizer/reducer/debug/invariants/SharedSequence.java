@@ -1,89 +1,253 @@
 package osmo.tester.optimizer.reducer.debug.invariants;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Any common sequences of steps in all given test cases.
  * A sequence is list of steps one following another.
- * For example two tests 1:ABCD 2:ACDE we would have shared sequence of CD but not ACD since B is missing from between. 
+ * For example two tests 1:ABCD 2:ACDE we would have shared sequence of CD but not ACD since B is missing from between.
  * Only reports biggest shared sequences so if we have ABCD as shared sequence, ABC will not be reported.
- * 
+ * <p>
+ * A suffix automaton is built over the steps of the first test, with the step names interned to integer ids.
+ * Each state of the automaton represents a set of sequences in the first test, and for each state we track the
+ * length of the longest of those sequences that has been found in all the tests so far.
+ * Each following test is matched against the automaton in time linear to its length.
+ * The biggest shared sequences are then read directly from the states, without building all the sequences as strings.
+ *
  * @author Teemu Kanstren
  */
 public class SharedSequence {
-  /** Observed sequences. */
-  private Collection<String> sequences = new HashSet<>();
+  /** Steps of the first test, used to build the sequences for reporting. */
+  private List<String> first = Collections.emptyList();
+  /** Key = step name, value = id of the step in the automaton. */
+  private final Map<String, Integer> ids = new HashMap<>();
+  /** Number of states in the automaton. State 0 is the root for the empty sequence. */
+  private int size = 0;
+  /** Length of the longest sequence in each state. */
+  private int[] lengths;
+  /** The suffix link for each state, -1 for the root. */
+  private int[] links;
+  /** Position in first test where the sequences of each state first end. */
+  private int[] ends;
+  /** Step ids of the transitions for each state. */
+  private int[][] symbols;
+  /** Target states of the transitions for each state, matching the indices in {@link #symbols}. */
+  private int[][] targets;
+  /** Number of transitions for each state. */
+  private int[] degrees;
+  /** States in order of decreasing longest sequence length, for propagating matches to suffix links. */
+  private int[] order;
+  /** Length of longest sequence of each state that is found in all tests so far. */
+  private int[] common;
   /** Tells if we already processed a test or not, as we initialize only from the first one. */
   private boolean initialized = false;
 
   /**
    * Initialize by collecting sequences from given test.
    * Following iterations can only remove ones not present in new tests, not add new.
-   * This is because the first test did not have them so all tests will not have them. 
+   * This is because the first test did not have them so all tests will not have them.
    * Some may but we are looking for ones that are found in all. And first one is part of all.
-   * 
+   *
    * @param steps For the test to check.
    */
   public void init(List<String> steps) {
     if (initialized) return;
     initialized = true;
-    sequences.addAll(sequencesFor(steps));
+    first = new ArrayList<>(steps);
+    int max = Math.max(2, steps.size() * 2);
+    lengths = new int[max];
+    links = new int[max];
+    ends = new int[max];
+    symbols = new int[max][];
+    targets = new int[max][];
+    degrees = new int[max];
+    newState(0, -1);
+    links[0] = -1;
+    int last = 0;
+    for (int i = 0 ; i < steps.size() ; i++) {
+      Integer id = ids.get(steps.get(i));
+      if (id == null) {
+        id = ids.size();
+        ids.put(steps.get(i), id);
+      }
+      last = extend(last, id, i);
+    }
+    order = new int[size];
+    int[] buckets = new int[steps.size() + 2];
+    for (int s = 0 ; s < size ; s++) {
+      buckets[lengths[s]]++;
+    }
+    //counting sort by length, longest first
+    for (int i = buckets.length - 2 ; i >= 0 ; i--) {
+      buckets[i] += buckets[i + 1];
+    }
+    for (int s = 0 ; s < size ; s++) {
+      order[--buckets[lengths[s]]] = s;
+    }
+    common = Arrays.copyOf(lengths, size);
   }
 
   /**
-   * Find all possible sequences in given list of steps.
-   * 
-   * @param steps To find sequences from.
-   * @return Found sequences.
+   * Adds a step to the end of the automaton.
+   *
+   * @param last The state for the whole sequence so far.
+   * @param id Id of the step to add.
+   * @param index Index of the step in the test.
+   * @return The state for the whole sequence after adding the step.
+   */
+  private int extend(int last, int id, int index) {
+    int cur = newState(lengths[last] + 1, index);
+    int p = last;
+    while (p >= 0 && next(p, id) < 0) {
+      addTransition(p, id, cur);
+      p = links[p];
+    }
+    if (p < 0) {
+      links[cur] = 0;
+      return cur;
+    }
+    int q = next(p, id);
+    if (lengths[p] + 1 == lengths[q]) {
+      links[cur] = q;
+      return cur;
+    }
+    int clone = newState(lengths[p] + 1, ends[q]);
+    symbols[clone] = Arrays.copyOf(symbols[q], symbols[q].length);
+    targets[clone] = Arrays.copyOf(targets[q], targets[q].length);
+    degrees[clone] = degrees[q];
+    links[clone] = links[q];
+    while (p >= 0 && next(p, id) == q) {
+      setTransition(p, id, clone);
+      p = links[p];
+    }
+    links[q] = clone;
+    links[cur] = clone;
+    return cur;
+  }
+
+  private int newState(int length, int end) {
+    int state = size++;
+    lengths[state] = length;
+    ends[state] = end;
+    symbols[state] = new int[2];
+    targets[state] = new int[2];
+    return state;
+  }
+
+  /**
+   * @param state The state to transition from.
+   * @param id The step id for the transition.
+   * @return The target state, or -1 if there is no transition for the step.
    */
-  public Collection<String> sequencesFor(List<String> steps) {
-    Collection<String> result = new HashSet<>();
-    for (int i = 0 ; i <= steps.size() ; i++) {
-      for (int ii = i+1 ; ii <= steps.size() ; ii++) {
-        result.add(steps.subList(i, ii).toString());
+  private int next(int state, int id) {
+    int[] s = symbols[state];
+    for (int i = 0 ; i < degrees[state] ; i++) {
+      if (s[i] == id) return targets[state][i];
+    }
+    return -1;
+  }
+
+  private void addTransition(int state, int id, int target) {
+    int degree = degrees[state]++;
+    if (degree == symbols[state].length) {
+      symbols[state] = Arrays.copyOf(symbols[state], degree * 2);
+      targets[state] = Arrays.copyOf(targets[state], degree * 2);
+    }
+    symbols[state][degree] = id;
+    targets[state][degree] = target;
+  }
+
+  private void setTransition(int state, int id, int target) {
+    int[] s = symbols[state];
+    for (int i = 0 ; i < degrees[state] ; i++) {
+      if (s[i] == id) {
+        targets[state][i] = target;
+        return;
       }
     }
-    return result;
   }
 
   /**
    * Process given test and remove any patterns not found in it that were in previous ones.
-   * 
+   *
    * @param steps Of the test to process.
    */
   public void process(List<String> steps) {
-    Collection<String> seqs = sequencesFor(steps);
-    sequences.retainAll(seqs);
+    if (!initialized) return;
+    //longest match found in this test for each state
+    int[] matched = new int[size];
+    int state = 0;
+    int length = 0;
+    for (String step : steps) {
+      Integer id = ids.get(step);
+      if (id == null) {
+        //step not in first test, so no shared sequence can continue over it
+        state = 0;
+        length = 0;
+        continue;
+      }
+      while (state > 0 && next(state, id) < 0) {
+        state = links[state];
+        length = lengths[state];
+      }
+      int target = next(state, id);
+      if (target < 0) continue;
+      state = target;
+      length++;
+      if (length > matched[state]) matched[state] = length;
+    }
+    for (int s : order) {
+      int link = links[s];
+      //a match in a state means all sequences of its suffix link state are matched as well
+      if (matched[s] > 0 && link > 0) matched[link] = lengths[link];
+      if (matched[s] < common[s]) common[s] = matched[s];
+    }
   }
 
   /**
    * Returns the given sequences.
    * Used for reporting in template.
-   * 
+   *
    * @return Found sequences.
    */
   public Collection<String> getPatterns() {
-    List<String> duplicates = new ArrayList<>();
-    //first we remove all duplicates, that is one that are actually embedded in others
-    for (String seq1 : sequences) {
-      //first and last characters are [] which need to be removed to check for partial match
-      String check = seq1.substring(1, seq1.length()-1);
-      for (String seq2 : sequences) {
-        //if seq2 contains seq1 we do not report seq1
-        if (seq2.contains(check) && !seq1.equals(seq2)) {
-          duplicates.add(seq1);
-          break;
-        }
-      }
-    }
     List<String> result = new ArrayList<>();
-    result.addAll(sequences);
-    result.removeAll(duplicates);
+    if (!initialized) return result;
+    //a shared sequence is extended to the left if a state with it as suffix link has longer shared sequences
+    boolean[] leftExtended = new boolean[size];
+    for (int state = 1 ; state < size ; state++) {
+      int link = links[state];
+      if (common[state] > lengths[link]) leftExtended[link] = true;
+    }
+    for (int state = 1 ; state < size ; state++) {
+      int length = common[state];
+      //the shared sequences of this state are the ones longer than in suffix link, longest one is the candidate
+      if (length <= lengths[links[state]]) continue;
+      //a shorter one is always preceded by the same step in first test, and the longer one is not shared
+      if (length == lengths[state] && leftExtended[state]) continue;
+      if (rightExtended(state, length)) continue;
+      int end = ends[state] + 1;
+      result.add(first.subList(end - length, end).toString());
+    }
     Collections.sort(result);
     return result;
   }
+
+  /**
+   * @param state The state for the sequence.
+   * @param length Length of the sequence.
+   * @return True if the sequence followed by some step is also shared by all tests.
+   */
+  private boolean rightExtended(int state, int length) {
+    for (int i = 0 ; i < degrees[state] ; i++) {
+      if (common[targets[state][i]] > length) return true;
+    }
+    return false;
+  }
 }
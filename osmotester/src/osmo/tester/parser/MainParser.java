@@ -16,10 +16,14 @@ import osmo.tester.annotation.Guard;
 import osmo.tester.annotation.LastStep;
 import osmo.tester.annotation.Post;
 import osmo.tester.annotation.Pre;
+import osmo.tester.annotation.Restore;
+import osmo.tester.annotation.Snapshot;
 import osmo.tester.annotation.TestStep;
 import osmo.tester.annotation.Variable;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSM;
+import osmo.tester.model.InvokerFactory;
+import osmo.tester.model.MethodHandleInvoker;
 import osmo.tester.model.ModelFactory;
 import osmo.tester.model.Requirements;
 import osmo.tester.model.TestModels;
@@ -34,12 +38,8 @@ import osmo.tester.parser.field.TestSuiteParser;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -55,8 +55,18 @@ public class MainParser {
   private final Map<Class<? extends Annotation>, AnnotationParser> annotationParsers = new LinkedHashMap<>();
   /** Key = Annotation type, Value = The parser object for that annotation. */
   private final Map<Class, AnnotationParser> fieldParsers = new LinkedHashMap<>();
+  /** Creates the backend for invoking the parsed model methods. */
+  private final InvokerFactory invokerFactory;
 
   public MainParser() {
+    this(MethodHandleInvoker.FACTORY);
+  }
+
+  /**
+   * @param invokerFactory Creates the backend for invoking the parsed model methods (guards, steps, ...).
+   */
+  public MainParser(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
     //we set up the parser objects for the different annotation types
     annotationParsers.put(TestStep.class, new TestStepParser());
     annotationParsers.put(Guard.class, new GuardParser());
@@ -72,6 +82,8 @@ public class MainParser {
     annotationParsers.put(Variable.class, new VariableParser());
     annotationParsers.put(ExplorationEnabler.class, new ExplorationEnablerParser());
     annotationParsers.put(GenerationEnabler.class, new GenerationEnablerParser());
+    annotationParsers.put(Snapshot.class, new SnapshotParser());
+    annotationParsers.put(Restore.class, new RestoreParser());
     annotationParsers.put(Group.class, new GroupParser());
     annotationParsers.put(Description.class, new DescriptionParser());
     
@@ -96,6 +108,7 @@ public class MainParser {
     ParserParameters parameters = new ParserParameters();
     parameters.setSuite(suite);
     parameters.setSeed(seed);
+    parameters.setInvokerFactory(invokerFactory);
     String errors = "";
     TestModels models = new TestModels();
     factory.createModelObjects(models);
@@ -108,12 +121,14 @@ public class MainParser {
       parameters.setPrefix(prefix);
       Object obj = mo.getObject();
       parameters.setModel(obj);
+      //the reflective scan of the class is done only once per class, here we just bind it to the new object
+      ModelMetadata metadata = ModelMetadata.forClass(obj.getClass(), annotationParsers.keySet(), fieldParsers.keySet());
       //first we parse generic annotations from class level
-      errors += parseClass(result, parameters);
+      errors += parseClass(result, parameters, metadata);
       //next we check any annotated fields that are relevant
-      errors += parseFields(result, parameters);
+      errors += parseFields(result, parameters, metadata);
       //finally we check any annotated methods that are relevant
-      errors += parseMethods(result, parameters);
+      errors += parseMethods(result, parameters, metadata);
     }
     //finally we check that the generated FSM itself is valid
     fsm.checkFSM(errors);
@@ -121,19 +136,18 @@ public class MainParser {
     return result;
   }
 
-  private String parseClass(ParserResult result, ParserParameters parameters) {
-    Class clazz = parameters.getModelClass();
-    Annotation[] annotations = clazz.getAnnotations();
+  private String parseClass(ParserResult result, ParserParameters parameters, ModelMetadata metadata) {
+    Annotation[] annotations = metadata.getClassAnnotations();
     String errors = "";
     for (Annotation annotation : annotations) {
       Class<? extends Annotation> annotationClass = annotation.annotationType();
-      log.d("class annotation:" + annotationClass);
+      log.d("class annotation:{}", annotationClass);
       AnnotationParser parser = annotationParsers.get(annotationClass);
       if (parser == null) {
         //unsupported annotation (e.g. for some completely different tool)
         continue;
       }
-      log.d("parser:" + parser);
+      log.d("parser:{}", parser);
       //set the annotation itself as a parameter to the used parser object
       parameters.setAnnotation(annotation);
       //and finally parse it
@@ -145,31 +159,32 @@ public class MainParser {
    * Parse the relevant annotated fields and pass these to correct {@link AnnotationParser} objects.
    *
    * @param result The parse results will be provided here.
+   * @param metadata The cached structure of the model object class.
    * @return A string listing all found errors.
    */
-  private String parseFields(ParserResult result, ParserParameters parameters) {
-    Object obj = parameters.getModel();
-    //first we find all declared fields of any scope and type (private, protected, ...)
-    Collection<Field> fields = getAllFields(obj.getClass());
-    log.d("fields " + fields.size());
+  private String parseFields(ParserResult result, ParserParameters parameters, ModelMetadata metadata) {
+    //all declared fields of any scope and type (private, protected, ...) that are relevant for us
+    Collection<ModelMetadata.AnnotatedMember<Field>> fields = metadata.getFields();
+    log.d("fields {}", fields.size());
     String errors = "";
     //now we loop through all fields defined in the model object
-    for (Field field : fields) {
-      log.d("field:" + field);
+    for (ModelMetadata.AnnotatedMember<Field> member : fields) {
+      Field field = member.getMember();
+      log.d("field:{}", field);
       //set the field to be accessible from the parser objects
       parameters.setField(field);
-      Annotation[] annotations = field.getAnnotations();
+      Annotation[] annotations = member.getAnnotations();
       parameters.setFieldAnnotations(annotations);
       //loop through all defined annotations for each field
       for (Annotation annotation : annotations) {
         Class<? extends Annotation> annotationClass = annotation.annotationType();
-        log.d("field annotation:" + annotationClass);
+        log.d("field annotation:{}", annotationClass);
         AnnotationParser parser = annotationParsers.get(annotationClass);
         if (parser == null) {
           //unsupported annotation (e.g. for some completely different tool)
           continue;
         }
-        log.d("parser:" + parser);
+        log.d("parser:{}", parser);
         //set the annotation itself as a parameter to the used parser object
         parameters.setAnnotation(annotation);
         //and finally parse it
@@ -188,7 +203,7 @@ public class MainParser {
       if (parserType.isAssignableFrom(fieldClass)) {
         AnnotationParser fieldParser = fieldParsers.get(parserType);
         if (fieldParser != null) {
-          log.d("field parser invocation:" + parameters);
+          log.d("field parser invocation:{}", parameters);
           errors += fieldParser.parse(result, parameters);
         }
       }
@@ -197,43 +212,37 @@ public class MainParser {
   }
 
   public static Collection<Field> getAllFields(Class clazz) {
-    Class<?> superclass = clazz.getSuperclass();
-    Collection<Field> fields = new ArrayList<>();
-    if (superclass != null) {
-      fields.addAll(getAllFields(superclass));
-    }
-    Collections.addAll(fields, clazz.getDeclaredFields());
-    return fields;
+    return ModelMetadata.getAllFields(clazz);
   }
 
   /**
    * Parse the relevant annotated methods and pass these to correct {@link AnnotationParser} objects.
    *
    * @param result This is where the parsing results are given.
+   * @param metadata The cached structure of the model object class.
    * @return String representing any errors encountered.
    */
-  private String parseMethods(ParserResult result, ParserParameters parameters) {
-    Object obj = parameters.getModel();
-    //first we get all methods defined in the test model object (also all scopes -> private, protected, ...)
-    Collection<Method> methods = getAllMethods(obj.getClass());
-    //there are always some methods inherited from java.lang.Object so we checking them here is pointless. FSM.check will do it
-    log.d("methods " + methods.size());
+  private String parseMethods(ParserResult result, ParserParameters parameters, ModelMetadata metadata) {
+    //all methods defined in the test model object with relevant annotations (also all scopes -> private, protected, ...)
+    Collection<ModelMetadata.AnnotatedMember<Method>> methods = metadata.getMethods();
+    log.d("methods {}", methods.size());
     String errors = "";
     //loop through all the methods defined in the given object
-    for (Method method : methods) {
-      log.d("method:" + method);
+    for (ModelMetadata.AnnotatedMember<Method> member : methods) {
+      Method method = member.getMember();
+      log.d("method:{}", method);
       parameters.setMethod(method);
-      Annotation[] annotations = method.getAnnotations();
+      Annotation[] annotations = member.getAnnotations();
       //check all annotations for supported ones, use the given object to process them
       for (Annotation annotation : annotations) {
         Class<? extends Annotation> annotationClass = annotation.annotationType();
-        log.d("class:" + annotationClass);
+        log.d("class:{}", annotationClass);
         AnnotationParser parser = annotationParsers.get(annotationClass);
         if (parser == null) {
           //unsupported annotation (e.g. for some completely different aspect)
           continue;
         }
-        log.d("parser:" + parser);
+        log.d("parser:{}", parser);
         //set the annotation itself as a parameter to the used parser object
         parameters.setAnnotation(annotation);
         //and finally parse it
@@ -242,21 +251,4 @@ public class MainParser {
     }
     return errors;
   }
-
-  private Collection<Method> getAllMethods(Class clazz) {
-    Class<?> superclass = clazz.getSuperclass();
-    List<Method> methods = new ArrayList<>();
-    if (superclass != null) {
-      methods.addAll(getAllMethods(superclass));
-    }
-    Collections.addAll(methods, clazz.getMethods());
-    //sort them by names and hope for a more deterministic result..
-    Collections.sort(methods, new Comparator<Method>() {
-      @Override
-      public int compare(Method o1, Method o2) {
-        return o1.getName().compareTo(o2.getName());
-      }
-    });
-    return methods;
-  }
 }
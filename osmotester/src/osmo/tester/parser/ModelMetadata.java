@@ -0,0 +1,156 @@
+package osmo.tester.parser;
+
+import osmo.common.log.Logger;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The reflective structure of a model object class as needed by the {@link MainParser}.
+ * Scanning the class hierarchy for fields, methods and annotations is expensive and the result is always the
+ * same for a given class. So it is done only once per class and shared by all parsers in the JVM
+ * (different tests, optimizers and explorer threads). The parser then only needs to bind the fresh model object
+ * instances from the {@link osmo.tester.model.ModelFactory} to these.
+ *
+ * @author Teemu Kanstren
+ */
+public class ModelMetadata {
+  private static final Logger log = new Logger(ModelMetadata.class);
+  /** Key = model object class, Value = the parsed metadata for that class. */
+  private static final Map<Class, ModelMetadata> cache = new ConcurrentHashMap<>();
+  /** Annotations defined at the class level. */
+  private final Annotation[] classAnnotations;
+  /** The fields that are relevant to the parser, either due to annotations or due to their type. */
+  private final List<AnnotatedMember<Field>> fields = new ArrayList<>();
+  /** The methods that have annotations relevant to the parser, in the order they should be parsed. */
+  private final List<AnnotatedMember<Method>> methods = new ArrayList<>();
+
+  private ModelMetadata(Class clazz, Collection<Class<? extends Annotation>> annotationTypes, Collection<Class> fieldTypes) {
+    log.d("Creating metadata for " + clazz);
+    this.classAnnotations = clazz.getAnnotations();
+    for (Field field : getAllFields(clazz)) {
+      Annotation[] annotations = field.getAnnotations();
+      if (hasAny(annotations, annotationTypes) || isAnyOf(field.getType(), fieldTypes)) {
+        //we bypass the private etc. modifiers to access it, once is enough
+        field.setAccessible(true);
+        fields.add(new AnnotatedMember<>(field, annotations));
+      }
+    }
+    for (Method method : getAllMethods(clazz)) {
+      Annotation[] annotations = method.getAnnotations();
+      if (hasAny(annotations, annotationTypes)) {
+        methods.add(new AnnotatedMember<>(method, annotations));
+      }
+    }
+  }
+
+  /**
+   * Provides the metadata for the given class, creating it on first request.
+   *
+   * @param clazz The model object class.
+   * @param annotationTypes The annotations supported by the parser.
+   * @param fieldTypes The field types supported by the parser.
+   * @return The metadata for the given class.
+   */
+  public static ModelMetadata forClass(Class clazz, Collection<Class<? extends Annotation>> annotationTypes, Collection<Class> fieldTypes) {
+    ModelMetadata metadata = cache.get(clazz);
+    if (metadata == null) {
+      metadata = new ModelMetadata(clazz, annotationTypes, fieldTypes);
+      //if someone else was faster, we use theirs to keep a single copy around
+      ModelMetadata previous = cache.putIfAbsent(clazz, metadata);
+      if (previous != null) metadata = previous;
+    }
+    return metadata;
+  }
+
+  private static boolean hasAny(Annotation[] annotations, Collection<Class<? extends Annotation>> types) {
+    for (Annotation annotation : annotations) {
+      if (types.contains(annotation.annotationType())) return true;
+    }
+    return false;
+  }
+
+  private static boolean isAnyOf(Class fieldClass, Collection<Class> types) {
+    for (Class type : types) {
+      if (type.isAssignableFrom(fieldClass)) return true;
+    }
+    return false;
+  }
+
+  public static Collection<Field> getAllFields(Class clazz) {
+    Class<?> superclass = clazz.getSuperclass();
+    Collection<Field> fields = new ArrayList<>();
+    if (superclass != null) {
+      fields.addAll(getAllFields(superclass));
+    }
+    Collections.addAll(fields, clazz.getDeclaredFields());
+    return fields;
+  }
+
+  private static Collection<Method> getAllMethods(Class clazz) {
+    Class<?> superclass = clazz.getSuperclass();
+    List<Method> methods = new ArrayList<>();
+    if (superclass != null) {
+      methods.addAll(getAllMethods(superclass));
+    }
+    Collections.addAll(methods, clazz.getMethods());
+    //sort them by names and hope for a more deterministic result..
+    Collections.sort(methods, new Comparator<Method>() {
+      @Override
+      public int compare(Method o1, Method o2) {
+        return o1.getName().compareTo(o2.getName());
+      }
+    });
+    return methods;
+  }
+
+  public Annotation[] getClassAnnotations() {
+    return classAnnotations;
+  }
+
+  public List<AnnotatedMember<Field>> getFields() {
+    return fields;
+  }
+
+  public List<AnnotatedMember<Method>> getMethods() {
+    return methods;
+  }
+
+  /** Removes all cached metadata. Mainly useful for tests and for environments that reload model classes. */
+  public static void clear() {
+    cache.clear();
+  }
+
+  /**
+   * A field or method in the model class, together with its annotations.
+   *
+   * @param <T> Type of the member (field or method).
+   */
+  public static class AnnotatedMember<T> {
+    /** The field or method itself. */
+    private final T member;
+    /** All annotations defined for the member. */
+    private final Annotation[] annotations;
+
+    public AnnotatedMember(T member, Annotation[] annotations) {
+      this.member = member;
+      this.annotations = annotations;
+    }
+
+    public T getMember() {
+      return member;
+    }
+
+    public Annotation[] getAnnotations() {
+      return annotations;
+    }
+  }
+}
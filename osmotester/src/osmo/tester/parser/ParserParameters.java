@@ -1,6 +1,8 @@
 package osmo.tester.parser;
 
 import osmo.tester.generator.testsuite.TestSuite;
+import osmo.tester.model.InvokerFactory;
+import osmo.tester.model.MethodHandleInvoker;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -35,6 +37,8 @@ public class ParserParameters {
   private TestSuite suite = null;
   /** Randomization seed. */
   private Long seed = null;
+  /** Used to create the backend for invoking the parsed model methods. */
+  private InvokerFactory invokerFactory = MethodHandleInvoker.FACTORY;
 
   public Object getModel() {
     return model;
@@ -100,6 +104,14 @@ public class ParserParameters {
     this.seed = seed;
   }
 
+  public InvokerFactory getInvokerFactory() {
+    return invokerFactory;
+  }
+
+  public void setInvokerFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
+  }
+
   public void setFieldAnnotations(Annotation[] annotations) {
     fieldAnnotations.clear();
     Collections.addAll(this.fieldAnnotations, annotations);
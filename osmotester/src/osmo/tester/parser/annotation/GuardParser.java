@@ -41,6 +41,7 @@ public class GuardParser implements AnnotationParser {
     for (String givenName : transitionNames) {
       FSM fsm = result.getFsm();
       InvocationTarget target = new InvocationTarget(parameters, Guard.class);
+      target.setInputNames(g.reads());
       if (givenName.equals(Guard.DEFAULT)) {
         String methodName = parameters.getMethod().getName();
         givenName = findNameFrom(methodName);
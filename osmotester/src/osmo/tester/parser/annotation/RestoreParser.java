@@ -0,0 +1,33 @@
+package osmo.tester.parser.annotation;
+
+import osmo.common.log.Logger;
+import osmo.tester.annotation.Restore;
+import osmo.tester.model.InvocationTarget;
+import osmo.tester.parser.AnnotationParser;
+import osmo.tester.parser.ParserParameters;
+import osmo.tester.parser.ParserResult;
+
+import java.lang.reflect.Method;
+
+/**
+ * Parses {@link osmo.tester.annotation.Restore} annotations from the given model object.
+ *
+ * @author Teemu Kanstren
+ */
+public class RestoreParser implements AnnotationParser {
+  private static final Logger log = new Logger(RestoreParser.class);
+
+  @Override
+  public String parse(ParserResult result, ParserParameters parameters) {
+    Method method = parameters.getMethod();
+    String errors = "";
+    String name = "@" + Restore.class.getSimpleName();
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    if (parameterTypes.length != 1) {
+      errors += name + " methods must have one parameter: \"" + method.getName() + "()\" has " +
+              parameterTypes.length + " parameters.\n";
+    }
+    result.getFsm().addRestore(new InvocationTarget(parameters, Restore.class));
+    return errors;
+  }
+}
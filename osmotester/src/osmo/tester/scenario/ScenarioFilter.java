@@ -1,17 +1,23 @@
 package osmo.tester.scenario;
 
+import osmo.tester.coverage.CoverageIds;
+import osmo.tester.generator.testsuite.TestCase;
+import osmo.tester.generator.testsuite.TestCaseStep;
 import osmo.tester.model.FSMTransition;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 /** 
  * Filters the set of enabled steps for the generator to match those allowed by the defined scenario.
  * This takes care of startup sequence and maximum values for steps in a slice. Also removes forbidden steps.
  * However, minimum numbers are taken care of by the end condition created when the scenario is initialized.
  * See the {@link Scenario} class for that.
+ * <p>
+ * The scenario is turned into lookups by step id when the filter is first used, and the steps in a slice are counted
+ * as they are added to the test. So filtering costs the same regardless of test length.
  * 
  * @author Teemu Kanstren 
  */
@@ -19,21 +25,49 @@ public class ScenarioFilter {
   /** The test scenario. */
   private final Scenario scenario;
   /** Index where the slice should start being evaluated, excludes initial startup sequence. */
-  private final int sliceIndex;
-  /** Key = step name, value = slice for that step. */
-  private Map<String, Slice> slices = new LinkedHashMap<>();
+  private int sliceIndex = -1;
+  /** Step ids of the startup sequence, in order. */
+  private int[] startup = new int[0];
+  /** Step ids of the forbidden steps. */
+  private final BitSet forbidden = new BitSet();
+  /** Key = step id, value = maximum for the slice of that step. 0 for no maximum. */
+  private int[] maximums = new int[0];
+  /** Key = step id, value = times the step has been taken in the current test after the startup sequence. */
+  private int[] counts = new int[0];
+  /** The steps of the test that were counted, to notice when a new test is started or the steps are replaced. */
+  private List<TestCaseStep> counted = null;
+  /** Number of steps counted from {@link #counted}. */
+  private int countedSize = 0;
 
   public ScenarioFilter(Scenario scenario) {
     this.scenario = scenario;
-    if (scenario == null) {
-      sliceIndex = -1;
-      return;
+  }
+
+  /** 
+   * Creates the lookups from the scenario. Done on first use, since the scenario adds the forbidden steps for
+   * strict mode only when it is validated against the model.
+   */
+  private void init() {
+    List<String> startupNames = scenario.getStartup();
+    startup = new int[startupNames.size()];
+    for (int i = 0 ; i < startup.length ; i++) {
+      startup[i] = CoverageIds.STEPS.idFor(startupNames.get(i));
+    }
+    for (String name : scenario.getForbidden()) {
+      forbidden.set(CoverageIds.STEPS.idFor(name));
     }
-    List<Slice> slices = scenario.getSlices();
-    for (Slice slice : slices) {
-      this.slices.put(slice.getStepName(), slice);
+    for (Slice slice : scenario.getSlices()) {
+      int id = CoverageIds.STEPS.idFor(slice.getStepName());
+      if (id >= maximums.length) maximums = Arrays.copyOf(maximums, id + 1);
+      maximums[id] = slice.getMax();
     }
-    sliceIndex = scenario.getStartup().size();
+    counts = new int[maximums.length];
+    sliceIndex = startup.length;
+  }
+
+  /** @return True if a scenario is defined and filtering should be applied. */
+  public boolean isActive() {
+    return scenario != null;
   }
 
   /**
@@ -41,65 +75,70 @@ public class ScenarioFilter {
    * If a startup sequence is defined, the only allowed step is the one next in the startup sequence.
    * If maximum number(s) are defined for a scenario slice(s), any that have reached that number are removed.
    * 
-   * @param enabled    The currently enabled steps for the generator.
-   * @param stepsSoFar The steps taken so far in the current test case.
+   * @param enabled The currently enabled steps for the generator.
+   * @param test    The test case being generated.
    */
-  public void filter(List<FSMTransition> enabled, List<String> stepsSoFar) {
+  public void filter(List<FSMTransition> enabled, TestCase test) {
     if (scenario == null) return;
-    if (stepsSoFar.size() < scenario.getStartup().size()) {
-      filterStartup(enabled, stepsSoFar);
+    if (sliceIndex < 0) init();
+    List<TestCaseStep> steps = test.getSteps();
+    if (steps.size() < sliceIndex) {
+      filterStartup(enabled, steps.size());
     } else {
-      filterSlice(enabled, stepsSoFar);
+      count(steps);
+      filterSlice(enabled);
     }
   }
 
   /**
-   * Filter the enabled steps according to the slices for those steps. 
-   * If no slice is defined for a step, nothing is done for that step.
+   * Updates the slice step counts for the steps added since the last call.
+   * If the test has changed (new test or steps replaced from a prefix), the counts are started over.
    * 
-   * @param enabled    Currently enabled steps in generator.
-   * @param stepsSoFar Steps taken so far in current test case.
+   * @param steps The steps of the current test.
    */
-  private void filterSlice(List<FSMTransition> enabled, List<String> stepsSoFar) {    
-    //first we count how many times each step appears in the current trace after startup sequence
-    Map<String, Integer> stepCount = new LinkedHashMap<>();
-    for (int si = sliceIndex ; si < stepsSoFar.size() ; si++) {
-      String step = stepsSoFar.get(si);
-      Integer count = stepCount.get(step);
-      if (count == null) count = 0;
-      count++;
-      stepCount.put(step, count);
+  private void count(List<TestCaseStep> steps) {
+    if (steps != counted || steps.size() < countedSize) {
+      Arrays.fill(counts, 0);
+      counted = steps;
+      countedSize = sliceIndex;
     }
+    for (int i = countedSize ; i < steps.size() ; i++) {
+      int id = steps.get(i).getStepId();
+      if (id < counts.length) counts[id]++;
+    }
+    countedSize = steps.size();
+  }
 
-    //next we remove all steps that are forbidden or have appeared the max number of times
+  /**
+   * Filter the enabled steps according to the slices for those steps. 
+   * If no slice is defined for a step, nothing is done for that step.
+   * 
+   * @param enabled Currently enabled steps in generator.
+   */
+  private void filterSlice(List<FSMTransition> enabled) {
+    //we remove all steps that are forbidden or have appeared the max number of times
     for (Iterator<FSMTransition> ei = enabled.iterator() ; ei.hasNext() ; ) {
-      FSMTransition t = ei.next();
-      String name = t.getStringName();
-      if (scenario.getForbidden().contains(name)) {
+      int id = ei.next().getStepId();
+      if (forbidden.get(id)) {
         ei.remove();
         continue;
       }
-      Slice slice = slices.get(name);
-      if (slice != null) {
-        Integer count = stepCount.get(name);
-        if (count == null) count = 0;
-        int max = slice.getMax();
-        if (max > 0 && max <= count) ei.remove();
-      }
+      if (id >= maximums.length) continue;
+      int max = maximums[id];
+      if (max > 0 && max <= counts[id]) ei.remove();
     }
   }
 
   /**
    * Forces the startup sequence to be taken.
    * 
-   * @param enabled    Set of enabled steps.
-   * @param stepsSoFar Set of steps taken so far for the test case.
+   * @param enabled Set of enabled steps.
+   * @param length  Number of steps taken so far for the test case.
    */
-  private void filterStartup(List<FSMTransition> enabled, List<String> stepsSoFar) {
-    String now = scenario.getStartup().get(stepsSoFar.size());
+  private void filterStartup(List<FSMTransition> enabled, int length) {
+    int now = startup[length];
     for (Iterator<FSMTransition> i = enabled.iterator() ; i.hasNext() ; ) {
-      FSMTransition t = i.next();
-      if (!t.getStringName().equals(now)) i.remove();
+      if (i.next().getStepId() != now) i.remove();
     }
   }
   
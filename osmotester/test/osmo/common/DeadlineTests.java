@@ -0,0 +1,38 @@
+package osmo.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Teemu Kanstren
+ */
+public class DeadlineTests {
+  @Test
+  public void never() {
+    Deadline deadline = Deadline.never();
+    assertFalse("Never should not pass", deadline.isPassed());
+    assertEquals("Remaining for never", Long.MAX_VALUE, deadline.remaining(TimeUnit.MILLISECONDS));
+    assertSame("Restarted never", deadline, deadline.restart());
+  }
+
+  @Test
+  public void passes() throws Exception {
+    Deadline deadline = Deadline.after(50, TimeUnit.MILLISECONDS);
+    assertFalse("Should not pass immediately", deadline.isPassed());
+    assertTrue("Remaining time", deadline.remaining(TimeUnit.MILLISECONDS) <= 50);
+    Thread.sleep(60);
+    assertTrue("Should pass after the time", deadline.isPassed());
+    assertEquals("Remaining when passed", 0, deadline.remaining(TimeUnit.MILLISECONDS));
+    assertTrue("Elapsed time", deadline.elapsed(TimeUnit.MILLISECONDS) >= 50);
+    Deadline restarted = deadline.restart();
+    assertFalse("Restarted should not pass immediately", restarted.isPassed());
+  }
+
+  @Test
+  public void zeroPassesImmediately() {
+    assertTrue("Zero time", Deadline.after(0, TimeUnit.SECONDS).isPassed());
+  }
+}
@@ -0,0 +1,76 @@
+package osmo.common;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import osmo.common.log.Logger;
+
+import java.lang.reflect.Field;
+import java.util.logging.Level;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Teemu Kanstren
+ */
+public class LoggerTests {
+  private Level consoleLevel = Logger.consoleLevel;
+  private String packageName = Logger.packageName;
+  private Object useJul;
+  private Object file;
+  private int calls = 0;
+
+  /** Switches to the OSMO configuration (no JDK logging config, no log file), whatever osmo-tester.properties says. */
+  @Before
+  public void setup() throws Exception {
+    useJul = setStatic("useJul", false);
+    file = setStatic("file", null);
+    Logger.packageName = "";
+  }
+
+  @After
+  public void restore() throws Exception {
+    Logger.consoleLevel = consoleLevel;
+    Logger.packageName = packageName;
+    setStatic("useJul", useJul);
+    setStatic("file", file);
+  }
+
+  private Object setStatic(String name, Object value) throws Exception {
+    Field field = Logger.class.getDeclaredField(name);
+    field.setAccessible(true);
+    Object old = field.get(null);
+    field.set(null, value);
+    return old;
+  }
+
+  @Test
+  public void debugInfo() {
+    Logger.consoleLevel = Level.INFO;
+    Logger log = new Logger(LoggerTests.class);
+    assertFalse("Debug should be disabled for INFO", log.isDebugEnabled());
+    buildMessages(log);
+    assertEquals("Number of debug messages built", 0, calls);
+  }
+
+  @Test
+  public void debugFine() {
+    Logger.consoleLevel = Level.FINE;
+    Logger log = new Logger(LoggerTests.class);
+    assertTrue("Debug should be enabled for FINE", log.isDebugEnabled());
+    buildMessages(log);
+    assertEquals("Number of debug messages built", 2, calls);
+  }
+
+  private void buildMessages(Logger log) {
+    log.d(() -> "calls:" + (++calls));
+    log.d("calls:{} {}", new Counter(), "done");
+  }
+
+  private class Counter {
+    @Override
+    public String toString() {
+      return "" + (++calls);
+    }
+  }
+}
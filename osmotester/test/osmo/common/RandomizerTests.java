@@ -0,0 +1,95 @@
+package osmo.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Teemu Kanstren
+ */
+public class RandomizerTests {
+  @Test
+  public void compatibleValues() {
+    Random random = new Random(55);
+    for (int i = 0 ; i < 3 ; i++) {
+      random.nextDouble();
+    }
+    Randomizer rand = new Randomizer(55);
+    for (int i = 0 ; i < 100 ; i++) {
+      assertEquals("Value " + i, random.nextInt(10), rand.nextInt(0, 9));
+      assertEquals("Double " + i, random.nextDouble(), rand.nextDouble(), 0d);
+    }
+  }
+
+  @Test
+  public void weightedChoices() {
+    List<Integer> list = Arrays.asList(1, 2, 2, 3);
+    int[] array = {1, 2, 2, 3};
+    List<Integer> sums = Arrays.asList(1, 3, 5, 8);
+    Randomizer listRand = new Randomizer(111);
+    Randomizer arrayRand = new Randomizer(111);
+    Randomizer sumRand = new Randomizer(111);
+    for (int i = 0 ; i < 1000 ; i++) {
+      int expected = listRand.rawWeightedRandomFrom(list);
+      assertEquals("Array choice " + i, expected, arrayRand.weightedRandomFrom(array));
+      assertEquals("Sum choice " + i, expected, sumRand.sumWeightedRandomFrom(sums));
+    }
+  }
+
+  @Test
+  public void doubleWeights() {
+    double[] weights = {0.1, 0.3, 0.6};
+    int[] counts = new int[3];
+    Randomizer rand = new Randomizer(111);
+    for (int i = 0 ; i < 10000 ; i++) {
+      counts[rand.weightedRandomFrom(weights)]++;
+    }
+    assertEquals("Proportion of zeroes", 0.1d, counts[0] / 10000d, 0.02d);
+    assertEquals("Proportion of ones", 0.3d, counts[1] / 10000d, 0.03d);
+    assertEquals("Proportion of twos", 0.6d, counts[2] / 10000d, 0.03d);
+  }
+
+  @Test
+  public void oneOfCollection() {
+    List<String> list = new ArrayList<>(Arrays.asList("a", "b", "c", "d", "e"));
+    LinkedHashSet<String> set = new LinkedHashSet<>(list);
+    Randomizer listRand = new Randomizer(222);
+    Randomizer setRand = new Randomizer(222);
+    for (int i = 0 ; i < 100 ; i++) {
+      assertEquals("Choice " + i, listRand.oneOf(list), setRand.oneOf(set));
+    }
+  }
+
+  @Test
+  public void childSeeds() {
+    Randomizer parent = new Randomizer(333);
+    long first = parent.childSeed(0);
+    parent.nextInt();
+    assertEquals("Child seed should not depend on generated values", first, parent.childSeed(0));
+    assertNotEquals("Different children should have different seeds", first, parent.childSeed(1));
+    assertNotEquals("Different parents should give different seeds", first, new Randomizer(334).childSeed(0));
+    assertEquals("Child seed", first, parent.child(0).getSeed());
+  }
+
+  @Test
+  public void splittableEngine() {
+    Randomizer rand1 = new Randomizer(444, SplittableRandomEngine::new);
+    Randomizer rand2 = new Randomizer(444, SplittableRandomEngine::new);
+    for (int i = 0 ; i < 100 ; i++) {
+      int value = rand1.nextInt(5, 10);
+      assertEquals("Value " + i, value, rand2.nextInt(5, 10));
+      assertTrue("Value should be between 5-10:" + value, value >= 5 && value <= 10);
+      float f = rand1.nextFloat();
+      assertEquals("Float " + i, f, rand2.nextFloat(), 0f);
+      assertTrue("Float should be between 0-1:" + f, f >= 0 && f < 1);
+    }
+    Randomizer child = rand1.child(1);
+    assertEquals("Child should use same engine", new Randomizer(child.getSeed(), SplittableRandomEngine::new).nextLong(), child.nextLong());
+  }
+}
@@ -0,0 +1,86 @@
+package osmo.tester.unittests.algorithm;
+
+import org.junit.Test;
+import osmo.common.Randomizer;
+import osmo.tester.generator.algorithm.WeightedChoice;
+import osmo.tester.model.FSMTransition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Teemu Kanstren
+ */
+public class WeightedChoiceTests {
+  private final FSMTransition a = new FSMTransition("ChoiceA");
+  private final FSMTransition b = new FSMTransition("ChoiceB");
+  private final FSMTransition c = new FSMTransition("ChoiceC");
+  private final FSMTransition d = new FSMTransition("ChoiceD");
+
+  @Test
+  public void sameAsIntegerWeights() {
+    List<FSMTransition> all = Arrays.asList(a, b, c, d);
+    int[] weights = {1, 2, 2, 3};
+    WeightedChoice choice = new WeightedChoice(all, true);
+    for (int i = 0 ; i < weights.length ; i++) {
+      choice.setWeight(i, weights[i]);
+    }
+    Randomizer rand1 = new Randomizer(111);
+    Randomizer rand2 = new Randomizer(111);
+    for (int i = 0 ; i < 1000 ; i++) {
+      //a different subset each round, keeping the index order
+      List<FSMTransition> available = new ArrayList<>();
+      List<Integer> availableWeights = new ArrayList<>();
+      for (int n = 0 ; n < all.size() ; n++) {
+        if (n == i % 5) continue;
+        available.add(all.get(n));
+        availableWeights.add(weights[n]);
+      }
+      int expected = rand1.rawWeightedRandomFrom(availableWeights);
+      assertEquals("Choice " + i, available.get(expected), choice.choose(available, rand2));
+    }
+  }
+
+  @Test
+  public void changingWeights() {
+    WeightedChoice choice = new WeightedChoice(Arrays.asList(a, b, c), false);
+    choice.setWeight(0, 1);
+    choice.setWeight(1, 1);
+    choice.setWeight(2, 1);
+    int index = choice.add(d);
+    assertEquals("Index for added step", 3, index);
+    choice.setWeight(index, 0.5);
+    Randomizer rand = new Randomizer(222);
+    List<FSMTransition> all = Arrays.asList(a, b, c, d);
+    List<FSMTransition> some = Arrays.asList(b, d);
+    int[] counts = new int[4];
+    for (int i = 0 ; i < 20000 ; i++) {
+      //weight of C keeps changing while B and D come and go
+      choice.setWeight(2, i % 2 == 0 ? 2 : 4);
+      FSMTransition chosen = choice.choose(i % 2 == 0 ? all : some, rand);
+      counts[choice.indexOf(chosen)]++;
+    }
+    //all: 1+1+2+0.5 = 4.5 for 10000 rounds, some: 1+0.5 = 1.5 for 10000 rounds
+    assertEquals("A", 10000 / 4.5, counts[0], 150);
+    assertEquals("B", 10000 / 4.5 + 10000 / 1.5, counts[1], 200);
+    assertEquals("C", 10000 * 2 / 4.5, counts[2], 200);
+    assertEquals("D", 10000 * 0.5 / 4.5 + 10000 * 0.5 / 1.5, counts[3], 200);
+  }
+
+  @Test
+  public void invalidWeight() {
+    WeightedChoice choice = new WeightedChoice(Arrays.asList(a, b), true);
+    choice.setWeight(0, 1);
+    choice.setWeight(1, 0);
+    assertEquals("Only valid step", a, choice.choose(Arrays.asList(a), new Randomizer(1)));
+    try {
+      choice.choose(Arrays.asList(a, b), new Randomizer(1));
+      fail("Weight 0 should not be allowed for available step");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Exception message", "Weight must be > 0. Was 0.0.", e.getMessage());
+    }
+  }
+}
@@ -55,10 +55,10 @@ public class WeightedDistributionTests {
 
   @Test
   public void balancingLength1000() {
-    listener.setExpected("bob1", 1622);
-    listener.setExpected("bob2", 2290);
-    listener.setExpected("bob3", 2799);
-    listener.setExpected("bob4", 3289);
+    listener.setExpected("bob1", 1652);
+    listener.setExpected("bob2", 2284);
+    listener.setExpected("bob3", 2821);
+    listener.setExpected("bob4", 3243);
     osmo.setModelFactory(new ReflectiveModelFactory(WeightedModel1.class));
     Length length4 = new Length(10000);
     Length length1 = new Length(1);
@@ -107,10 +107,10 @@ public class WeightedDistributionTests {
 
   @Test
   public void balancingLength200Suite6() {
-    listener.setExpected("bob1", 205);
-    listener.setExpected("bob2", 269);
-    listener.setExpected("bob3", 320);
-    listener.setExpected("bob4", 406);
+    listener.setExpected("bob1", 198);
+    listener.setExpected("bob2", 267);
+    listener.setExpected("bob3", 339);
+    listener.setExpected("bob4", 396);
     osmo.setModelFactory(new ReflectiveModelFactory(WeightedModel1.class));
     Length length4 = new Length(200);
     Length length1 = new Length(6);
@@ -0,0 +1,147 @@
+package osmo.tester.unittests.coverage;
+
+import org.junit.Test;
+import osmo.tester.OSMOTester;
+import osmo.tester.coverage.CoverageIds;
+import osmo.tester.coverage.IdSet;
+import osmo.tester.coverage.ScoreCalculator;
+import osmo.tester.coverage.ScoreConfiguration;
+import osmo.tester.coverage.TestCoverage;
+import osmo.tester.generator.ReflectiveModelFactory;
+import osmo.tester.generator.endcondition.Length;
+import osmo.tester.unittests.testmodels.CalculatorModel;
+
+import static org.junit.Assert.*;
+
+/** @author Teemu Kanstren */
+public class TestCoverageTests {
+  @Test
+  public void idSetKeepsOrder() {
+    IdSet set = new IdSet();
+    for (int i = 100 ; i > 0 ; i--) {
+      assertTrue("New element should be added", set.add(i * 7));
+    }
+    assertFalse("Duplicate should not be added", set.add(7));
+    assertEquals("Set size", 100, set.size());
+    assertEquals("First element", 700, set.get(0));
+    assertEquals("Last element", 7, set.get(99));
+    IdSet remove = new IdSet();
+    remove.add(700);
+    remove.add(14);
+    remove.add(3);
+    set.removeAll(remove);
+    assertEquals("Set size after remove", 98, set.size());
+    assertEquals("First element after remove", 693, set.get(0));
+    assertEquals("Last element after remove", 7, set.get(97));
+    assertFalse("Removed element should not be found", set.contains(14));
+    assertTrue("Remaining element should be found", set.contains(21));
+  }
+
+  @Test
+  public void clearValues() {
+    CoverageIds.VALUES.idFor("clear-test");
+    int generation = CoverageIds.VALUES.getGeneration();
+    CoverageIds.generationStarted();
+    try {
+      CoverageIds.clearValues();
+      fail("Clearing values during generation should fail");
+    } catch (IllegalStateException e) {
+      //expected
+    } finally {
+      CoverageIds.generationEnded();
+    }
+    assertEquals("Generation after failed clear", generation, CoverageIds.VALUES.getGeneration());
+    assertTrue("Values should be kept after failed clear", CoverageIds.VALUES.size() > 0);
+    CoverageIds.clearValues();
+    assertEquals("Number of values after clear", 0, CoverageIds.VALUES.size());
+    assertEquals("Generation after clear", generation + 1, CoverageIds.VALUES.getGeneration());
+    int first = CoverageIds.VALUES.idFor("second");
+    assertEquals("Ids start again from first", 1, first);
+    assertEquals("Name for reused id", "second", CoverageIds.VALUES.nameFor(first));
+  }
+
+  @Test
+  public void generateAfterClearingValues() {
+    String before = generateValues();
+    CoverageIds.clearValues();
+    assertEquals("Values after clear", before, generateValues());
+  }
+
+  private String generateValues() {
+    OSMOTester tester = new OSMOTester();
+    tester.setModelFactory(new ReflectiveModelFactory(CalculatorModel.class));
+    tester.setTestEndCondition(new Length(10));
+    tester.setSuiteEndCondition(new Length(3));
+    tester.generate(55);
+    TestCoverage tc = tester.getSuite().getCoverage();
+    return tc.getVariableValues() + " " + tc.getStates() + " " + tc.getStatePairs();
+  }
+
+  @Test
+  public void cloneAndRemove() {
+    TestCoverage tc = new TestCoverage();
+    tc.addStep("one");
+    tc.addStep("two");
+    tc.addStep("one");
+    tc.addVariableValue("var", "1");
+    tc.addVariableValue("var", "2");
+    tc.addUserCoverage("cv", "a");
+    tc.addUserCoverage("cv", "b");
+    tc.coveredRequirement("req");
+    TestCoverage clone = tc.cloneMe();
+    assertEquals("Cloned coverage", tc.toString(), clone.toString());
+    assertEquals("Step pairs", "[.osmo.tester.start.step->one, one->two, two->one]", tc.getStepPairs().toString());
+    assertEquals("Step counts", "{one=2, two=1}", tc.getStepCoverage().toString());
+    assertEquals("Coverage value pairs", "{cv-pair=[osmo.tester.START_STATE->a, a->b]}", tc.getStatePairs().toString());
+
+    TestCoverage other = new TestCoverage();
+    other.addStep("two");
+    other.addVariableValue("var", "2");
+    other.addUserCoverage("cv", "b");
+    clone.removeAll(other);
+    assertEquals("Singles after remove", "[one]", clone.getSingles().toString());
+    assertEquals("Values after remove", "{var=[1]}", clone.getVariableValues().toString());
+    assertEquals("Coverage values after remove", "{cv=[a]}", clone.getStates().toString());
+    assertEquals("Original singles should not change", "[one, two]", tc.getSingles().toString());
+    assertEquals("Original values should not change", 2, tc.getValueCount());
+  }
+
+  @Test
+  public void addedScoreMatchesUnion() {
+    ScoreConfiguration config = new ScoreConfiguration();
+    config.setLengthWeight(1);
+    config.setStepWeight(2);
+    config.setStepPairWeight(3);
+    config.setVariableCountWeight(4);
+    config.setStateWeight(5);
+    config.setStatePairWeight(6);
+    config.setRequirementWeight(7);
+    config.setVariableWeight("var", 8);
+    ScoreCalculator calculator = new ScoreCalculator(config);
+
+    TestCoverage suite = new TestCoverage();
+    suite.addStep("one");
+    suite.addStep("two");
+    suite.addVariableValue("var", "1");
+    suite.addUserCoverage("cv", "a");
+    suite.coveredRequirement("req1");
+
+    TestCoverage test = new TestCoverage();
+    test.addStep("one");
+    test.addStep("three");
+    test.addStep("two");
+    test.addVariableValue("var", "1");
+    test.addVariableValue("var", "2");
+    test.addVariableValue("other", "x");
+    test.addUserCoverage("cv", "a");
+    test.addUserCoverage("cv", "b");
+    test.coveredRequirement("req1");
+    test.coveredRequirement("req2");
+
+    TestCoverage union = test.cloneMe();
+    union.addCoverage(suite);
+    int expected = calculator.calculateScore(union) - calculator.calculateScore(suite);
+    assertEquals("Added score", expected, calculator.addedScoreFor(suite, test));
+    assertEquals("Suite should not change", "[one, two]", suite.getSingles().toString());
+  }
+}
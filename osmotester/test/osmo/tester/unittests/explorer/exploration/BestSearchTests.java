@@ -1,11 +1,13 @@
 package osmo.tester.unittests.explorer.exploration;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import osmo.tester.OSMOTester;
 import osmo.tester.coverage.ScoreCalculator;
 import osmo.tester.coverage.TestCoverage;
 import osmo.tester.explorer.ExplorationConfiguration;
+import osmo.tester.explorer.ExplorationExecutor;
 import osmo.tester.explorer.ExplorationState;
 import osmo.tester.explorer.MainExplorer;
 import osmo.tester.generator.MainGenerator;
@@ -27,6 +29,7 @@ import static junit.framework.Assert.*;
 /** @author Teemu Kanstren */
 public class BestSearchTests {
   private ExplorationConfiguration config;
+  private ExplorationExecutor executor;
 
   @Before
   public void startUp() {
@@ -37,6 +40,12 @@ public class BestSearchTests {
     config.setMinTestLength(1);
     config.setMinTestScore(150);
     config.setFallbackProbability(1d);
+    executor = new ExplorationExecutor(4);
+  }
+
+  @After
+  public void shutdown() {
+    executor.shutdown();
   }
 
   @Test
@@ -62,7 +71,7 @@ public class BestSearchTests {
     FSM fsm = generator.getFsm();
 
     ExplorationState state = new ExplorationState(config, suiteCoverage);
-    explorer.init(fsm, generator.getSuite(), state, script, 4);
+    explorer.init(fsm, generator.getSuite(), state, script, executor);
 
     config.getFallback(seed, fsm);
 
@@ -109,7 +118,7 @@ public class BestSearchTests {
     FSM fsm = generator.getFsm();
 
     ExplorationState state = new ExplorationState(config, suiteCoverage);
-    explorer.init(fsm, generator.getSuite(), state, script, 4);
+    explorer.init(fsm, generator.getSuite(), state, script, executor);
 
     long seed = System.currentTimeMillis();
     FSMTraversalAlgorithm fallback = config.getFallback(seed, fsm);
@@ -169,7 +178,7 @@ public class BestSearchTests {
 
     MainExplorer explorer = new MainExplorer(null);
     FSM fsm = generator.getFsm();
-    explorer.init(fsm, generator.getSuite(), state, script, 4);
+    explorer.init(fsm, generator.getSuite(), state, script, executor);
     config.getFallback(seed, fsm);
     
     List<TestCase> tests = new ArrayList<>();
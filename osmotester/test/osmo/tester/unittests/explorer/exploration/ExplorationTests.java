@@ -13,11 +13,18 @@ import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.ModelFactory;
 import osmo.tester.unittests.explorer.testmodels.CVCounterModel;
 import osmo.tester.unittests.explorer.testmodels.CounterFactory;
+import osmo.tester.unittests.explorer.testmodels.CounterModel;
 import osmo.tester.unittests.explorer.testmodels.PaperModel1Factory;
+import osmo.tester.unittests.explorer.testmodels.SnapshotCounterModel;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -311,6 +318,102 @@ public class ExplorationTests {
     assertEquals("Explored counter tests", expected, actual);
   }
   
+  @Test
+  public void counterModelWithSnapshots() {
+    SnapshotCounterModel.restores = 0;
+    ModelFactory factory = new SnapshotCounterModel.Factory();
+    OSMOExplorer osmo = new OSMOExplorer();
+    ExplorationConfiguration config = new ExplorationConfiguration(factory, 4, 55);
+    config.setMinSuiteLength(1);
+    config.setStepWeight(30);
+    config.setStepPairWeight(20);
+    config.setDefaultValueWeight(7);
+    config.setVariableCountWeight(5);
+    config.setRequirementWeight(20);
+    config.setMaxTestLength(10);
+    config.setMinSuiteScore(50);
+    config.setMaxSuiteLength(10);
+    config.setSuitePlateauThreshold(50);
+    osmo.explore(config);
+    List<TestCase> cases = osmo.getSuite().getAllTestCases();
+    String actual = cases.toString();
+    //same as without snapshots in counterModelWithMaxLength10
+    String expected = "[TestCase:[start, increase, increase, increase, increase, increase, increase, decrease, decrease, increase], TestCase:[start, increase, decrease, increase, increase, increase, increase, increase, increase, increase], TestCase:[start, increase, increase, increase, decrease, increase, decrease, decrease, increase, decrease]]";
+    assertEquals("Explored counter tests", expected, actual);
+    assertTrue("Exploration should start from restored states", SnapshotCounterModel.restores > 0);
+  }
+
+  @Test
+  public void counterModelWithTranspositions() {
+    CounterModel.increases = 0;
+    CounterModel.decreases = 0;
+    OSMOExplorer osmo = new OSMOExplorer();
+    ExplorationConfiguration config = new ExplorationConfiguration(new CounterFactory(), 4, 55);
+    config.setMinSuiteLength(1);
+    config.setStepWeight(30);
+    config.setStepPairWeight(20);
+    config.setDefaultValueWeight(7);
+    config.setVariableCountWeight(5);
+    config.setRequirementWeight(20);
+    config.setMaxTestLength(10);
+    config.setMinSuiteScore(50);
+    config.setMaxSuiteLength(10);
+    config.setSuitePlateauThreshold(50);
+    config.setTranspositions(true);
+    osmo.explore(config);
+    List<TestCase> cases = osmo.getSuite().getAllTestCases();
+    String actual = cases.toString();
+    int withTranspositions = CounterModel.increases + CounterModel.decreases;
+    //same as without transpositions in counterModelWithMaxLength10
+    String expected = "[TestCase:[start, increase, increase, increase, increase, increase, increase, decrease, decrease, increase], TestCase:[start, increase, decrease, increase, increase, increase, increase, increase, increase, increase], TestCase:[start, increase, increase, increase, decrease, increase, decrease, decrease, increase, decrease]]";
+    assertEquals("Explored counter tests", expected, actual);
+
+    CounterModel.increases = 0;
+    CounterModel.decreases = 0;
+    config.setTranspositions(false);
+    osmo = new OSMOExplorer();
+    osmo.explore(config);
+    assertEquals("Explored counter tests", expected, osmo.getSuite().getAllTestCases().toString());
+    int withoutTranspositions = CounterModel.increases + CounterModel.decreases;
+    assertTrue("Transpositions should reduce executed steps (" + withTranspositions + " vs " + withoutTranspositions + ")",
+            withTranspositions < withoutTranspositions);
+  }
+
+  @Test
+  public void explorationThreadsReleased() throws Exception {
+    //the models for the explored paths are created in the exploration pool, so we can capture it there
+    Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+    ModelFactory factory = models -> {
+      ForkJoinPool pool = ForkJoinTask.getPool();
+      if (pool != null) pools.add(pool);
+      new CounterFactory().createModelObjects(models);
+    };
+    ExplorationConfiguration config = new ExplorationConfiguration(factory, 3, 55);
+    config.setMinSuiteLength(1);
+    config.setMaxTestLength(10);
+    config.setMaxSuiteLength(2);
+    config.setParallelism(2);
+    osmo.explore(config);
+    assertEquals("Number of tests", 2, osmo.getSuite().getAllTestCases().size());
+    long end = System.currentTimeMillis() + 5000;
+    while (explorerThreads() > 0 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals("Explorer threads alive after exploration", 0, explorerThreads());
+    assertFalse("Exploration should run in a pool", pools.isEmpty());
+    for (ForkJoinPool pool : pools) {
+      assertTrue("Exploration pool should be terminated", pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+  }
+
+  private int explorerThreads() {
+    int count = 0;
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.isAlive() && thread.getName().startsWith("osmo-explorer")) count++;
+    }
+    return count;
+  }
+
   @Test
   public void report() throws Exception {
     OSMOExplorer osmo = new OSMOExplorer();
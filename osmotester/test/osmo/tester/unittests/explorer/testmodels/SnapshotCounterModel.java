@@ -0,0 +1,97 @@
+package osmo.tester.unittests.explorer.testmodels;
+
+import osmo.tester.annotation.BeforeTest;
+import osmo.tester.annotation.Guard;
+import osmo.tester.annotation.Restore;
+import osmo.tester.annotation.Snapshot;
+import osmo.tester.annotation.TestStep;
+import osmo.tester.annotation.Variable;
+import osmo.tester.model.ModelFactory;
+import osmo.tester.model.Requirements;
+import osmo.tester.model.TestModels;
+
+/**
+ * Same as {@link CounterModel} but allows the explorer to capture and restore its state.
+ *
+ * @author Teemu Kanstren
+ */
+public class SnapshotCounterModel {
+  private Requirements req = new Requirements();
+  @Variable
+  private int counter = 0;
+  private static final String REQ_INCREASE = "increase";
+  private static final String REQ_DECREASE = "decrease";
+  /** Number of times state has been restored. */
+  public static int restores = 0;
+
+  public SnapshotCounterModel() {
+    req.add(REQ_INCREASE);
+    req.add(REQ_DECREASE);
+  }
+
+  @BeforeTest
+  public void start() {
+    counter = 0;
+  }
+
+  @Snapshot
+  public Integer save() {
+    return counter;
+  }
+
+  @Restore
+  public void load(Integer state) {
+    counter = state;
+    restores++;
+  }
+
+  @Guard("start")
+  public boolean checkStart() {
+    return counter == 0;
+  }
+
+  @TestStep("start")
+  public void startState() {
+    counter++;
+  }
+
+  @Guard("decrease")
+  public boolean toDecreaseOrNot() {
+    return counter > 1;
+  }
+
+  @TestStep("decrease")
+  public void decreaseState() {
+    req.covered(REQ_DECREASE);
+    counter--;
+  }
+
+  @Guard("increase")
+  public boolean shallWeIncrease() {
+    return counter > 0;
+  }
+
+  @TestStep("increase")
+  public void increaseState() {
+    req.covered(REQ_INCREASE);
+    counter++;
+  }
+
+  /** Invalid as it has no restore and the snapshot returns nothing. */
+  public static class NoRestore {
+    @Snapshot
+    public void save() {
+    }
+
+    @TestStep("step")
+    public void step() {
+    }
+  }
+
+  public static class Factory implements ModelFactory {
+    @Override
+    public void createModelObjects(TestModels addHere) {
+      addHere.add(new SnapshotCounterModel());
+    }
+  }
+}
@@ -2,6 +2,7 @@ package osmo.tester.unittests.generation;
 
 import org.junit.Before;
 import org.junit.Test;
+import osmo.common.SplittableRandomEngine;
 import osmo.tester.OSMOTester;
 import osmo.tester.generator.ReflectiveModelFactory;
 import osmo.tester.generator.SingleInstanceModelFactory;
@@ -12,11 +13,16 @@ import osmo.tester.generator.endcondition.logical.And;
 import osmo.tester.generator.endcondition.logical.Or;
 import osmo.tester.generator.listener.AbstractListener;
 import osmo.tester.generator.testsuite.TestCase;
+import osmo.tester.model.Invoker;
+import osmo.tester.model.InvokerFactory;
+import osmo.tester.model.MethodHandleInvoker;
+import osmo.tester.model.ReflectionInvoker;
 import osmo.tester.model.Requirements;
 import osmo.tester.unittests.testmodels.BaseModelExtension;
 import osmo.tester.unittests.testmodels.CalculatorModel;
 import osmo.tester.unittests.testmodels.CoverageValueModel1;
 import osmo.tester.unittests.testmodels.GroupModel2;
+import osmo.tester.unittests.testmodels.GuardInputModel;
 import osmo.tester.unittests.testmodels.GuardianModel;
 import osmo.tester.unittests.testmodels.PartialModel1;
 import osmo.tester.unittests.testmodels.PartialModel2;
@@ -29,6 +35,8 @@ import osmo.tester.unittests.testmodels.VariableModel2;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static junit.framework.Assert.*;
@@ -77,6 +85,54 @@ public class GenerationTests {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void guardWithDeclaredInputs() {
+    GuardInputModel model = new GuardInputModel();
+    osmo.addModelObject(model);
+    osmo.setTestEndCondition(new Length(30));
+    osmo.setSuiteEndCondition(new Length(1));
+    osmo.generate(333);
+    assertTrue("Guard should limit the count", model.getCount() <= 3);
+    assertEquals("Guard should be invoked only when its input changes", model.getCount() + 1, model.getGuardCalls());
+  }
+
+  @Test
+  public void generateTestModel2WithReflection() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1000);
+    PrintStream ps = new PrintStream(out);
+    osmo.setModelFactory(new ValidTestModel2.MyModelFactory(new Requirements(), ps));
+    osmo.getConfig().setInvokerFactory(ReflectionInvoker.FACTORY);
+    Length length3 = new Length(3);
+    Length length1 = new Length(1);
+    osmo.setTestEndCondition(length3);
+    osmo.setSuiteEndCondition(length1);
+    osmo.generate(111);
+    String expected = ":hello:world:epixx_pre:epixx:epixx_oracle:last";
+    String actual = out.toString();
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void configuredRandomEngine() {
+    List<String> first = stepsWithEngine(true);
+    assertEquals("Same engine and seed should give same tests", first, stepsWithEngine(true));
+    assertFalse("Different engine should give different tests", first.equals(stepsWithEngine(false)));
+  }
+
+  private List<String> stepsWithEngine(boolean splittable) {
+    OSMOTester tester = new OSMOTester();
+    tester.setModelFactory(new ReflectiveModelFactory(CalculatorModel.class));
+    if (splittable) tester.getConfig().setRandomEngine(SplittableRandomEngine::new);
+    tester.setTestEndCondition(new Length(20));
+    tester.setSuiteEndCondition(new Length(3));
+    tester.generate(55);
+    List<String> steps = new ArrayList<>();
+    for (TestCase test : tester.getSuite().getAllTestCases()) {
+      steps.addAll(test.getAllStepNames());
+    }
+    return steps;
+  }
+
   @Test
   public void generateTestModel3() {
     ByteArrayOutputStream out = new ByteArrayOutputStream(1000);
@@ -338,5 +394,46 @@ public class GenerationTests {
     });
     osmo.generate(444);
   }
+
+  @Test
+  public void invokerArgumentErrors() throws Exception {
+    checkArgumentErrors(MethodHandleInvoker.FACTORY);
+    checkArgumentErrors(ReflectionInvoker.FACTORY);
+  }
+
+  private void checkArgumentErrors(InvokerFactory factory) throws Exception {
+    ArgumentModel model = new ArgumentModel();
+    Invoker number = factory.create(model, ArgumentModel.class.getMethod("number", int.class));
+    assertEquals("Invoked with int", 6, number.invoke(5));
+    try {
+      number.invoke("5");
+      fail("Wrong argument type should fail");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      number.invoke(null);
+      fail("Null for primitive argument should fail");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    Invoker text = factory.create(model, ArgumentModel.class.getMethod("text", String.class));
+    try {
+      text.invoke("hello");
+      fail("Exception from the method should be thrown");
+    } catch (InvocationTargetException e) {
+      assertEquals("Exception from the method", "hello", e.getCause().getMessage());
+    }
+  }
+
+  public static class ArgumentModel {
+    public int number(int i) {
+      return i + 1;
+    }
+
+    public void text(String text) {
+      throw new IllegalStateException(text);
+    }
+  }
 }
 
@@ -4,6 +4,7 @@ import org.junit.Test;
 import osmo.tester.OSMOTester;
 import osmo.tester.generator.SingleInstanceModelFactory;
 import osmo.tester.generator.endcondition.Length;
+import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.Requirements;
 import osmo.tester.unittests.testmodels.ValidTestModel2;
 
@@ -30,6 +31,24 @@ public class RequirementTests {
     assertEquals(0, reqs.getExcess().size());
   }
 
+  @Test
+  public void duplicateCoverage() {
+    Requirements reqs = new Requirements();
+    TestSuite suite = new TestSuite();
+    suite.startTest(1);
+    reqs.setTestSuite(suite);
+    reqs.covered("r1");
+    reqs.covered("r1");
+    assertEquals("Full coverage with kept tests", "[r1, r1]", reqs.getFullCoverage().toString());
+    suite = new TestSuite();
+    suite.setKeepTests(false);
+    suite.startTest(1);
+    reqs.setTestSuite(suite);
+    reqs.covered("r1");
+    reqs.covered("r1");
+    assertEquals("Full coverage without kept tests", "[r1]", reqs.getFullCoverage().toString());
+  }
+
   @Test
   public void excessCoverage() {
     Requirements reqs = new Requirements();
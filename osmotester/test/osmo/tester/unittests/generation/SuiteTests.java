@@ -1,11 +1,13 @@
 package osmo.tester.unittests.generation;
 
 import org.junit.Test;
+import osmo.tester.coverage.TestCoverage;
 import osmo.tester.generator.testsuite.TestCase;
 import osmo.tester.generator.testsuite.TestCaseStep;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSMTransition;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -105,6 +107,74 @@ public class SuiteTests {
     assertFalse(suite.contains(new FSMTransition("bob4")));
   }
 
+  @Test
+  public void streamingSuite() {
+    TestSuite suite = new TestSuite();
+    suite.setKeepTests(false);
+    List<TestCase> sink = new ArrayList<>();
+    suite.setTestSink(sink::add);
+    suite.startTest(1);
+    suite.addStep(new FSMTransition("bob"));
+    suite.addStep(new FSMTransition("alice"));
+    suite.coveredRequirement("r1");
+    suite.endTest();
+    suite.startTest(1);
+    suite.addStep(new FSMTransition("bob2"));
+    assertEquals("Tests kept in suite", 1, suite.getAllTestCases().size());
+    assertEquals("Tests passed to sink", 1, sink.size());
+    assertEquals("Steps in test passed to sink", 2, sink.get(0).getSteps().size());
+    assertEquals("Number of total steps in test suite", 3, suite.totalSteps());
+    assertEquals("Number of kept steps in test suite", 1, suite.keptSteps());
+    assertTrue(suite.contains(new FSMTransition("bob")));
+    assertTrue(suite.contains(new FSMTransition("bob2")));
+    assertFalse(suite.contains(new FSMTransition("bob3")));
+    suite.endTest();
+    assertEquals("Tests kept in suite", 0, suite.getAllTestCases().size());
+    assertEquals("Tests passed to sink", 2, sink.size());
+    assertEquals("Suite step coverage", 3, suite.getCoverage().getTotalSteps());
+    assertEquals("Suite requirements coverage", 1, suite.getCoverage().getRequirementCount());
+  }
+
+  @Test
+  public void stepCounts() {
+    TestSuite suite = new TestSuite();
+    FSMTransition bob = new FSMTransition("bob");
+    FSMTransition alice = new FSMTransition("alice");
+    suite.startTest(1);
+    suite.addStep(bob);
+    suite.addStep(bob);
+    TestCase prefix = suite.getCurrentTest().copy();
+    suite.endTest();
+    suite.startTest(1);
+    suite.addStep(alice);
+    assertEquals("Count for bob", 2, suite.stepCount(bob));
+    assertEquals("Count for alice", 1, suite.stepCount(new FSMTransition("alice")));
+    //continuing from a prefix replaces the steps of the current test
+    suite.continueTest(prefix);
+    assertEquals("Count for bob", 4, suite.stepCount(bob));
+    assertEquals("Count for alice", 0, suite.stepCount(alice));
+    assertFalse(suite.contains(alice));
+    assertEquals("Number of total steps in test suite", 4, suite.totalSteps());
+    //starting a new test drops the unfinished one
+    suite.startTest(1);
+    assertEquals("Count for bob", 2, suite.stepCount(bob));
+    assertEquals("Number of total steps in test suite", 2, suite.totalSteps());
+  }
+
+  @Test
+  public void stepCountsFromCoverage() {
+    TestCoverage coverage = new TestCoverage();
+    coverage.addStep("bob");
+    coverage.addStep("bob");
+    TestSuite suite = new TestSuite(coverage);
+    FSMTransition bob = new FSMTransition("bob");
+    assertEquals("Count for bob from initial coverage", 2, suite.stepCount(bob));
+    suite.startTest(1);
+    suite.addStep(bob);
+    assertEquals("Count for bob", 3, suite.stepCount(bob));
+    assertFalse(suite.contains(new FSMTransition("alice")));
+  }
+
   @Test
   public void currentContainsByName() {
     TestSuite suite = new TestSuite();
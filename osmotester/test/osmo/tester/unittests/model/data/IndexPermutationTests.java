@@ -0,0 +1,44 @@
+package osmo.tester.unittests.model.data;
+
+import org.junit.Test;
+import osmo.tester.model.data.IndexPermutation;
+
+import static org.junit.Assert.*;
+
+/** @author Teemu Kanstren */
+public class IndexPermutationTests {
+  @Test
+  public void allIndices() {
+    for (int size : new int[] {1, 2, 3, 7, 16, 1000, 4097}) {
+      IndexPermutation permutation = new IndexPermutation(size, 111);
+      boolean[] found = new boolean[size];
+      for (int i = 0 ; i < size ; i++) {
+        int index = (int) permutation.get(i);
+        assertFalse("Index " + index + " found twice for size " + size, found[index]);
+        found[index] = true;
+      }
+    }
+  }
+
+  @Test
+  public void seeds() {
+    IndexPermutation p1 = new IndexPermutation(1000, 111);
+    IndexPermutation p2 = new IndexPermutation(1000, 111);
+    IndexPermutation p3 = new IndexPermutation(1000, 222);
+    boolean diff = false;
+    for (int i = 0 ; i < 1000 ; i++) {
+      assertEquals("Same seed should give same permutation", p1.get(i), p2.get(i));
+      if (p1.get(i) != p3.get(i)) diff = true;
+    }
+    assertTrue("Different seeds should give different permutations", diff);
+  }
+
+  @Test
+  public void largeSize() {
+    IndexPermutation permutation = new IndexPermutation(Long.MAX_VALUE, 111);
+    for (long i = Long.MAX_VALUE - 100 ; i < Long.MAX_VALUE ; i++) {
+      long index = permutation.get(i);
+      assertTrue("Index should be in range:" + index, index >= 0);
+    }
+  }
+}
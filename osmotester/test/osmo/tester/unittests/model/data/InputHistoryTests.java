@@ -0,0 +1,102 @@
+package osmo.tester.unittests.model.data;
+
+import org.junit.Test;
+import osmo.tester.model.data.InputHistory;
+import osmo.tester.model.data.Text;
+import osmo.tester.model.data.ValueRange;
+import osmo.tester.model.data.ValueSet;
+
+import static org.junit.Assert.*;
+
+/** @author Teemu Kanstren */
+public class InputHistoryTests {
+  @Test
+  public void full() {
+    InputHistory<String> history = InputHistory.full();
+    history.countValues();
+    for (int i = 0 ; i < 20 ; i++) {
+      history.add("v" + (i % 3));
+    }
+    assertEquals("Values kept", 20, history.values().size());
+    assertEquals("First value", "v0", history.values().get(0));
+    assertEquals("Count for v1", 7, history.count("v1"));
+    assertEquals("Count for v2", 6, history.count("v2"));
+    assertEquals("Total", 20, history.total());
+    assertEquals("Distinct", 3, history.distinct());
+  }
+
+  @Test
+  public void lastN() {
+    InputHistory<Integer> history = InputHistory.last(3);
+    history.countValues();
+    history.add(1);
+    history.add(2);
+    assertEquals("Values before full", "[1, 2]", history.values().toString());
+    for (int i = 3 ; i <= 7 ; i++) {
+      history.add(i);
+    }
+    assertEquals("Values kept", "[5, 6, 7]", history.values().toString());
+    assertEquals("Count for dropped value", 1, history.count(1));
+    assertEquals("Total", 7, history.total());
+    history.clear();
+    assertEquals("Values after clear", "[]", history.values().toString());
+    assertEquals("Count after clear", 0, history.count(7));
+  }
+
+  @Test
+  public void countsOnly() {
+    InputHistory<String> history = InputHistory.countsOnly();
+    history.countValues();
+    history.add("a");
+    history.add("a");
+    assertEquals("Values kept", 0, history.values().size());
+    assertEquals("Count", 2, history.count("a"));
+  }
+
+  @Test
+  public void unboundedCountsOnly() {
+    Text text = new Text();
+    text.setHistory(InputHistory.countsOnly());
+    text.setSeed(111);
+    for (int i = 0 ; i < 10 ; i++) {
+      text.random();
+    }
+    InputHistory<String> history = text.getInputHistory();
+    assertFalse("Text values should not be counted", history.isCountingValues());
+    assertEquals("Values kept", 0, history.values().size());
+    assertEquals("Total", 10, history.total());
+    try {
+      history.distinct();
+      fail("Distinct values should not be available without counts");
+    } catch (IllegalStateException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void balancedWithCountsOnly() {
+    ValueSet<String> set = new ValueSet<>("one", "two", "three");
+    set.setHistory(InputHistory.countsOnly());
+    set.setSeed(111);
+    for (int i = 0 ; i < 300 ; i++) {
+      set.balanced();
+    }
+    InputHistory<String> history = set.getInputHistory();
+    assertTrue("ValueSet values should be counted", history.isCountingValues());
+    assertEquals("Count for one", 100, history.count("one"));
+    assertEquals("Count for two", 100, history.count("two"));
+    assertEquals("Count for three", 100, history.count("three"));
+  }
+
+  @Test
+  public void loopWithoutHistory() {
+    ValueRange<Integer> range = new ValueRange<>(1, 3);
+    range.setHistory(null);
+    range.setSeed(111);
+    assertEquals(1, (int) range.loop());
+    assertEquals(2, (int) range.loop());
+    assertEquals(3, (int) range.loop());
+    assertEquals(1, (int) range.loop());
+    assertTrue("No history should be kept", range.getHistory().isEmpty());
+  }
+}
@@ -4,6 +4,8 @@ import org.junit.Test;
 import osmo.tester.model.data.ValueRange;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import static junit.framework.Assert.*;
 
@@ -138,6 +140,38 @@ public class ValueRangeTests {
     }
   }
 
+  @Test
+  public void balancingLargeRange() {
+    ValueRange<Long> range = new ValueRange<>(Long.class, 0, 1L << 32);
+    range.setIncrement(1L << 20);
+    range.setSeed(111);
+    Set<Long> values = new HashSet<>();
+    //4097 values from 0 to 2^32 with increment of 2^20
+    for (int i = 0 ; i < 4097 ; i++) {
+      long value = range.balanced();
+      assertTrue("Value should be in range:" + value, value >= 0 && value <= 1L << 32);
+      assertEquals("Value should be a multiple of increment:" + value, 0, value % (1L << 20));
+      assertTrue("Value should not repeat before all are covered:" + value, values.add(value));
+    }
+    assertTrue("Next pass should start again", values.contains(range.balanced()));
+    ValueRange<Integer> ids = new ValueRange<>(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    ids.setSeed(111);
+    Object id = ids.balanced();
+    assertEquals("Full int range should produce integers", Integer.class, id.getClass());
+  }
+
+  @Test
+  public void balancingDoubles() {
+    ValueRange<Double> range = new ValueRange<>(0d, 1d);
+    range.setIncrement(0.1d);
+    range.setSeed(111);
+    Set<Long> values = new HashSet<>();
+    for (int i = 0 ; i < 11 ; i++) {
+      values.add(Math.round(range.balanced() * 10));
+    }
+    assertEquals("All values from 0 to 1 should be covered", 11, values.size());
+  }
+
   @Test
   public void getOptions() {
     ValueRange<Integer> range = new ValueRange<>(1, 5);
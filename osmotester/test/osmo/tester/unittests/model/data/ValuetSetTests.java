@@ -5,6 +5,8 @@ import org.junit.Test;
 import osmo.tester.model.data.ValueSet;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 
@@ -282,6 +284,78 @@ public class ValuetSetTests {
     }
   }
   
+  @Test
+  public void reserveAndFreePool() {
+    set = new ValueSet<>();
+    set.setSeed(333);
+    for (int i = 0 ; i < 50000 ; i++) {
+      set.add("id" + i);
+    }
+    List<String> reserved = new ArrayList<>();
+    for (int i = 0 ; i < 100000 ; i++) {
+      if (reserved.size() < 1000 || i % 2 == 0) {
+        reserved.add(set.reserve());
+      } else {
+        set.free(reserved.remove(reserved.size() - 1));
+      }
+      assertEquals("Free and reserved should add up", 50000, set.available() + set.reserved());
+    }
+    for (String id : reserved) {
+      assertTrue("Reserved option should still be contained:" + id, set.contains(id));
+      assertTrue("Reserved option should be in reserved:" + id, set.getReservedOptions().contains(id));
+    }
+    set.remove(reserved.get(0));
+    assertFalse("Removed option should not be contained", set.contains(reserved.get(0)));
+    assertEquals("Size after remove", 49999, set.size());
+  }
+
+  @Test
+  public void largeOptionViews() {
+    set = new ValueSet<>();
+    for (int i = 0 ; i < 50000 ; i++) {
+      set.add("id" + i, i % 2 + 1);
+    }
+    for (int i = 0 ; i < 50000 ; i += 3) {
+      set.reserve("id" + i);
+    }
+    //iterating the views has to go through the options in order, not search each from the start
+    int index = 0;
+    int count = 0;
+    for (String option : set.getOptions()) {
+      assertEquals("Option in order", "id" + index, option);
+      count++;
+      if (count == index % 2 + 1) {
+        index++;
+        count = 0;
+      }
+    }
+    assertEquals("Options iterated", 50000, index);
+    List<String> reserved = new ArrayList<>(set.getReservedOptions());
+    assertEquals("Reserved options", set.reserved(), reserved.size());
+    Collection<String> reservedSet = new HashSet<>(reserved);
+    int free = 0;
+    for (String option : set.getFreeOptions()) {
+      assertFalse("Free option should not be reserved:" + option, reservedSet.contains(option));
+      free++;
+    }
+    assertEquals("Free options iterated", set.available(), free);
+  }
+
+  @Test
+  public void weightedReserveAndRemove() {
+    set.add("four", 3);
+    assertEquals("Options with weights", "[one, two, three, four, four, four]", set.getOptions().toString());
+    set.reserve("four");
+    assertEquals("Reserved with weight", 3, set.reserved());
+    assertEquals("Free without weighted", 3, set.available());
+    set.remove("four");
+    assertEquals("Reserved after removing one instance", "[four, four]", set.getReservedOptions().toString());
+    set.remove("one");
+    assertEquals("Options after remove", "[two, three, four, four]", set.getOptions().toString());
+    set.free("four");
+    assertEquals("Free after freeing", 4, set.available());
+  }
+
   @Test
   public void addOption() {
     set.add("four");
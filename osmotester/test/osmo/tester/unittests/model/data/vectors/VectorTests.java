@@ -3,6 +3,9 @@ package osmo.tester.unittests.model.data.vectors;
 import org.junit.Test;
 import osmo.tester.model.data.vectors.VectorSet;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static junit.framework.Assert.*;
@@ -59,6 +62,47 @@ public class VectorTests {
     assertEquals("<![CDATA[<script>var n=0;while(true){n++;}</script>]]>", set.loop());
   }
 
+  @Test
+  public void sharedCorpus() {
+    VectorSet set1 = new VectorSet(VectorSet.XSS);
+    VectorSet set2 = new VectorSet(VectorSet.XSS);
+    assertSame("Corpus should be shared", set1.getOptions(), set2.getOptions());
+    set1.setSeed(111);
+    set2.setSeed(111);
+    String first = set1.loop();
+    assertEquals("Second set should have its own cursor", first, set2.loop());
+    assertEquals("Cursors should be independent", set1.loop(), set2.loop());
+  }
+
+  @Test
+  public void modifyCopy() {
+    VectorSet set = new VectorSet(VectorSet.XPATH);
+    set.setSeed(111);
+    String reserved = set.reserve();
+    assertEquals("Free after reserve", 9, set.available());
+    assertFalse("Reserved should not be free", set.getFreeOptions().contains(reserved));
+    VectorSet other = new VectorSet(VectorSet.XPATH);
+    assertEquals("Shared corpus should not change", 10, other.available());
+    assertTrue("Shared corpus should still have reserved option", other.getFreeOptions().contains(reserved));
+  }
+
+  @Test
+  public void mappedFile() throws Exception {
+    Path file = Files.createTempFile("osmo-vectors", ".txt");
+    try {
+      Files.write(file, "#comment\r\nline 1\r\n\r\n  \n line 2 \näöå".getBytes(StandardCharsets.UTF_8));
+      VectorSet set = new VectorSet(file);
+      set.setSeed(111);
+      assertEquals("Vectors in file", "[line 1,  line 2 , äöå]", set.getOptions().toString());
+      assertEquals("line 1", set.loop());
+      assertEquals(" line 2 ", set.loop());
+      assertEquals("äöå", set.loop());
+      assertEquals("line 1", set.loop());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
   @Test
   public void testXPATH() {
     VectorSet set = new VectorSet(VectorSet.XPATH);
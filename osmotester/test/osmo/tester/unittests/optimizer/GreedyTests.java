@@ -3,6 +3,7 @@ package osmo.tester.unittests.optimizer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import osmo.common.Randomizer;
 import osmo.common.TestUtils;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.coverage.ScoreCalculator;
@@ -15,6 +16,7 @@ import osmo.tester.generator.testsuite.TestCase;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.FSMTransition;
 import osmo.tester.optimizer.GenerationResults;
+import osmo.tester.optimizer.TestSorter;
 import osmo.tester.optimizer.greedy.GreedyOptimizer;
 import osmo.tester.optimizer.greedy.IterationListener;
 import osmo.tester.optimizer.multiosmo.MultiOSMO;
@@ -273,6 +275,84 @@ public class GreedyTests {
     assertEquals("Coverage score", 28, scoreFor(tests));
   }
 
+  @Test
+  public void sorterMatchesStringOrder() {
+    TestSuite suite = new TestSuite();
+    String[][] names = {{"t1", "t2"}, {"t1"}, {"t1", "t2", "t3"}, {}, {"t10"}, {"t1", "t20"}, {"t1 "}, {"t1,"}, {"t1", " t2"}};
+    for (String[] test : names) {
+      suite.startTest(1);
+      for (String name : test) {
+        suite.addStep(new FSMTransition(name));
+      }
+      suite.endTest();
+    }
+    List<TestCase> tests = suite.getAllTestCases();
+    TestSorter sorter = new TestSorter();
+    for (TestCase t1 : tests) {
+      for (TestCase t2 : tests) {
+        int expected = Integer.signum(t1.toString().compareTo(t2.toString()));
+        assertEquals("Order of " + t1 + " vs " + t2, expected, Integer.signum(sorter.compare(t1, t2)));
+      }
+    }
+  }
+
+  @Test
+  public void lazyGreedyWithMax() {
+    gc.setStepWeight(1);
+    gc.setRequirementWeight(4);
+    TestSuite suite = createSuite2();
+    List<TestCase> tests = GreedyOptimizer.sortAndPrune(1, suite.getAllTestCases(), new ScoreCalculator(gc), 2);
+    assertEquals("Number of tests with max", 2, tests.size());
+    assertEquals("First test", "[t1, t2, t3, t4]", tests.get(0).getAllStepNames().toString());
+    assertEquals("Second test", "[t1]", tests.get(1).getAllStepNames().toString());
+    assertEquals("Coverage score", 24, scoreFor(tests));
+  }
+
+  @Test
+  public void negativeWeight() {
+    gc.setStepWeight(1);
+    gc.setRequirementWeight(-2);
+    TestSuite suite = new TestSuite();
+    suite.startTest(1);
+    suite.addStep(new FSMTransition("t1"));
+    suite.addStep(new FSMTransition("t2"));
+    suite.addStep(new FSMTransition("t3"));
+    suite.coveredRequirement("r1");
+    suite.endTest();
+    suite.startTest(1);
+    suite.addStep(new FSMTransition("t4"));
+    suite.coveredRequirement("r1");
+    suite.endTest();
+    //the second test adds -1 alone, but 1 once the first one has already covered the requirement
+    List<TestCase> tests = GreedyOptimizer.sortAndPrune(1, suite.getAllTestCases(), new ScoreCalculator(gc), 0);
+    assertEquals("Number of tests", 2, tests.size());
+    assertEquals("First test", "[t1, t2, t3]", tests.get(0).getAllStepNames().toString());
+    assertEquals("Second test", "[t4]", tests.get(1).getAllStepNames().toString());
+  }
+
+  @Test
+  public void parallelSortMatchesSequential() {
+    gc.setStepWeight(1);
+    gc.setStepPairWeight(2);
+    gc.setRequirementWeight(3);
+    Randomizer rand = new Randomizer(55);
+    TestSuite suite = new TestSuite();
+    for (int i = 0 ; i < 300 ; i++) {
+      suite.startTest(1);
+      int length = rand.nextInt(1, 10);
+      for (int s = 0 ; s < length ; s++) {
+        suite.addStep(new FSMTransition("t" + rand.nextInt(1, 20)));
+        if (rand.nextInt(0, 9) == 0) suite.coveredRequirement("r" + rand.nextInt(1, 50));
+      }
+      suite.endTest();
+    }
+    ScoreCalculator calculator = new ScoreCalculator(gc);
+    List<TestCase> sequential = GreedyOptimizer.sortAndPrune(1, suite.getAllTestCases(), calculator, 0, 1);
+    List<TestCase> parallel = GreedyOptimizer.sortAndPrune(1, suite.getAllTestCases(), calculator, 0, 4);
+    assertTrue("Sorted suite should not be empty", sequential.size() > 1);
+    assertEquals("Parallel sort result", sequential, parallel);
+  }
+
   @Test
   public void generation() throws Exception {
     ScoreConfiguration config = new ScoreConfiguration();
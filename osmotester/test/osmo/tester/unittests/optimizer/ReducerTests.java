@@ -5,6 +5,7 @@ import osmo.common.TestUtils;
 import osmo.common.log.Logger;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.generator.ReflectiveModelFactory;
+import osmo.tester.generator.endcondition.EndCondition;
 import osmo.tester.generator.testsuite.TestCase;
 import osmo.tester.model.FSMTransition;
 import osmo.tester.optimizer.reducer.Analyzer;
@@ -13,8 +14,10 @@ import osmo.tester.optimizer.reducer.debug.Invariants;
 import osmo.tester.optimizer.reducer.Reducer;
 import osmo.tester.optimizer.reducer.ReducerConfig;
 import osmo.tester.optimizer.reducer.ReducerState;
+import osmo.tester.optimizer.reducer.ShorteningScheduler;
 import osmo.tester.optimizer.reducer.debug.invariants.FlexPrecedence;
 import osmo.tester.optimizer.reducer.debug.invariants.NumberOfSteps;
+import osmo.tester.optimizer.reducer.debug.invariants.SharedSequence;
 import osmo.tester.scenario.Scenario;
 import osmo.tester.scenario.Slice;
 import osmo.tester.unittests.ScriptBuilder;
@@ -23,9 +26,11 @@ import osmo.tester.unittests.testmodels.ErrorModelProbability;
 import osmo.tester.unittests.testmodels.Model10Debug;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -140,7 +145,9 @@ public class ReducerTests {
     config.setParallelism(1);
     //changed here on 8apr15
     config.setInitialTime(TimeUnit.MINUTES, 10);
-    config.setFuzzTime(TimeUnit.SECONDS, 5);
+    //a fixed number of fuzz tests instead of a time limit, to get the same tests on every run
+    config.setFuzzTime(TimeUnit.MINUTES, 10);
+    config.setFuzzTestCount(3000);
     config.setShorteningTime(TimeUnit.MINUTES, 10);
     config.setTargetLength(11);
     Reducer reducer = new Reducer(config);
@@ -197,6 +204,49 @@ public class ReducerTests {
     assertEquals("Slice 2 max", 2, slice2.getMax());
   }
 
+  @Test
+  public void shorteningSchedule() {
+    ReducerState state = new ReducerState(Arrays.asList("hello1", "hello2"), new ReducerConfig(111));
+    TestCase test = new TestCase(0);
+    test.addStep(new FSMTransition("hello1"));
+    test.addStep(new FSMTransition("hello2"));
+    test.addStep(new FSMTransition("hello2"));
+    test.setFailed(true);
+    state.addTest(test);
+    state.startShortening();
+    ShorteningScheduler scheduler = new ShorteningScheduler(state);
+    assertSame("Initial best", test, scheduler.getBest());
+    //the initial test is replicated for diversity but should be planned only once
+    ShorteningScheduler.Candidate c1 = scheduler.next();
+    ShorteningScheduler.Candidate c2 = scheduler.next();
+    Collection<String> removed = new TreeSet<>(Arrays.asList(c1.getStep(), c2.getStep()));
+    assertEquals("Removed steps", "[hello1, hello2]", removed.toString());
+    ShorteningScheduler.Candidate c3 = scheduler.next();
+    assertEquals("Replanned step", c1.getStep(), c3.getStep());
+    EndCondition cancel = scheduler.cancellation(c2);
+    assertFalse("Cancelled before shorter test", cancel.endTest(null, null));
+
+    TestCase passing = new TestCase(1);
+    passing.addStep(new FSMTransition("hello2"));
+    scheduler.add(passing);
+    assertSame("Best after passing test", test, scheduler.getBest());
+    assertFalse("Cancelled after passing test", cancel.endTest(null, null));
+
+    TestCase shorter = new TestCase(2);
+    shorter.addStep(new FSMTransition("hello2"));
+    shorter.addStep(new FSMTransition("hello2"));
+    shorter.setFailed(true);
+    scheduler.add(shorter);
+    assertSame("Best after shorter test", shorter, scheduler.getBest());
+    assertTrue("Cancelled test after shorter test", cancel.endTest(null, null));
+    assertTrue("Cancelled suite after shorter test", cancel.endSuite(null, null));
+    assertEquals("State minimum", 2, state.getMinimum());
+    ShorteningScheduler.Candidate c4 = scheduler.next();
+    assertSame("Candidate test after shorter test", shorter, c4.getTest());
+    assertEquals("Candidate step after shorter test", "hello2", c4.getStep());
+    assertFalse("Cancelled new candidate", scheduler.cancellation(c4).endTest(null, null));
+  }
+
   @Test
   public void metrics() {
     TestCase test22 = createTest22();
@@ -248,6 +298,25 @@ public class ReducerTests {
     assertEquals("Precedence patterns", "[A->B, A->C, A->D, A->E, B->D, B->E, C->D, C->E, D->E]", patterns.toString());
   }
 
+  @Test
+  public void sharedSequences() {
+    SharedSequence ss = new SharedSequence();
+    List<String> t1 = Arrays.asList("A", "B", "C", "D", "A", "B", "E");
+    List<String> t2 = Arrays.asList("E", "A", "B", "C", "X", "C", "D", "A");
+    List<String> t3 = Arrays.asList("C", "D", "A", "B", "C", "E");
+    ss.init(t1);
+    ss.process(t1);
+    assertEquals("Single test", "[[A, B, C, D, A, B, E]]", ss.getPatterns().toString());
+    ss.process(t2);
+    assertEquals("Two tests", "[[A, B, C], [C, D, A], [E]]", ss.getPatterns().toString());
+    ss.process(t3);
+    assertEquals("Three tests", "[[A, B, C], [C, D, A], [E]]", ss.getPatterns().toString());
+    ss.process(Arrays.asList("B", "A", "B", "Y", "D"));
+    assertEquals("Four tests", "[[A, B], [D]]", ss.getPatterns().toString());
+    ss.process(Arrays.asList("Y"));
+    assertEquals("No shared steps", "[]", ss.getPatterns().toString());
+  }
+
   @Test
   public void invariants() {
     TestCase test14_1 = createTest14_1();
@@ -4,17 +4,20 @@ import org.junit.Before;
 import org.junit.Test;
 import osmo.tester.OSMOConfiguration;
 import osmo.tester.annotation.Variable;
+import osmo.tester.coverage.CoverageIds;
 import osmo.tester.generator.SingleInstanceModelFactory;
 import osmo.tester.generator.testsuite.TestSuite;
 import osmo.tester.model.*;
 import osmo.tester.parser.MainParser;
 import osmo.tester.parser.ParserResult;
+import osmo.tester.unittests.explorer.testmodels.SnapshotCounterModel;
 import osmo.tester.unittests.testmodels.EmptyTestModel1;
 import osmo.tester.unittests.testmodels.EmptyTestModel2;
 import osmo.tester.unittests.testmodels.EmptyTestModel3;
 import osmo.tester.unittests.testmodels.EmptyTestModel4;
 import osmo.tester.unittests.testmodels.EmptyTestModel5;
 import osmo.tester.unittests.testmodels.EmptyTestModel6;
+import osmo.tester.unittests.testmodels.GuardInputModel;
 import osmo.tester.unittests.testmodels.PartialModel1;
 import osmo.tester.unittests.testmodels.PartialModel2;
 import osmo.tester.unittests.testmodels.StepAndTransitionModel;
@@ -230,6 +233,43 @@ public class ParserTests {
     assertEquals("Transition '" + name + "' should have " + oracleCount + " post methods.", oracleCount, transition.getPostMethods().size());
   }
 
+  @Test
+  public void guardReadsUnknownVariable() {
+    try {
+      parser.parse(1, conf(new GuardInputModel.InvalidInput()), new TestSuite());
+      fail("Should throw exception");
+    } catch (Exception e) {
+      String expected = "Invalid test model:\n" +
+              "Guard (\"allowIncrease()\") reads unknown @Variable:nope.\n";
+      assertEquals(expected, e.getMessage());
+    }
+  }
+
+  @Test
+  public void snapshotWithoutRestore() {
+    try {
+      parser.parse(1, conf(new SnapshotCounterModel.NoRestore()), new TestSuite());
+      fail("Should throw exception");
+    } catch (Exception e) {
+      String expected = "Invalid test model:\n" +
+              "Invalid return type for @Snapshot (\"save()\"):void.\n" +
+              "@Snapshot without matching @Restore in:" + SnapshotCounterModel.NoRestore.class.getName() + ".\n";
+      assertEquals(expected, e.getMessage());
+    }
+  }
+
+  @Test
+  public void reParseBindsNewInstances() {
+    EmptyTestModel1 model1 = new EmptyTestModel1();
+    EmptyTestModel1 model2 = new EmptyTestModel1();
+    FSM fsm1 = parser.parse(1, conf(model1), new TestSuite()).getFsm();
+    FSM fsm2 = new MainParser().parse(1, conf(model2), new TestSuite()).getFsm();
+    assertTransitionPresent(fsm2, "hello", 1, 2);
+    assertSame("First parse should bind first model object", model1, fsm1.getTransition("hello").getTransition().getModelObject());
+    assertSame("Second parse should bind second model object", model2, fsm2.getTransition("hello").getTransition().getModelObject());
+    assertNotNull("Should have TestSuite set", model2.getHistory());
+  }
+
   @Test
   public void variableParsing() {
     VariableModel1 model = new VariableModel1();
@@ -249,6 +289,26 @@ public class ParserTests {
     assertVariablePresent(variables, "stringVariable");
   }
 
+  @Test
+  public void variableValueIds() {
+    VariableModel1 model = new VariableModel1();
+    FSM fsm = parser.parse(1, conf(model), new TestSuite()).getFsm();
+    for (int i = 0 ; i < 3 ; i++) {
+      for (VariableField variable : fsm.getModelVariables()) {
+        assertFalse("Should not be searchable:" + variable.getName(), variable.isSearchableInput());
+        String expected = "" + variable.getValue();
+        assertEquals("Value for " + variable.getName(), expected, CoverageIds.VALUES.nameFor(variable.getValueId()));
+      }
+      model.one();
+    }
+    VariableModel2 model2 = new VariableModel2();
+    fsm = new MainParser().parse(1, conf(model2), new TestSuite()).getFsm();
+    for (VariableField variable : fsm.getModelVariables()) {
+      boolean searchable = variable.getName().equals("range") || variable.getName().equals("named-set");
+      assertEquals("Searchable input:" + variable.getName(), searchable, variable.isSearchableInput());
+    }
+  }
+
   private void assertVariablePresent(Collection<VariableField> variables, String name) {
     for (VariableField variable : variables) {
       if (variable.getName().equals(name)) {
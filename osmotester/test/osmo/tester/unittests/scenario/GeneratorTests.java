@@ -11,9 +11,13 @@ import osmo.tester.generator.endcondition.Length;
 import osmo.tester.generator.testsuite.TestCase;
 import osmo.tester.generator.testsuite.TestCaseStep;
 import osmo.tester.generator.testsuite.TestSuite;
+import osmo.tester.model.FSMTransition;
 import osmo.tester.scenario.Scenario;
+import osmo.tester.scenario.ScenarioFilter;
 import osmo.tester.unittests.testmodels.CalculatorModel;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -275,6 +279,41 @@ public class GeneratorTests {
     }
   }
 
+  @Test
+  public void sliceCountsFollowTest() {
+    scenario.addSlice("increase", 0, 1);
+    scenario.forbid("reset");
+    ScenarioFilter filter = new ScenarioFilter(scenario);
+    FSMTransition start = new FSMTransition("start");
+    FSMTransition increase = new FSMTransition("increase");
+    FSMTransition decrease = new FSMTransition("decrease");
+    FSMTransition reset = new FSMTransition("reset");
+    TestSuite suite = new TestSuite();
+    suite.startTest(1);
+    List<FSMTransition> enabled = new ArrayList<>(Arrays.asList(start, increase));
+    filter.filter(enabled, suite.getCurrentTest());
+    assertEquals("Startup should allow only first step", Arrays.asList(start), enabled);
+    suite.addStep(start);
+    for (int i = 0 ; i < 4 ; i++) {
+      suite.addStep(increase);
+    }
+    TestCase prefix = suite.getCurrentTest().copy();
+    suite.addStep(increase);
+    enabled = new ArrayList<>(Arrays.asList(increase, decrease, reset));
+    filter.filter(enabled, suite.getCurrentTest());
+    assertEquals("Max reached for increase slice", Arrays.asList(decrease), enabled);
+    //continuing from the prefix drops the last increase
+    suite.continueTest(prefix);
+    enabled = new ArrayList<>(Arrays.asList(increase, decrease, reset));
+    filter.filter(enabled, suite.getCurrentTest());
+    assertEquals("Increase allowed after continuing from prefix", Arrays.asList(increase, decrease), enabled);
+    suite.endTest();
+    suite.startTest(1);
+    enabled = new ArrayList<>(Arrays.asList(start, increase));
+    filter.filter(enabled, suite.getCurrentTest());
+    assertEquals("New test should start with startup", Arrays.asList(start), enabled);
+  }
+
   private void assertStartSequences() {
     TestSuite suite = tester.getSuite();
     List<TestCase> tests = suite.getAllTestCases();
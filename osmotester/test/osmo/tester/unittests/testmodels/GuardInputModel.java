@@ -0,0 +1,56 @@
+package osmo.tester.unittests.testmodels;
+
+import osmo.tester.annotation.Guard;
+import osmo.tester.annotation.TestStep;
+import osmo.tester.annotation.Variable;
+
+/**
+ * Test model with a guard declaring the variables it reads.
+ *
+ * @author Teemu Kanstren
+ */
+public class GuardInputModel {
+  @Variable
+  private int count = 0;
+  /** Number of times the guard has actually been invoked. */
+  private int guardCalls = 0;
+
+  public int getCount() {
+    return count;
+  }
+
+  public int getGuardCalls() {
+    return guardCalls;
+  }
+
+  @Guard(value = "increase", reads = "count")
+  public boolean allowIncrease() {
+    guardCalls++;
+    return count < 3;
+  }
+
+  @TestStep("increase")
+  public void increase() {
+    count++;
+  }
+
+  @TestStep("stay")
+  public void stay() {
+  }
+
+  /** Model with a guard reading a non-existing variable. */
+  public static class InvalidInput {
+    @Variable
+    private int count = 0;
+
+    @Guard(value = "increase", reads = "nope")
+    public boolean allowIncrease() {
+      return count < 3;
+    }
+
+    @TestStep("increase")
+    public void increase() {
+      count++;
+    }
+  }
+}